@@ -1,12 +1,23 @@
 package com.eto2112.epiccraftingshook;
 
+import com.eto2112.epiccraftingshook.audit.AuditLog;
+import com.eto2112.epiccraftingshook.debug.DebugCategory;
+import com.eto2112.epiccraftingshook.debug.DebugChannel;
+import com.eto2112.epiccraftingshook.inventory.PlayerInventoryIndex;
 import com.eto2112.epiccraftingshook.listeners.EnhancedCraftingMenuListener;
+import com.eto2112.epiccraftingshook.listeners.InventoryIndexListener;
+import com.eto2112.epiccraftingshook.listeners.SessionListener;
+import com.eto2112.epiccraftingshook.session.SessionRegistry;
+import com.eto2112.epiccraftingshook.stats.ClickHeatmap;
 import com.eto2112.epiccraftingshook.commands.HookCommand;
 import com.eto2112.epiccraftingshook.utils.CommandExecutor;
 import com.eto2112.epiccraftingshook.utils.ConfigManager;
+import com.eto2112.epiccraftingshook.utils.ConfigSnapshot;
+import com.eto2112.epiccraftingshook.utils.PhaseTimer;
+import com.eto2112.epiccraftingshook.utils.TaskScheduler;
+import ecp.ajneb97.EpicCraftingsPlus;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -21,11 +32,39 @@ public class EpicCraftingsHookPlugin extends JavaPlugin {
     private volatile CommandExecutor commandExecutor;
     private volatile ConfigManager configManager;
     private volatile EnhancedCraftingMenuListener menuListener;
+    private volatile PlayerInventoryIndex inventoryIndex;
+    private volatile InventoryIndexListener inventoryIndexListener;
     private volatile HookCommand hookCommand;
 
+    // Per-player state, opened on join and closed on quit
+    private volatile SessionRegistry sessions;
+    private volatile SessionListener sessionListener;
+
+    // Click/dispatch audit trail, idle unless enabled in config
+    private volatile AuditLog auditLog;
+
+    // Per-recipe, per-position click counters behind /echook stats
+    private volatile ClickHeatmap clickHeatmap;
+
+    // Categorised, rate-limited debug output
+    private volatile DebugChannel debugChannel;
+
+    // Platform scheduler (Bukkit, or region schedulers on Folia)
+    private volatile TaskScheduler taskScheduler;
+
+    // Hooked EpicCraftingsPlus instance, source of the crafting menu layouts
+    private volatile EpicCraftingsPlus epicCraftings;
+
     // Task management for proper cleanup
-    private BukkitTask cleanupTask;
-    private BukkitTask cacheMaintenanceTask;
+    private TaskScheduler.Handle cleanupTask;
+    private TaskScheduler.Handle cacheMaintenanceTask;
+    private TaskScheduler.Handle debugFlushTask;
+    private TaskScheduler.Handle statsSaveTask;
+    private TaskScheduler.Handle inventoryReconcileTask;
+    private TaskScheduler.Handle delayedActionTask;
+
+    // Per-phase startup timings
+    private volatile PhaseTimer startupTimer;
 
     // Plugin state management
     private final AtomicBoolean isEnabled = new AtomicBoolean(false);
@@ -36,63 +75,69 @@ public class EpicCraftingsHookPlugin extends JavaPlugin {
     private static final String ECHOOK_COMMAND = "echook";
     private static final long CLEANUP_INTERVAL = 6000L; // 5 minutes
     private static final long CACHE_MAINTENANCE_INTERVAL = 12000L; // 10 minutes
+    private static final long DEBUG_FLUSH_INTERVAL = 200L; // 10 seconds
+    private static final long STATS_SAVE_INTERVAL = 6000L; // 5 minutes
+    private static final long INVENTORY_RECONCILE_INTERVAL = 100L; // 5 seconds
 
     @Override
     public void onEnable() {
         instance = this;
+        startupTimer = new PhaseTimer();
+        taskScheduler = new TaskScheduler(this);
 
-        // Initialize plugin asynchronously for faster startup
-        CompletableFuture.runAsync(this::initializePluginAsync)
-                .thenRun(() -> {
-                    // Complete initialization on main thread
-                    new BukkitRunnable() {
-                        @Override
-                        public void run() {
-                            completeInitialization();
-                        }
-                    }.runTask(this);
+        // Phase 1 (main thread): dependency check and default config extraction
+        long phaseStart = System.nanoTime();
+        if (!checkDependencies()) {
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
+        debugChannel = new DebugChannel(getLogger());
+        auditLog = new AuditLog(getDataFolder(), getLogger());
+        clickHeatmap = new ClickHeatmap(getDataFolder(), getLogger());
+        configManager = new ConfigManager(this);
+        saveDefaultConfig();
+        startupTimer.record("dependencies", phaseStart);
+
+        // Phase 2 (async): file I/O, YAML parsing and compilation, no Bukkit API use
+        CompletableFuture.supplyAsync(this::loadConfigurationAsync)
+                .thenAccept(snapshot -> {
+                    // Phase 3 (main thread): publish config and register with Bukkit
+                    taskScheduler.runGlobal(() -> completeInitialization(snapshot));
                 })
                 .exceptionally(throwable -> {
-                    getLogger().severe("Failed to initialize plugin: " + throwable.getMessage());
-                    getServer().getPluginManager().disablePlugin(this);
+                    getLogger().log(Level.SEVERE, "Failed to initialize plugin", throwable);
+                    taskScheduler.runGlobal(() -> getServer().getPluginManager().disablePlugin(this));
                     return null;
                 });
     }
 
-    // Async initialization to reduce startup time
-    private void initializePluginAsync() {
-        try {
-            // Check dependencies first
-            if (!checkDependencies()) {
-                throw new IllegalStateException("Required dependencies not found");
-            }
-
-            // Initialize core components
-            initializeComponents();
-
-            // Mark as initialized
-            isInitialized.set(true);
+    // Async phase: only touches the plugin data folder, the compiled cache and pure YAML parsing
+    private ConfigSnapshot loadConfigurationAsync() {
+        ConfigSnapshot snapshot = configManager.loadSnapshot(startupTimer);
 
-        } catch (Exception e) {
-            getLogger().log(Level.SEVERE, "Error during async initialization", e);
-            throw new RuntimeException(e);
-        }
+        long phaseStart = System.nanoTime();
+        clickHeatmap.load();
+        startupTimer.record("stats-load", phaseStart);
+        return snapshot;
     }
 
     // Fast dependency checking
     private boolean checkDependencies() {
-        if (getServer().getPluginManager().getPlugin(EPIC_CRAFTINGS_PLUS) == null) {
+        Plugin dependency = getServer().getPluginManager().getPlugin(EPIC_CRAFTINGS_PLUS);
+        if (!(dependency instanceof EpicCraftingsPlus)) {
             getLogger().severe("EpicCraftingsPlus not found! Disabling plugin.");
             return false;
         }
+        epicCraftings = (EpicCraftingsPlus) dependency;
         return true;
     }
 
     // Optimized component initialization
     private void initializeComponents() {
         try {
-            // Initialize configuration manager first (required by others)
-            configManager = new ConfigManager(this);
+            // Sessions first: the listener and executor keep their per-player state in them
+            sessions = new SessionRegistry(getServer().getMaxPlayers());
+            sessionListener = new SessionListener(sessions);
 
             // Initialize command executor
             commandExecutor = new CommandExecutor(this);
@@ -100,6 +145,10 @@ public class EpicCraftingsHookPlugin extends JavaPlugin {
             // Initialize listener
             menuListener = new EnhancedCraftingMenuListener(this);
 
+            // Per-player held item counts, kept current from inventory events
+            inventoryIndex = new PlayerInventoryIndex(this);
+            inventoryIndexListener = new InventoryIndexListener(inventoryIndex);
+
             // Initialize command handler
             hookCommand = new HookCommand(this);
 
@@ -110,22 +159,37 @@ public class EpicCraftingsHookPlugin extends JavaPlugin {
     }
 
     // Complete initialization on main thread
-    private void completeInitialization() {
+    private void completeInitialization(ConfigSnapshot snapshot) {
+        // The plugin may have been disabled while the config was loading
+        if (!isEnabled()) return;
+
         try {
+            long phaseStart = System.nanoTime();
+            configManager.applySnapshot(snapshot);
+            initializeComponents();
+            isInitialized.set(true);
+            startupTimer.record("components", phaseStart);
+
             // Register components that require main thread
+            phaseStart = System.nanoTime();
             registerEventListeners();
             registerCommands();
 
+            // Players already online (plugin loaded late or reloaded) never fired a join for us
+            getServer().getOnlinePlayers().forEach(sessions::open);
+
             // Start maintenance tasks
             startMaintenanceTasks();
+            startupTimer.record("registration", phaseStart);
 
-            // Mark plugin as enabled
+            // Readiness gate: clicks are only handled from here on
             isEnabled.set(true);
 
             getLogger().info("EpicCraftingsRequireItemHook enabled successfully!");
+            getLogger().info("Startup phases: " + startupTimer.report());
 
             // Log startup information if debug is enabled
-            if (configManager != null && configManager.isDebugEnabled()) {
+            if (configManager.isDebugEnabled()) {
                 logStartupInfo();
             }
 
@@ -138,7 +202,9 @@ public class EpicCraftingsHookPlugin extends JavaPlugin {
     // Optimized event listener registration
     private void registerEventListeners() {
         if (menuListener != null) {
+            getServer().getPluginManager().registerEvents(sessionListener, this);
             getServer().getPluginManager().registerEvents(menuListener, this);
+            getServer().getPluginManager().registerEvents(inventoryIndexListener, this);
         } else {
             throw new IllegalStateException("Menu listener not initialized");
         }
@@ -157,37 +223,39 @@ public class EpicCraftingsHookPlugin extends JavaPlugin {
 
     // Start periodic maintenance tasks
     private void startMaintenanceTasks() {
-        // Cleanup task for cooldowns and temporary data
-        cleanupTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                performCleanupMaintenance();
-            }
-        }.runTaskTimerAsynchronously(this, CLEANUP_INTERVAL, CLEANUP_INTERVAL);
+        // Cleanup task for the admin command caches and expired cooldowns of players who left; other per-player
+        // state goes away with the player's session
+        cleanupTask = taskScheduler.runAsyncTimer(this::performCleanupMaintenance,
+                CLEANUP_INTERVAL, CLEANUP_INTERVAL);
 
         // Cache maintenance task
-        cacheMaintenanceTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                performCacheMaintenance();
-            }
-        }.runTaskTimerAsynchronously(this, CACHE_MAINTENANCE_INTERVAL, CACHE_MAINTENANCE_INTERVAL);
+        cacheMaintenanceTask = taskScheduler.runAsyncTimer(this::performCacheMaintenance,
+                CACHE_MAINTENANCE_INTERVAL, CACHE_MAINTENANCE_INTERVAL);
+
+        // Suppression summaries for debug categories that went quiet
+        debugFlushTask = taskScheduler.runAsyncTimer(debugChannel::flushSuppressed,
+                DEBUG_FLUSH_INTERVAL, DEBUG_FLUSH_INTERVAL);
+
+        // Persist click counters off the main thread
+        statsSaveTask = taskScheduler.runAsyncTimer(clickHeatmap::save, STATS_SAVE_INTERVAL, STATS_SAVE_INTERVAL);
+
+        // Rescan players whose indexed inventory is older than the reconcile interval
+        inventoryReconcileTask = taskScheduler.runGlobalTimer(inventoryIndex::reconcile,
+                INVENTORY_RECONCILE_INTERVAL, INVENTORY_RECONCILE_INTERVAL);
+
+        // Single driver for every [delay] in every action sequence
+        delayedActionTask = taskScheduler.runGlobalTimer(commandExecutor::tickDelayedActions, 1L, 1L);
     }
 
     // Perform cleanup maintenance
     private void performCleanupMaintenance() {
         try {
-            if (menuListener != null) {
-                menuListener.cleanupCooldowns();
-            }
-
-            if (commandExecutor != null) {
-                commandExecutor.cleanupCache();
-            }
-
             if (hookCommand != null) {
                 hookCommand.cleanupCaches();
             }
+            if (sessions != null) {
+                sessions.purgeExpiredCooldowns();
+            }
 
         } catch (Exception e) {
             getLogger().log(Level.WARNING, "Error during cleanup maintenance", e);
@@ -201,19 +269,13 @@ public class EpicCraftingsHookPlugin extends JavaPlugin {
                 configManager.clearCommandCache();
             }
 
-            if (commandExecutor != null) {
-                commandExecutor.clearPlaceholderCache();
-            }
-
             // Force garbage collection if memory usage is high
             Runtime runtime = Runtime.getRuntime();
             long usedMemory = runtime.totalMemory() - runtime.freeMemory();
             long maxMemory = runtime.maxMemory();
 
             if (usedMemory > maxMemory * 0.8) { // 80% memory usage
-                if (configManager != null && configManager.isDebugEnabled()) {
-                    getLogger().info("High memory usage detected, performing garbage collection");
-                }
+                debugChannel.log(DebugCategory.CACHE, () -> "High memory usage detected, performing garbage collection");
                 System.gc();
             }
 
@@ -251,34 +313,82 @@ public class EpicCraftingsHookPlugin extends JavaPlugin {
     public void onDisable() {
         getLogger().info("Disabling EpicCraftingsRequireItemHook...");
 
-        // Mark as disabled immediately
+        // Stop accepting clicks immediately
         isEnabled.set(false);
 
         // Stop maintenance tasks
         stopMaintenanceTasks();
 
-        // Cleanup resources asynchronously
-        CompletableFuture.runAsync(this::cleanupResources)
-                .thenRun(() -> {
-                    getLogger().info("EpicCraftingsRequireItemHook disabled successfully!");
-                })
-                .exceptionally(throwable -> {
-                    getLogger().warning("Error during cleanup: " + throwable.getMessage());
-                    return null;
-                });
+        // Drain in-flight dispatches synchronously, bounded by the configured budget
+        drainPendingWork();
+
+        // Final click stats write, only if startup got far enough to load them
+        if (clickHeatmap != null && isInitialized.get()) {
+            clickHeatmap.save();
+        }
+
+        // Flush the audit trail, including any drops reported by the drain
+        if (auditLog != null) {
+            auditLog.close();
+        }
+
+        // Emit pending suppression summaries and stop the debug emitter
+        if (debugChannel != null) {
+            debugChannel.close();
+        }
+
+        // Release state on this thread, before the plugin classloader is closed
+        cleanupResources();
+
+        getLogger().info("EpicCraftingsRequireItemHook disabled successfully!");
+    }
+
+    // Let accepted clicks finish resolving, then run or report their queued commands
+    private void drainPendingWork() {
+        long budgetMillis = configManager != null ? configManager.getDrainTimeoutMillis() : 0L;
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+
+        try {
+            if (menuListener != null) {
+                menuListener.awaitInFlightClicks(deadline);
+            }
+            if (commandExecutor != null) {
+                commandExecutor.drainPendingDispatches(deadline);
+            }
+        } catch (Exception e) {
+            getLogger().log(Level.WARNING, "Error draining pending dispatches", e);
+        }
     }
 
     // Stop all maintenance tasks
     private void stopMaintenanceTasks() {
-        if (cleanupTask != null && !cleanupTask.isCancelled()) {
+        if (cleanupTask != null) {
             cleanupTask.cancel();
             cleanupTask = null;
         }
 
-        if (cacheMaintenanceTask != null && !cacheMaintenanceTask.isCancelled()) {
+        if (cacheMaintenanceTask != null) {
             cacheMaintenanceTask.cancel();
             cacheMaintenanceTask = null;
         }
+
+        if (debugFlushTask != null) {
+            debugFlushTask.cancel();
+            debugFlushTask = null;
+        }
+
+        if (statsSaveTask != null) {
+            statsSaveTask.cancel();
+            statsSaveTask = null;
+        }
+        if (inventoryReconcileTask != null) {
+            inventoryReconcileTask.cancel();
+            inventoryReconcileTask = null;
+        }
+        if (delayedActionTask != null) {
+            delayedActionTask.cancel();
+            delayedActionTask = null;
+        }
     }
 
     // Cleanup resources on disable
@@ -289,13 +399,12 @@ public class EpicCraftingsHookPlugin extends JavaPlugin {
                 configManager.clearCommandCache();
             }
 
-            if (commandExecutor != null) {
-                commandExecutor.clearPlaceholderCache();
-            }
-
             if (menuListener != null) {
                 menuListener.clearCaches();
-                menuListener.cleanupCooldowns();
+            }
+
+            if (sessions != null) {
+                sessions.clear();
             }
 
             if (hookCommand != null) {
@@ -327,6 +436,34 @@ public class EpicCraftingsHookPlugin extends JavaPlugin {
         return commandExecutor;
     }
 
+    public AuditLog getAuditLog() {
+        return auditLog;
+    }
+
+    public PlayerInventoryIndex getInventoryIndex() {
+        return inventoryIndex; // Can be null during initialization
+    }
+
+    public ClickHeatmap getClickHeatmap() {
+        return clickHeatmap;
+    }
+
+    public DebugChannel getDebugChannel() {
+        return debugChannel;
+    }
+
+    public EpicCraftingsPlus getEpicCraftings() {
+        return epicCraftings;
+    }
+
+    public TaskScheduler getTaskScheduler() {
+        return taskScheduler;
+    }
+
+    public SessionRegistry getSessions() {
+        return sessions; // Can be null during initialization
+    }
+
     public EnhancedCraftingMenuListener getMenuListener() {
         return menuListener; // Can be null during initialization
     }
@@ -373,8 +510,8 @@ public class EpicCraftingsHookPlugin extends JavaPlugin {
             stats.append("Config cache: ").append(configManager.getCommandCacheSize()).append(" entries\n");
         }
 
-        if (commandExecutor != null) {
-            stats.append("Command cache: ").append(commandExecutor.getPlaceholderCacheSize()).append(" entries\n");
+        if (configManager != null) {
+            stats.append("Compiled messages: ").append(configManager.getSnapshot().getMessageCount()).append("\n");
         }
 
         stats.append(getMemoryInfo());
@@ -388,9 +525,7 @@ public class EpicCraftingsHookPlugin extends JavaPlugin {
             performCleanupMaintenance();
             performCacheMaintenance();
 
-            if (configManager != null && configManager.isDebugEnabled()) {
-                getLogger().info("Forced cleanup completed");
-            }
+            debugChannel.log(DebugCategory.CACHE, () -> "Forced cleanup completed");
         });
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.eto2112.epiccraftingshook.audit;
+
+// Kinds of events recorded in the audit log
+public enum AuditEventType {
+    // A require-item link was clicked and resolved to commands
+    CLICK,
+    // A single command/action was executed for a player
+    DISPATCH,
+    // A queued dispatch was dropped (e.g. on shutdown)
+    DROP,
+    // Output a console action produced through the silent sender
+    FEEDBACK
+}
@@ -0,0 +1,342 @@
+package com.eto2112.epiccraftingshook.audit;
+
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Click/dispatch audit log: producers append to a lock-free ring, a background writer
+// drains it in batches to audit/audit.log and rotates closed files by size/age. A writer that fails
+// disables the log until the next reload, rather than leaving producers filling a ring nobody drains.
+public final class AuditLog {
+
+    private static final String ACTIVE_FILE = "audit.log";
+    private static final String ARCHIVE_PREFIX = "audit-";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final long SHUTDOWN_JOIN_MILLIS = 2000L;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter ARCHIVE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+
+    private final Logger logger;
+    private final Path directory;
+
+    private AuditSettings settings = AuditSettings.DISABLED;
+    // Null while auditing is disabled, so the click path costs a single volatile read
+    private final AtomicReference<AuditRingBuffer> ring = new AtomicReference<>();
+    private Writer writer;
+    // Why the last writer stopped on its own, null while it runs or after a clean stop
+    private volatile String failure;
+
+    public AuditLog(File dataFolder, Logger logger) {
+        this.logger = logger;
+        this.directory = new File(dataFolder, "audit").toPath();
+    }
+
+    // Apply settings from a (re)loaded config; restarts the writer only when they changed
+    public synchronized void reconfigure(AuditSettings newSettings) {
+        if (newSettings.equals(settings) && (ring.get() != null) == newSettings.isEnabled()) return;
+
+        stopWriter();
+        settings = newSettings;
+        failure = null;
+        if (!newSettings.isEnabled()) return;
+
+        AuditRingBuffer newRing = new AuditRingBuffer(newSettings.getBufferSize());
+        Writer newWriter = new Writer(newRing, newSettings);
+        writer = newWriter;
+        ring.set(newRing);
+        newWriter.start();
+    }
+
+    public boolean isEnabled() {
+        return ring.get() != null;
+    }
+
+    // Reason and time the writer stopped on an I/O error, null when it did not
+    public String getFailure() {
+        return failure;
+    }
+
+    public void recordClick(Player player, String recipeId, int position, int slot) {
+        AuditRingBuffer current = ring.get();
+        if (current == null) return;
+        current.offer(AuditEventType.CLICK, System.currentTimeMillis(), player.getName(), recipeId, position, slot,
+                null);
+    }
+
+    public void recordDispatch(Player player, String command) {
+        AuditRingBuffer current = ring.get();
+        if (current == null) return;
+        current.offer(AuditEventType.DISPATCH, System.currentTimeMillis(), player.getName(), null, -1, -1,
+                command);
+    }
+
+    public void recordDrop(String playerName, String detail) {
+        AuditRingBuffer current = ring.get();
+        if (current == null) return;
+        current.offer(AuditEventType.DROP, System.currentTimeMillis(), playerName, null, -1, -1, detail);
+    }
+
+    public void recordFeedback(String playerName, String message) {
+        AuditRingBuffer current = ring.get();
+        if (current == null) return;
+        current.offer(AuditEventType.FEEDBACK, System.currentTimeMillis(), playerName, null, -1, -1, message);
+    }
+
+    // Events rejected because the ring was full
+    public long getDroppedEvents() {
+        AuditRingBuffer current = ring.get();
+        return current != null ? current.getDroppedCount() : 0L;
+    }
+
+    public int getQueuedEvents() {
+        AuditRingBuffer current = ring.get();
+        return current != null ? current.size() : 0;
+    }
+
+    // Flush everything still queued and close the file
+    public synchronized void close() {
+        stopWriter();
+    }
+
+    private void stopWriter() {
+        ring.set(null);
+        if (writer == null) return;
+
+        writer.shutdown();
+        writer = null;
+    }
+
+    // Background consumer: owns the file channel and all formatting work
+    private final class Writer implements Runnable, AuditRingBuffer.EventSink {
+
+        private final AuditRingBuffer source;
+        private final AuditSettings config;
+        private final long flushIntervalNanos;
+        private final Thread thread;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        private final StringBuilder line = new StringBuilder(256);
+
+        private volatile boolean running = true;
+        private FileChannel channel;
+        private long fileSize;
+        private long fileOpenedAt;
+
+        Writer(AuditRingBuffer source, AuditSettings config) {
+            this.source = source;
+            this.config = config;
+            this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMillis());
+            this.thread = new Thread(this, "EpicCraftingsHook-Audit");
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void shutdown() {
+            running = false;
+            LockSupport.unpark(thread);
+            try {
+                thread.join(SHUTDOWN_JOIN_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Files.createDirectories(directory);
+                openChannel();
+
+                while (running) {
+                    drainBatch();
+                    LockSupport.parkNanos(this, flushIntervalNanos);
+                }
+                // Final drain so events recorded up to shutdown are not lost
+                drainBatch();
+            } catch (IOException | RuntimeException e) {
+                // Only this writer's ring is detached; a reload may already have started a new one
+                if (ring.compareAndSet(source, null)) {
+                    failure = e.getMessage() + " at " + TIMESTAMP_FORMAT.format(Instant.now());
+                    logger.log(Level.WARNING, "Audit log writer stopped, auditing disabled until the next reload", e);
+                }
+            } finally {
+                closeChannel();
+            }
+        }
+
+        private void drainBatch() throws IOException {
+            try {
+                source.drainTo(this);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            flushBuffer();
+        }
+
+        @Override
+        public void accept(AuditEventType type, long timestamp, String player, String recipe, int position,
+                           int slot, String detail) {
+            line.setLength(0);
+            TIMESTAMP_FORMAT.formatTo(Instant.ofEpochMilli(timestamp), line);
+            line.append(' ').append(type.name()).append(" player=").append(player);
+            if (recipe != null) line.append(" recipe=").append(recipe);
+            if (position >= 0) line.append(" position=").append(position);
+            if (slot >= 0) line.append(" slot=").append(slot);
+            if (detail != null) line.append(" action=").append(detail);
+            line.append('\n');
+
+            byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+            try {
+                rotateIfNeeded(timestamp, bytes.length);
+                if (bytes.length > buffer.remaining()) {
+                    flushBuffer();
+                }
+                if (bytes.length > buffer.capacity()) {
+                    writeFully(ByteBuffer.wrap(bytes));
+                } else {
+                    buffer.put(bytes);
+                }
+                fileSize += bytes.length;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void rotateIfNeeded(long now, int incoming) throws IOException {
+            boolean sizeExceeded = config.getMaxFileSizeBytes() > 0 && fileSize > 0
+                    && fileSize + incoming > config.getMaxFileSizeBytes();
+            boolean ageExceeded = config.getRotateIntervalMillis() > 0
+                    && now - fileOpenedAt >= config.getRotateIntervalMillis();
+            if (!sizeExceeded && !ageExceeded) return;
+
+            flushBuffer();
+            closeChannel();
+            archiveActiveFile();
+            openChannel();
+        }
+
+        private void openChannel() throws IOException {
+            Path active = directory.resolve(ACTIVE_FILE);
+            channel = FileChannel.open(active, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            fileSize = channel.size();
+            fileOpenedAt = fileSize > 0 ? createdAt(active) : System.currentTimeMillis();
+        }
+
+        // Every append refreshes the modification time, so an existing file is aged by its creation time.
+        // File systems that don't record one report the modification time or the epoch; the file then
+        // counts as opened now.
+        private long createdAt(Path file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            FileTime created = attributes.creationTime();
+            if (created.toMillis() <= 0 || created.equals(attributes.lastModifiedTime())) {
+                return System.currentTimeMillis();
+            }
+            return created.toMillis();
+        }
+
+        private void closeChannel() {
+            if (channel == null) return;
+            try {
+                flushBuffer();
+                channel.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to close audit log", e);
+            }
+            channel = null;
+        }
+
+        private void flushBuffer() throws IOException {
+            if (buffer.position() == 0 || channel == null) return;
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer data) throws IOException {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+
+        // Move audit.log aside, gzip it if configured, then prune old archives
+        private void archiveActiveFile() throws IOException {
+            Path active = directory.resolve(ACTIVE_FILE);
+            if (!Files.exists(active) || Files.size(active) == 0) return;
+
+            String baseName = ARCHIVE_PREFIX + ARCHIVE_FORMAT.format(Instant.now());
+            Path archived = uniquePath(baseName, ".log");
+            Files.move(active, archived);
+
+            if (config.isGzipArchives()) {
+                Path compressed = uniquePath(baseName, ".log.gz");
+                try (InputStream in = Files.newInputStream(archived);
+                     OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed), WRITE_BUFFER_SIZE)) {
+                    byte[] chunk = new byte[WRITE_BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(chunk)) != -1) {
+                        out.write(chunk, 0, read);
+                    }
+                }
+                Files.delete(archived);
+            }
+
+            pruneArchives();
+        }
+
+        private Path uniquePath(String baseName, String extension) {
+            Path candidate = directory.resolve(baseName + extension);
+            for (int i = 1; Files.exists(candidate); i++) {
+                candidate = directory.resolve(baseName + "-" + i + extension);
+            }
+            return candidate;
+        }
+
+        private void pruneArchives() throws IOException {
+            if (config.getMaxArchives() <= 0) return;
+
+            List<Path> archives = new ArrayList<>();
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(path -> path.getFileName().toString().startsWith(ARCHIVE_PREFIX))
+                        .forEach(archives::add);
+            }
+            if (archives.size() <= config.getMaxArchives()) return;
+
+            // Archive names embed their timestamp, so name order is age order
+            archives.sort(Comparator.comparing(path -> path.getFileName().toString()));
+            for (int i = 0; i < archives.size() - config.getMaxArchives(); i++) {
+                Files.deleteIfExists(archives.get(i));
+            }
+        }
+    }
+}
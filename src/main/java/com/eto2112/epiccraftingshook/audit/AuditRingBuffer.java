@@ -0,0 +1,103 @@
+package com.eto2112.epiccraftingshook.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded multi-producer / single-consumer ring of audit events.
+// Producers never block: when the ring is full the event is counted as dropped.
+final class AuditRingBuffer {
+
+    // Receives drained events on the consumer thread
+    interface EventSink {
+        void accept(AuditEventType type, long timestamp, String player, String recipe, int position, int slot,
+                    String detail);
+    }
+
+    private final int capacity;
+    private final int mask;
+
+    // Parallel slot arrays, published per slot through the sequence array
+    private final AuditEventType[] types;
+    private final long[] timestamps;
+    private final String[] players;
+    private final String[] recipes;
+    private final int[] positions;
+    private final int[] slots;
+    private final String[] details;
+    private final AtomicLongArray published;
+
+    private final AtomicLong head = new AtomicLong();
+    private volatile long tail;
+    private final LongAdder dropped = new LongAdder();
+
+    AuditRingBuffer(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1) << 1);
+        this.mask = capacity - 1;
+        this.types = new AuditEventType[capacity];
+        this.timestamps = new long[capacity];
+        this.players = new String[capacity];
+        this.recipes = new String[capacity];
+        this.positions = new int[capacity];
+        this.slots = new int[capacity];
+        this.details = new String[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1L);
+        }
+    }
+
+    // Producer side: claim a sequence, fill the slot, then publish it
+    boolean offer(AuditEventType type, long timestamp, String player, String recipe, int position, int slot,
+                  String detail) {
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail >= capacity) {
+                dropped.increment();
+                return false;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) sequence & mask;
+        types[index] = type;
+        timestamps[index] = timestamp;
+        players[index] = player;
+        recipes[index] = recipe;
+        positions[index] = position;
+        slots[index] = slot;
+        details[index] = detail;
+        published.lazySet(index, sequence);
+        return true;
+    }
+
+    // Consumer side: hand every published event to the sink in order, then free the slots
+    int drainTo(EventSink sink) {
+        long next = tail;
+        int count = 0;
+        while (true) {
+            int index = (int) next & mask;
+            if (published.get(index) != next) break;
+
+            sink.accept(types[index], timestamps[index], players[index], recipes[index], positions[index], slots[index],
+                    details[index]);
+            players[index] = null;
+            recipes[index] = null;
+            details[index] = null;
+            next++;
+            count++;
+        }
+        if (count > 0) {
+            tail = next;
+        }
+        return count;
+    }
+
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    int size() {
+        return (int) (head.get() - tail);
+    }
+}
@@ -0,0 +1,113 @@
+package com.eto2112.epiccraftingshook.audit;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Settings for the click audit log (audit section of config.yml)
+public final class AuditSettings {
+
+    public static final AuditSettings DISABLED = new AuditSettings(false, 8192, 1000L, 10L * 1024 * 1024,
+            24L * 60 * 60 * 1000, true, 14);
+
+    private final boolean enabled;
+    private final int bufferSize;
+    private final long flushIntervalMillis;
+    private final long maxFileSizeBytes;
+    private final long rotateIntervalMillis;
+    private final boolean gzipArchives;
+    private final int maxArchives;
+
+    private AuditSettings(boolean enabled, int bufferSize, long flushIntervalMillis, long maxFileSizeBytes,
+                          long rotateIntervalMillis, boolean gzipArchives, int maxArchives) {
+        this.enabled = enabled;
+        this.bufferSize = bufferSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxFileSizeBytes = maxFileSizeBytes;
+        this.rotateIntervalMillis = rotateIntervalMillis;
+        this.gzipArchives = gzipArchives;
+        this.maxArchives = maxArchives;
+    }
+
+    public static AuditSettings fromConfig(FileConfiguration config) {
+        return new AuditSettings(
+                config.getBoolean("audit.enabled", DISABLED.enabled),
+                Math.max(64, config.getInt("audit.buffer-size", DISABLED.bufferSize)),
+                Math.max(10L, config.getLong("audit.flush-interval-ms", DISABLED.flushIntervalMillis)),
+                Math.max(0L, config.getLong("audit.rotation.max-size-mb", 10L)) * 1024 * 1024,
+                Math.max(0L, config.getLong("audit.rotation.interval-hours", 24L)) * 60 * 60 * 1000,
+                config.getBoolean("audit.rotation.gzip", DISABLED.gzipArchives),
+                Math.max(0, config.getInt("audit.rotation.max-files", DISABLED.maxArchives)));
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeBoolean(enabled);
+        out.writeInt(bufferSize);
+        out.writeLong(flushIntervalMillis);
+        out.writeLong(maxFileSizeBytes);
+        out.writeLong(rotateIntervalMillis);
+        out.writeBoolean(gzipArchives);
+        out.writeInt(maxArchives);
+    }
+
+    public static AuditSettings read(ByteBuffer in) {
+        return new AuditSettings(in.get() != 0, in.getInt(), in.getLong(), in.getLong(), in.getLong(),
+                in.get() != 0, in.getInt());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    // 0 disables size-based rotation
+    public long getMaxFileSizeBytes() {
+        return maxFileSizeBytes;
+    }
+
+    // 0 disables time-based rotation
+    public long getRotateIntervalMillis() {
+        return rotateIntervalMillis;
+    }
+
+    public boolean isGzipArchives() {
+        return gzipArchives;
+    }
+
+    // 0 keeps every archive
+    public int getMaxArchives() {
+        return maxArchives;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof AuditSettings)) return false;
+        AuditSettings that = (AuditSettings) other;
+        return enabled == that.enabled && bufferSize == that.bufferSize
+                && flushIntervalMillis == that.flushIntervalMillis && maxFileSizeBytes == that.maxFileSizeBytes
+                && rotateIntervalMillis == that.rotateIntervalMillis && gzipArchives == that.gzipArchives
+                && maxArchives == that.maxArchives;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Boolean.hashCode(enabled);
+        result = 31 * result + bufferSize;
+        result = 31 * result + Long.hashCode(flushIntervalMillis);
+        result = 31 * result + Long.hashCode(maxFileSizeBytes);
+        result = 31 * result + Long.hashCode(rotateIntervalMillis);
+        result = 31 * result + Boolean.hashCode(gzipArchives);
+        result = 31 * result + maxArchives;
+        return result;
+    }
+}
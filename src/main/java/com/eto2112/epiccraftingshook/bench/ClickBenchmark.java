@@ -0,0 +1,339 @@
+package com.eto2112.epiccraftingshook.bench;
+
+import com.eto2112.epiccraftingshook.EpicCraftingsHookPlugin;
+import com.eto2112.epiccraftingshook.dispatch.DispatchSink;
+import com.eto2112.epiccraftingshook.listeners.EnhancedCraftingMenuListener;
+import com.eto2112.epiccraftingshook.session.PlayerSession;
+import com.eto2112.epiccraftingshook.session.SessionRegistry;
+import com.eto2112.epiccraftingshook.utils.TaskScheduler;
+import ecp.ajneb97.model.Crafting;
+import ecp.ajneb97.model.internal.PlayerInventory;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// /echook bench: replays synthetic clicks on the global tick through the listener's click filter, prefetched
+// lookup and the command executor, with every action sent to a counting no-op sink. Synthetic players get
+// sessions in a registry of the benchmark's own, so click and [if cooldown] state never touches real players.
+// Each synthetic player clicks again only after the click cooldown and coalesce window have passed, with the
+// players spread across those ticks; tick intervals before and during the load show the impact. Bukkit's
+// event path into onInventoryClick and the off-thread resolve of menus without a prefetch are not exercised.
+public final class ClickBenchmark {
+
+    public static final int MAX_CLICKS = 100_000;
+    public static final int MAX_PLAYERS = 1_000;
+
+    // Idle ticks measured before the load starts, and the longest wait for accepted clicks to finish afterwards
+    private static final int BASELINE_TICKS = 20;
+    private static final int DRAIN_TICKS = 100;
+
+    private static final String[] STAGES = {"filter", "resolve", "dispatch"};
+
+    // Largest chest menu, so every layout slot is inside the synthetic top inventory
+    private static final int MENU_SIZE = 54;
+
+    private static final long TICK_MILLIS = 50L;
+
+    private final EpicCraftingsHookPlugin plugin;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public ClickBenchmark(EpicCraftingsHookPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    // False when a run is already in progress
+    public boolean start(CommandSender sender, int clicks, int players, String recipeId) {
+        if (!running.compareAndSet(false, true)) return false;
+
+        plugin.getTaskScheduler().runGlobal(() -> {
+            List<Target> targets = collectTargets(recipeId);
+            if (targets.isEmpty()) {
+                running.set(false);
+                sender.sendMessage(ChatColor.RED + (recipeId != null
+                        ? "No commands configured for item: " + recipeId : "No recipes configured"));
+                return;
+            }
+
+            Player carrier = findCarrier(sender);
+            if (carrier == null) {
+                running.set(false);
+                sender.sendMessage(ChatColor.RED + "The benchmark needs an online player to carry its dispatches");
+                return;
+            }
+
+            Run run = new Run(sender, clicks, players, targets, carrier);
+            sender.sendMessage(ChatColor.YELLOW + "Benchmark: " + clicks + " clicks from " + players
+                    + " synthetic players over " + targets.size() + " recipe position(s)");
+            run.handle = plugin.getTaskScheduler().runGlobalTimer(run::tick, 1L, 1L);
+        });
+        return true;
+    }
+
+    // Every configured position with commands, in recipe order
+    private List<Target> collectTargets(String recipeId) {
+        Map<String, Map<Integer, List<String>>> itemCommands =
+                plugin.getConfigManager().getSnapshot().getItemCommands();
+        Map<String, Map<Integer, List<String>>> selected = new TreeMap<>();
+        if (recipeId != null) {
+            Map<Integer, List<String>> recipe = itemCommands.get(recipeId);
+            if (recipe != null) selected.put(recipeId, recipe);
+        } else {
+            selected.putAll(itemCommands);
+        }
+
+        List<Target> targets = new ArrayList<>();
+        for (Map.Entry<String, Map<Integer, List<String>>> recipe : selected.entrySet()) {
+            for (Map.Entry<Integer, List<String>> position : new TreeMap<>(recipe.getValue()).entrySet()) {
+                if (!position.getValue().isEmpty()) {
+                    targets.add(new Target(recipe.getKey(), position.getKey()));
+                }
+            }
+        }
+        return targets;
+    }
+
+    // Dispatch needs a real player for placeholders and conditions; actions never reach it
+    private static Player findCarrier(CommandSender sender) {
+        if (sender instanceof Player) return (Player) sender;
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            return player;
+        }
+        return null;
+    }
+
+    private static final class Target {
+        final String recipeId;
+        final int position;
+        // Stands in for the EpicCraftingsPlus crafting the position's menu shows
+        final Crafting crafting;
+
+        Target(String recipeId, int position) {
+            this.recipeId = recipeId;
+            this.position = position;
+            this.crafting = new Crafting(recipeId);
+        }
+    }
+
+    // One benchmark run, driven by the global timer
+    private final class Run {
+        final CommandSender sender;
+        final int clicks;
+        final List<Target> targets;
+        final Player carrier;
+        final PlayerSession[] players;
+        // One open menu per synthetic player; coalescing and prefetch matching key on its identity
+        final Inventory[] menus;
+
+        final long[][] stageSamples = new long[STAGES.length][];
+        final long[] stageNanos = new long[STAGES.length];
+        final LongAdder actions = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final Runnable onComplete = completed::increment;
+        final DispatchSink sink = new CountingSink(actions);
+        final Map<String, Integer> rejections = new TreeMap<>();
+        // Ticks between two clicks of the same player, so the cooldown and coalescing never reject one
+        final int spacingTicks;
+
+        TaskScheduler.Handle handle;
+        int issued;
+        int accepted;
+        int batches;
+        long lastTickNanos;
+        int baselineTicks;
+        long baselineIntervalNanos;
+        long loadIntervalNanos;
+        long maxLoadIntervalNanos;
+        int loadTicks;
+        long loadStartNanos;
+        long loadEndNanos;
+        int drainTicks;
+
+        Run(CommandSender sender, int clicks, int players, List<Target> targets, Player carrier) {
+            this.sender = sender;
+            this.clicks = clicks;
+            this.targets = targets;
+            this.carrier = carrier;
+            SessionRegistry sessions = new SessionRegistry(players);
+            this.players = new PlayerSession[players];
+            this.menus = new Inventory[players];
+            for (int i = 0; i < players; i++) {
+                this.players[i] = sessions.open(UUID.randomUUID(), "bench-" + i);
+                this.menus[i] = Bukkit.createInventory(null, MENU_SIZE);
+            }
+            for (int stage = 0; stage < STAGES.length; stage++) {
+                stageSamples[stage] = new long[clicks];
+            }
+            this.spacingTicks = spacingTicks();
+        }
+
+        // One tick past the longer of the click cooldown and the coalesce window
+        private int spacingTicks() {
+            long cooldownMillis = plugin.getConfigManager().isCooldownEnabled()
+                    ? plugin.getConfigManager().getCooldownDuration() * 1000L : 0L;
+            long windowMillis = Math.max(cooldownMillis, plugin.getConfigManager().getCoalesceWindowMillis());
+            return (int) ((windowMillis + TICK_MILLIS - 1) / TICK_MILLIS) + 1;
+        }
+
+        void tick() {
+            try {
+                long now = System.nanoTime();
+                long interval = lastTickNanos != 0 ? now - lastTickNanos : 0L;
+                lastTickNanos = now;
+
+                if (baselineTicks < BASELINE_TICKS) {
+                    if (interval > 0) baselineIntervalNanos += interval;
+                    baselineTicks++;
+                    return;
+                }
+
+                if (issued < clicks) {
+                    if (issued == 0) {
+                        loadStartNanos = now;
+                    } else {
+                        loadIntervalNanos += interval;
+                        maxLoadIntervalNanos = Math.max(maxLoadIntervalNanos, interval);
+                        loadTicks++;
+                    }
+                    issueBatch();
+                    if (issued == clicks) loadEndNanos = System.nanoTime();
+                    return;
+                }
+
+                // Accepted clicks finish on later ticks; stop waiting once every one has reported completion
+                if (completed.sum() < accepted && ++drainTicks < DRAIN_TICKS) return;
+
+                finish();
+            } catch (RuntimeException e) {
+                handle.cancel();
+                running.set(false);
+                sender.sendMessage(ChatColor.RED + "Benchmark failed: " + e.getMessage());
+            }
+        }
+
+        // Every spacingTicks-th synthetic player, offset by the tick, never more than requested in total.
+        // Only accepted clicks are sampled; a rejected click is cheaper and would flatter the percentiles.
+        private void issueBatch() {
+            EnhancedCraftingMenuListener listener = plugin.getMenuListener();
+            for (int i = batches++ % spacingTicks; i < players.length && issued < clicks; i += spacingTicks) {
+                Target target = targets.get(issued++ % targets.size());
+                PlayerInventory menu = new PlayerInventory(carrier, null, null, target.crafting, 0, false, false);
+                String rejection = listener.replayClick(carrier, players[i], menus[i], menu, target.recipeId,
+                        target.position, sink, onComplete, stageNanos);
+                if (rejection != null) {
+                    rejections.merge(rejection, 1, Integer::sum);
+                    continue;
+                }
+                for (int stage = 0; stage < STAGES.length; stage++) {
+                    stageSamples[stage][accepted] = stageNanos[stage];
+                }
+                accepted++;
+            }
+        }
+
+        private void finish() {
+            handle.cancel();
+            running.set(false);
+
+            long loadNanos = Math.max(1L, loadEndNanos - loadStartNanos);
+            sender.sendMessage(ChatColor.GOLD + "=== Benchmark Results ===");
+            sender.sendMessage(ChatColor.YELLOW + "Clicks: " + ChatColor.WHITE + clicks + ChatColor.YELLOW
+                    + " Accepted: " + ChatColor.WHITE + accepted + ChatColor.YELLOW + " Completed: " + ChatColor.WHITE
+                    + completed.sum() + ChatColor.YELLOW + " Actions: " + ChatColor.WHITE + actions.sum());
+            if (!rejections.isEmpty()) {
+                sender.sendMessage(ChatColor.YELLOW + "Rejected by the filter: " + ChatColor.WHITE
+                        + (clicks - accepted) + " " + rejections + ChatColor.GRAY + " (left out of the figures below)");
+            }
+            sender.sendMessage(ChatColor.YELLOW + "Throughput: " + ChatColor.WHITE
+                    + String.format(Locale.ROOT, "%.0f accepted clicks/s", accepted * 1e9 / loadNanos)
+                    + ChatColor.GRAY + " (each player clicks every " + spacingTicks + " ticks)");
+            for (int stage = 0; stage < STAGES.length; stage++) {
+                sender.sendMessage(ChatColor.YELLOW + STAGES[stage] + ": " + ChatColor.WHITE
+                        + percentiles(Arrays.copyOf(stageSamples[stage], accepted)));
+            }
+            sender.sendMessage(ChatColor.YELLOW + "Tick interval: " + ChatColor.WHITE
+                    + millis(baselineIntervalNanos / Math.max(1, BASELINE_TICKS - 1)) + " idle, "
+                    + millis(loadTicks > 0 ? loadIntervalNanos / loadTicks : 0L) + " under load (max "
+                    + millis(maxLoadIntervalNanos) + ")");
+            sender.sendMessage(ChatColor.GRAY + "Not covered: Bukkit's event path into onInventoryClick and the"
+                    + " off-thread resolve of menus without a prefetch");
+            if (completed.sum() < accepted) {
+                sender.sendMessage(ChatColor.RED + "Stopped waiting for " + (accepted - completed.sum())
+                        + " unfinished click(s) after " + DRAIN_TICKS + " ticks");
+            }
+        }
+    }
+
+    // p50/p90/p99/max in microseconds; -1 samples (skipped stages) are left out
+    private static String percentiles(long[] samples) {
+        long[] sorted = Arrays.stream(samples).filter(sample -> sample >= 0).sorted().toArray();
+        if (sorted.length == 0) return ChatColor.GRAY + "no samples";
+
+        return "p50 " + micros(sorted[percentileIndex(sorted.length, 0.50)])
+                + " p90 " + micros(sorted[percentileIndex(sorted.length, 0.90)])
+                + " p99 " + micros(sorted[percentileIndex(sorted.length, 0.99)])
+                + " max " + micros(sorted[sorted.length - 1]);
+    }
+
+    private static int percentileIndex(int size, double percentile) {
+        return Math.min(size - 1, (int) Math.ceil(percentile * size) - 1);
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1fus", nanos / 1_000.0);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000.0);
+    }
+
+    // Counts actions as they reach the end of the pipeline, discarding them
+    private static final class CountingSink implements DispatchSink {
+        private final LongAdder actions;
+
+        CountingSink(LongAdder actions) {
+            this.actions = actions;
+        }
+
+        @Override
+        public void console(Player player, String command) {
+            actions.increment();
+        }
+
+        @Override
+        public void op(Player player, String command) {
+            actions.increment();
+        }
+
+        @Override
+        public void playerCommand(Player player, String command) {
+            actions.increment();
+        }
+
+        @Override
+        public void message(Player player, Component message) {
+            actions.increment();
+        }
+
+        @Override
+        public void closeInventory(Player player) {
+            actions.increment();
+        }
+    }
+}
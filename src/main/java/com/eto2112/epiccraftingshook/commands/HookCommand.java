@@ -1,12 +1,24 @@
 package com.eto2112.epiccraftingshook.commands;
 
 import com.eto2112.epiccraftingshook.EpicCraftingsHookPlugin;
+import com.eto2112.epiccraftingshook.audit.AuditLog;
+import com.eto2112.epiccraftingshook.bench.ClickBenchmark;
+import com.eto2112.epiccraftingshook.graph.RecipeGraph;
+import com.eto2112.epiccraftingshook.inventory.PlayerInventoryIndex;
+import com.eto2112.epiccraftingshook.layout.LayoutRegistry;
+import com.eto2112.epiccraftingshook.listeners.EnhancedCraftingMenuListener;
+import com.eto2112.epiccraftingshook.listeners.PrefetchedMenu;
+import com.eto2112.epiccraftingshook.resolver.ResolverChain;
+import com.eto2112.epiccraftingshook.session.PlayerSession;
+import com.eto2112.epiccraftingshook.stats.ClickHeatmap;
+import com.eto2112.epiccraftingshook.utils.ConfigSnapshot;
+import com.eto2112.epiccraftingshook.utils.RecipeSummary;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.entity.Player;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -15,6 +27,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class HookCommand implements CommandExecutor, TabCompleter {
 
     private final EpicCraftingsHookPlugin plugin;
+    private final ClickBenchmark benchmark;
 
     // Cache for tab completions and command results
     private final Map<String, List<String>> tabCompletionCache = new ConcurrentHashMap<>();
@@ -26,13 +39,23 @@ public class HookCommand implements CommandExecutor, TabCompleter {
     private static final String DEBUG_PREFIX = ChatColor.GOLD + "=== Debug Information ===";
     private static final String INFO_PREFIX = ChatColor.GOLD + "=== Plugin Information ===";
     private static final String LIST_PREFIX = ChatColor.GOLD + "=== Configured Items ===";
+    private static final String STATS_PREFIX = ChatColor.GOLD + "=== Click Stats ===";
+    private static final String TREE_PREFIX = ChatColor.GOLD + "=== Craft Tree ===";
 
     // Command constants
-    private static final List<String> SUB_COMMANDS = Arrays.asList("reload", "info", "test", "debug", "list");
+    private static final List<String> SUB_COMMANDS = Arrays.asList("reload", "info", "test", "debug", "list", "stats", "tree", "bench", "session");
     private static final String ADMIN_PERMISSION = "echook.admin";
 
+    // Pagination for list/test output so large configs don't flood the chat
+    private static final int LIST_PAGE_SIZE = 10;
+    private static final int TEST_PAGE_SIZE = 8;
+    private static final int MAX_SUGGESTIONS = 10;
+    private static final int STATS_TOP_RECIPES = 10;
+    private static final int TREE_MAX_LINES = 40;
+
     public HookCommand(EpicCraftingsHookPlugin plugin) {
         this.plugin = plugin;
+        this.benchmark = new ClickBenchmark(plugin);
         initializeTabCompletions();
     }
 
@@ -66,7 +89,7 @@ public class HookCommand implements CommandExecutor, TabCompleter {
                 break;
             case "test":
                 if (args.length > 1) {
-                    handleTestAsync(sender, args[1]);
+                    handleTest(sender, args[1], args.length > 2 ? Math.max(1, parsePage(args[2])) : 1);
                 } else {
                     sendTestUsage(sender);
                 }
@@ -75,7 +98,27 @@ public class HookCommand implements CommandExecutor, TabCompleter {
                 handleDebugAsync(sender);
                 break;
             case "list":
-                handleListAsync(sender);
+                handleList(sender, args);
+                break;
+            case "stats":
+                handleStatsAsync(sender, args.length > 1 ? args[1].toUpperCase() : null);
+                break;
+            case "tree":
+                if (args.length > 1) {
+                    handleTreeAsync(sender, args[1].toUpperCase());
+                } else {
+                    sender.sendMessage(ChatColor.RED + "Usage: /echook tree <item_id>");
+                }
+                break;
+            case "bench":
+                handleBench(sender, args);
+                break;
+            case "session":
+                if (args.length > 1) {
+                    handleSession(sender, args[1]);
+                } else {
+                    sender.sendMessage(ChatColor.RED + "Usage: /echook session <player>");
+                }
                 break;
             default:
                 sendHelpMessageOptimized(sender);
@@ -95,8 +138,12 @@ public class HookCommand implements CommandExecutor, TabCompleter {
             help.append(PLUGIN_PREFIX).append("\n");
             help.append(ChatColor.YELLOW).append("/echook reload").append(ChatColor.WHITE).append(" - Reload the plugin configuration\n");
             help.append(ChatColor.YELLOW).append("/echook info").append(ChatColor.WHITE).append(" - Show plugin information\n");
-            help.append(ChatColor.YELLOW).append("/echook test <item_id>").append(ChatColor.WHITE).append(" - Test item configuration\n");
-            help.append(ChatColor.YELLOW).append("/echook list").append(ChatColor.WHITE).append(" - List all configured items\n");
+            help.append(ChatColor.YELLOW).append("/echook test <item_id> [page]").append(ChatColor.WHITE).append(" - Test item configuration\n");
+            help.append(ChatColor.YELLOW).append("/echook list [page] [filter]").append(ChatColor.WHITE).append(" - List configured items\n");
+            help.append(ChatColor.YELLOW).append("/echook stats [item_id]").append(ChatColor.WHITE).append(" - Show click counts\n");
+            help.append(ChatColor.YELLOW).append("/echook tree <item_id>").append(ChatColor.WHITE).append(" - Show the ingredient tree and craft order\n");
+            help.append(ChatColor.YELLOW).append("/echook bench <clicks> <players> [item_id]").append(ChatColor.WHITE).append(" - Replay synthetic clicks and report latency\n");
+            help.append(ChatColor.YELLOW).append("/echook session <player>").append(ChatColor.WHITE).append(" - Show a player's open crafting, history and cooldowns\n");
             help.append(ChatColor.YELLOW).append("/echook debug").append(ChatColor.WHITE).append(" - Show debug information\n");
             help.append(ChatColor.GRAY).append("Item IDs use MMOItems ID format (e.g., BICHNHA)");
 
@@ -111,37 +158,24 @@ public class HookCommand implements CommandExecutor, TabCompleter {
         }
     }
 
-    // Async reload with progress feedback
+    // Async reload with progress feedback once the new config is actually live
     private void handleReloadAsync(CommandSender sender) {
         sender.sendMessage(ChatColor.YELLOW + "Reloading configuration...");
 
-        CompletableFuture.runAsync(() -> {
-            try {
-                // Clear caches first
-                clearCaches();
-
-                // Reload configuration
-                plugin.getConfigManager().reloadConfiguration();
-
-                // Send success message on main thread
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        sender.sendMessage(ChatColor.GREEN + "Configuration reloaded successfully!");
-                        plugin.getLogger().info("Configuration reloaded by " + sender.getName());
-                    }
-                }.runTask(plugin);
+        // Clear caches first
+        clearCaches();
 
-            } catch (Exception e) {
-                // Send error message on main thread
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        sender.sendMessage(ChatColor.RED + "Error reloading configuration: " + e.getMessage());
-                        plugin.getLogger().severe("Error reloading configuration: " + e.getMessage());
-                    }
-                }.runTask(plugin);
-            }
+        plugin.getConfigManager().reloadConfiguration().whenComplete((ignored, throwable) -> {
+            // Report back on the sender's thread
+            plugin.getTaskScheduler().runForSender(sender, () -> {
+                if (throwable == null) {
+                    sender.sendMessage(ChatColor.GREEN + "Configuration reloaded successfully!");
+                    plugin.getLogger().info("Configuration reloaded by " + sender.getName());
+                } else {
+                    sender.sendMessage(ChatColor.RED + "Error reloading configuration: " + throwable.getMessage());
+                    plugin.getLogger().severe("Error reloading configuration: " + throwable.getMessage());
+                }
+            });
         });
     }
 
@@ -155,18 +189,15 @@ public class HookCommand implements CommandExecutor, TabCompleter {
                 return "Error gathering plugin information";
             }
         }).thenAccept(info -> {
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    sender.sendMessage(INFO_PREFIX);
-                    String[] lines = info.split("\n");
-                    for (String line : lines) {
-                        if (!line.trim().isEmpty()) {
-                            sender.sendMessage(line);
-                        }
+            plugin.getTaskScheduler().runForSender(sender, () -> {
+                sender.sendMessage(INFO_PREFIX);
+                String[] lines = info.split("\n");
+                for (String line : lines) {
+                    if (!line.trim().isEmpty()) {
+                        sender.sendMessage(line);
                     }
                 }
-            }.runTask(plugin);
+            });
         });
     }
 
@@ -199,163 +230,374 @@ public class HookCommand implements CommandExecutor, TabCompleter {
         return info.toString();
     }
 
-    // Async test with better error handling
-    private void handleTestAsync(CommandSender sender, String itemId) {
+    // Test served from the precomputed recipe summary, paginated by position
+    private void handleTest(CommandSender sender, String itemId, int page) {
         String upperItemId = itemId.toUpperCase();
         sender.sendMessage(ChatColor.YELLOW + "Testing configuration for item: " + ChatColor.WHITE + upperItemId);
 
-        CompletableFuture.supplyAsync(() -> {
-            return performItemTest(upperItemId);
-        }).thenAccept(result -> {
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    String[] lines = result.split("\n");
-                    for (String line : lines) {
-                        if (!line.trim().isEmpty()) {
-                            sender.sendMessage(line);
-                        }
-                    }
-                }
-            }.runTask(plugin);
-        }).exceptionally(throwable -> {
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    sender.sendMessage(ChatColor.RED + "Error testing configuration: " + throwable.getMessage());
-                }
-            }.runTask(plugin);
-            return null;
-        });
+        RecipeSummary summary = plugin.getConfigManager().getRecipeSummary(upperItemId);
+        if (summary == null) {
+            sender.sendMessage(ChatColor.RED + "No commands configured for item: " + upperItemId);
+            sendSuggestions(sender, itemId);
+            return;
+        }
+
+        int positionCount = summary.getPositionCount();
+        int totalPages = Math.max(1, (positionCount + TEST_PAGE_SIZE - 1) / TEST_PAGE_SIZE);
+        int currentPage = Math.min(page, totalPages);
+        int end = Math.min(positionCount, currentPage * TEST_PAGE_SIZE);
+
+        LayoutRegistry layouts = currentLayouts();
+        for (int i = (currentPage - 1) * TEST_PAGE_SIZE; i < end; i++) {
+            int position = summary.getPosition(i);
+            sender.sendMessage(ChatColor.GREEN + "Position " + position + " (slot " + layouts.describeSlot(position) + "): "
+                    + summary.getCommandCount(i) + " command(s)");
+            sender.sendMessage(ChatColor.GRAY + "  Example: " + summary.getFirstCommand(i));
+        }
+
+        if (!summary.getTargetRecipes().isEmpty()) {
+            sender.sendMessage(ChatColor.YELLOW + "Links to: " + ChatColor.WHITE
+                    + String.join(", ", summary.getTargetRecipes()));
+        }
+
+        if (totalPages > 1) {
+            sender.sendMessage(ChatColor.GRAY + "Page " + currentPage + "/" + totalPages
+                    + " - use '/echook test " + upperItemId + " <page>' for more");
+        }
+        sender.sendMessage(ChatColor.GREEN + "Configuration test completed!");
+    }
+
+    // Suggest close matches from the prefix index instead of dumping every recipe id
+    private void sendSuggestions(CommandSender sender, String itemId) {
+        List<String> suggestions = plugin.getConfigManager().getRecipeIndex().complete(itemId);
+        if (suggestions.isEmpty()) {
+            sender.sendMessage(ChatColor.YELLOW + "Configured items: " + ChatColor.WHITE
+                    + plugin.getConfigManager().getConfiguredRecipes().size()
+                    + ChatColor.GRAY + " (use '/echook list [page] [filter]' to browse)");
+            return;
+        }
+
+        int shown = Math.min(suggestions.size(), MAX_SUGGESTIONS);
+        StringBuilder line = new StringBuilder();
+        line.append(ChatColor.YELLOW).append("Did you mean: ").append(ChatColor.WHITE)
+                .append(String.join(", ", suggestions.subList(0, shown)));
+        if (suggestions.size() > shown) {
+            line.append(ChatColor.GRAY).append(" (+").append(suggestions.size() - shown).append(" more)");
+        }
+        sender.sendMessage(line.toString());
     }
 
-    // Optimized item testing
-    private String performItemTest(String itemId) {
-        StringBuilder result = new StringBuilder();
-        boolean hasCommands = false;
-
-        for (int i = 1; i <= 12; i++) {
-            List<String> commands = plugin.getConfigManager().getCommandsForItem(itemId, i);
-            if (!commands.isEmpty()) {
-                int slot = plugin.getConfigManager().getSlotFromPosition(i);
-                result.append(ChatColor.GREEN).append("Position ").append(i)
-                        .append(" (slot ").append(slot).append("): ")
-                        .append(commands.size()).append(" command(s)\n");
-                hasCommands = true;
-
-                // Show first command as example
-                if (!commands.isEmpty()) {
-                    result.append(ChatColor.GRAY).append("  Example: ").append(commands.get(0)).append("\n");
+    // Paginated list served from the sorted summaries: /echook list [page] [filter]
+    private void handleList(CommandSender sender, String[] args) {
+        int page = 1;
+        String filter = null;
+
+        if (args.length > 1) {
+            int parsed = parsePage(args[1]);
+            if (parsed > 0) {
+                page = parsed;
+                if (args.length > 2) filter = args[2];
+            } else {
+                filter = args[1];
+                if (args.length > 2) page = Math.max(1, parsePage(args[2]));
+            }
+        }
+
+        sender.sendMessage(LIST_PREFIX);
+
+        List<RecipeSummary> summaries = plugin.getConfigManager().getSortedSummaries();
+        if (summaries.isEmpty()) {
+            sender.sendMessage(ChatColor.RED + "No items configured!");
+            return;
+        }
+
+        // Unfiltered listing pages straight into the sorted summaries
+        List<RecipeSummary> matching = summaries;
+        if (filter != null) {
+            String lowerCaseFilter = filter.toLowerCase(Locale.ROOT);
+            matching = new ArrayList<>();
+            for (RecipeSummary summary : summaries) {
+                if (summary.matches(lowerCaseFilter)) {
+                    matching.add(summary);
                 }
             }
         }
 
-        if (!hasCommands) {
-            result.append(ChatColor.RED).append("No commands configured for item: ").append(itemId).append("\n");
-            result.append(ChatColor.YELLOW).append("Available items: ")
-                    .append(plugin.getConfigManager().getConfiguredRecipes().toString());
-        } else {
-            result.append(ChatColor.GREEN).append("Configuration test completed!");
+        if (matching.isEmpty()) {
+            sender.sendMessage(ChatColor.RED + "No configured items match '" + filter + "'");
+            return;
         }
 
-        return result.toString();
+        int totalPages = (matching.size() + LIST_PAGE_SIZE - 1) / LIST_PAGE_SIZE;
+        page = Math.min(page, totalPages);
+        List<RecipeSummary> pageEntries = matching.subList((page - 1) * LIST_PAGE_SIZE,
+                Math.min(matching.size(), page * LIST_PAGE_SIZE));
+
+        sender.sendMessage(ChatColor.YELLOW + "Found " + matching.size() + " configured item(s)"
+                + (filter != null ? " matching '" + filter + "'" : "")
+                + " - page " + page + "/" + totalPages + ":");
+
+        for (RecipeSummary summary : pageEntries) {
+            sender.sendMessage(ChatColor.GREEN + "- " + ChatColor.WHITE + summary.getRecipeId()
+                    + ChatColor.GRAY + " (" + summary.getPositionCount() + " position(s), "
+                    + summary.getTotalCommands() + " command(s))");
+        }
+
+        if (page < totalPages) {
+            sender.sendMessage(ChatColor.GRAY + "Use '/echook list " + (page + 1)
+                    + (filter != null ? " " + filter : "") + "' for the next page");
+        }
+        sender.sendMessage(ChatColor.GRAY + "Use '/echook test <item_id>' to test a specific item");
     }
 
-    // Async list with pagination support
-    private void handleListAsync(CommandSender sender) {
-        CompletableFuture.supplyAsync(() -> {
-            return generateItemList();
-        }).thenAccept(listData -> {
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    sender.sendMessage(LIST_PREFIX);
-                    String[] lines = listData.split("\n");
+    // Click heatmap: top recipes overall, or per-position counts for one recipe
+    private void handleStatsAsync(CommandSender sender, String itemId) {
+        // Layouts are read here, where EpicCraftingsPlus state is safe to touch
+        LayoutRegistry layouts = currentLayouts();
+        CompletableFuture.supplyAsync(() -> itemId == null ? gatherTopRecipeStats() : gatherRecipeStats(itemId, layouts))
+                .thenAccept(lines -> plugin.getTaskScheduler().runForSender(sender, () -> {
+                    sender.sendMessage(STATS_PREFIX);
+                    if (lines == null) {
+                        sender.sendMessage(ChatColor.RED + "No commands configured for item: " + itemId);
+                        sendSuggestions(sender, itemId);
+                        return;
+                    }
                     for (String line : lines) {
-                        if (!line.trim().isEmpty()) {
-                            sender.sendMessage(line);
-                        }
+                        sender.sendMessage(line);
                     }
-                }
-            }.runTask(plugin);
-        });
+                }));
     }
 
-    // Optimized list generation
-    private String generateItemList() {
-        StringBuilder list = new StringBuilder();
-        Set<String> configuredItems = plugin.getConfigManager().getConfiguredRecipes();
+    private List<String> gatherTopRecipeStats() {
+        ClickHeatmap heatmap = plugin.getClickHeatmap();
+        long total = heatmap.getTotalClicks();
+
+        List<String> lines = new ArrayList<>();
+        lines.add(ChatColor.YELLOW + "Total clicks: " + ChatColor.WHITE + total);
+        long retainedClicks = heatmap.getRetainedClicks();
+        if (retainedClicks > 0) {
+            lines.add(ChatColor.YELLOW + "Kept across reloads: " + ChatColor.WHITE + retainedClicks
+                    + ChatColor.GRAY + " clicks on " + heatmap.getRetainedCellCount()
+                    + " recipe positions no longer configured (restored if they return)");
+        }
+        String auditLine = describeAuditLog();
+        if (auditLine != null) lines.add(auditLine);
+        if (total == 0) {
+            lines.add(ChatColor.GRAY + "No clicks recorded yet.");
+            return lines;
+        }
 
-        if (configuredItems.isEmpty()) {
-            list.append(ChatColor.RED).append("No items configured!");
-            return list.toString();
+        for (Map.Entry<String, Long> entry : heatmap.getTopRecipes(STATS_TOP_RECIPES)) {
+            lines.add(ChatColor.GREEN + "- " + ChatColor.WHITE + entry.getKey() + ChatColor.GRAY + ": "
+                    + entry.getValue() + " (" + percent(entry.getValue(), total) + ")");
         }
+        lines.add(ChatColor.GRAY + "Use '/echook stats <item_id>' for per-position counts");
+        return lines;
+    }
 
-        list.append(ChatColor.YELLOW).append("Found ").append(configuredItems.size()).append(" configured item(s):\n");
+    // Audit writer state; null when auditing is off by config
+    private String describeAuditLog() {
+        AuditLog auditLog = plugin.getAuditLog();
+        if (auditLog.getFailure() != null) {
+            return ChatColor.RED + "Audit log stopped: " + auditLog.getFailure()
+                    + ChatColor.GRAY + " (events are not recorded; /echook reload restarts it)";
+        }
+        if (!auditLog.isEnabled()) return null;
 
-        // Sort items for better presentation
-        List<String> sortedItems = new ArrayList<>(configuredItems);
-        Collections.sort(sortedItems);
+        return ChatColor.YELLOW + "Audit log: " + ChatColor.WHITE + auditLog.getQueuedEvents() + " queued, "
+                + auditLog.getDroppedEvents() + " dropped (buffer full)";
+    }
 
-        for (String itemId : sortedItems) {
-            // Count configured positions efficiently
-            int configuredPositions = 0;
-            for (int i = 1; i <= 12; i++) {
-                if (!plugin.getConfigManager().getCommandsForItem(itemId, i).isEmpty()) {
-                    configuredPositions++;
-                }
+    // Null when the recipe is not configured
+    private List<String> gatherRecipeStats(String itemId, LayoutRegistry layouts) {
+        RecipeSummary summary = plugin.getConfigManager().getRecipeSummary(itemId);
+        long[] counts = plugin.getClickHeatmap().getPositionCounts(itemId);
+        if (summary == null || counts == null) return null;
+
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add(ChatColor.YELLOW + "Clicks for " + ChatColor.WHITE + itemId + ChatColor.YELLOW + ": "
+                + ChatColor.WHITE + total);
+        for (int i = 0; i < summary.getPositionCount(); i++) {
+            int position = summary.getPosition(i);
+            long count = position < counts.length ? counts[position] : 0L;
+            lines.add(ChatColor.GREEN + "Position " + position + " (slot "
+                    + layouts.describeSlot(position) + "): " + ChatColor.WHITE + count
+                    + (total > 0 ? ChatColor.GRAY + " (" + percent(count, total) + ")" : ""));
+        }
+        return lines;
+    }
+
+    // Ingredient tree from the precomputed recipe graph
+    private void handleTreeAsync(CommandSender sender, String itemId) {
+        CompletableFuture.supplyAsync(() -> gatherTree(itemId))
+                .thenAccept(lines -> plugin.getTaskScheduler().runForSender(sender, () -> {
+                    sender.sendMessage(TREE_PREFIX);
+                    if (lines == null) {
+                        sender.sendMessage(ChatColor.RED + "No commands configured for item: " + itemId);
+                        sendSuggestions(sender, itemId);
+                        return;
+                    }
+                    for (String line : lines) {
+                        sender.sendMessage(line);
+                    }
+                }));
+    }
+
+    // Synthetic click load with no-op actions; results arrive once the run and its queued actions finish
+    private void handleBench(CommandSender sender, String[] args) {
+        int clicks = args.length > 1 ? parsePage(args[1]) : -1;
+        int players = args.length > 2 ? parsePage(args[2]) : -1;
+        if (clicks < 0 || players < 0) {
+            sender.sendMessage(ChatColor.RED + "Usage: /echook bench <clicks> <players> [item_id]");
+            return;
+        }
+        if (clicks > ClickBenchmark.MAX_CLICKS || players > ClickBenchmark.MAX_PLAYERS) {
+            sender.sendMessage(ChatColor.RED + "At most " + ClickBenchmark.MAX_CLICKS + " clicks and "
+                    + ClickBenchmark.MAX_PLAYERS + " players per run");
+            return;
+        }
+
+        String recipeId = args.length > 3 ? args[3].toUpperCase() : null;
+        if (!benchmark.start(sender, clicks, players, recipeId)) {
+            sender.sendMessage(ChatColor.RED + "A benchmark is already running");
+        }
+    }
+
+    // Session state is read without locks, so this answers on the sender's own thread
+    private void handleSession(CommandSender sender, String playerName) {
+        Player player = plugin.getServer().getPlayerExact(playerName);
+        PlayerSession session = player != null ? plugin.getSessions().get(player.getUniqueId()) : null;
+        if (session == null) {
+            sender.sendMessage(ChatColor.RED + "No session for " + playerName + " (player not online)");
+            return;
+        }
+
+        sender.sendMessage(ChatColor.GOLD + "=== Session: " + session.getPlayerName() + " ===");
+
+        PrefetchedMenu view = session.getActiveView();
+        sender.sendMessage(ChatColor.YELLOW + "Open crafting: " + ChatColor.WHITE + (view != null
+                ? view.getCraftingName() + " (recipe " + view.getRecipeId() + ")" : "none prefetched"));
+
+        List<String> history = session.getHistory();
+        sender.sendMessage(ChatColor.YELLOW + "Recent craftings: " + ChatColor.WHITE
+                + (history.isEmpty() ? "none" : String.join(" > ", history)));
+
+        long remaining = session.getClickCooldownUntil() - System.currentTimeMillis();
+        sender.sendMessage(ChatColor.YELLOW + "Click cooldown: " + ChatColor.WHITE
+                + (remaining > 0 ? String.format(Locale.ROOT, "%.1fs left", remaining / 1000.0) : "ready")
+                + ChatColor.YELLOW + " Action cooldowns: " + ChatColor.WHITE + session.getActionCooldowns().size());
+    }
+
+    // Null when the recipe is not in the graph
+    private List<String> gatherTree(String itemId) {
+        RecipeGraph graph = plugin.getConfigManager().getRecipeGraph();
+        if (!graph.contains(itemId)) return null;
+
+        List<String> lines = new ArrayList<>();
+        lines.add(ChatColor.YELLOW + itemId + ChatColor.GRAY + " (depth " + graph.getDepth(itemId) + ")"
+                + (graph.isInCycle(itemId) ? ChatColor.RED + " (part of a cycle)" : ""));
+        appendTreeLines(graph, itemId, 1, new HashSet<>(Collections.singleton(itemId)), lines);
+
+        List<String> craftOrder = graph.getCraftOrder(itemId);
+        if (craftOrder.size() > 1) {
+            lines.add(ChatColor.YELLOW + "Craft order: " + ChatColor.WHITE + String.join(" > ", craftOrder));
+        }
+        return lines;
+    }
+
+    private void appendTreeLines(RecipeGraph graph, String recipeId, int level, Set<String> path, List<String> lines) {
+        List<String> ingredients = graph.getIngredients(recipeId);
+        List<Integer> positions = graph.getIngredientPositions(recipeId);
+        for (int index = 0; index < ingredients.size(); index++) {
+            String ingredient = ingredients.get(index);
+            if (lines.size() >= TREE_MAX_LINES) {
+                lines.add(ChatColor.GRAY + "...");
+                return;
             }
 
-            list.append(ChatColor.GREEN).append("- ").append(ChatColor.WHITE).append(itemId)
-                    .append(ChatColor.GRAY).append(" (").append(configuredPositions).append(" position(s) configured)\n");
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < level; i++) {
+                line.append("  ");
+            }
+            line.append(ChatColor.GREEN).append(positions.get(index)).append(": ")
+                    .append(ChatColor.WHITE).append(ingredient);
+
+            // A link back into the current path is a cycle; show it once and stop descending
+            if (path.contains(ingredient)) {
+                lines.add(line.append(ChatColor.RED).append(" (cycle)").toString());
+                continue;
+            }
+            if (!graph.contains(ingredient) || graph.getIngredients(ingredient).isEmpty()) {
+                line.append(ChatColor.GRAY).append(" [").append(graph.getCrafting(ingredient)).append("]");
+            }
+            lines.add(line.toString());
+
+            path.add(ingredient);
+            appendTreeLines(graph, ingredient, level + 1, path, lines);
+            path.remove(ingredient);
         }
+    }
+
+    private static String percent(long part, long total) {
+        return String.format(Locale.ROOT, "%.1f%%", part * 100.0 / total);
+    }
 
-        list.append(ChatColor.GRAY).append("Use '/echook test <item_id>' to test a specific item");
-        return list.toString();
+    // Parse a 1-based page number, returning -1 when the argument is not a page
+    private int parsePage(String arg) {
+        try {
+            int page = Integer.parseInt(arg);
+            return page > 0 ? page : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 
     // Async debug with comprehensive stats
     private void handleDebugAsync(CommandSender sender) {
+        LayoutRegistry layouts = currentLayouts();
         CompletableFuture.supplyAsync(() -> {
-            return gatherDebugInfo();
+            return gatherDebugInfo(layouts);
         }).thenAccept(debugInfo -> {
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    sender.sendMessage(DEBUG_PREFIX);
-
-                    if (!plugin.getConfigManager().isDebugEnabled()) {
-                        sender.sendMessage(ChatColor.YELLOW + "Debug mode is currently disabled.");
-                        sender.sendMessage(ChatColor.YELLOW + "Enable it in config.yml (settings.debug: true) and reload.");
-                    } else {
-                        sender.sendMessage(ChatColor.GREEN + "Debug mode is enabled. Check console for detailed output...");
-                    }
+            plugin.getTaskScheduler().runForSender(sender, () -> {
+                sender.sendMessage(DEBUG_PREFIX);
 
-                    // Print debug info to console
-                    plugin.getConfigManager().debugInfo();
+                if (!plugin.getConfigManager().isDebugEnabled()) {
+                    sender.sendMessage(ChatColor.YELLOW + "Debug mode is currently disabled.");
+                    sender.sendMessage(ChatColor.YELLOW + "Enable it in config.yml (settings.debug: true) and reload.");
+                } else {
+                    sender.sendMessage(ChatColor.GREEN + "Debug mode is enabled. Check console for detailed output...");
+                }
 
-                    // Show stats to sender
-                    String[] lines = debugInfo.split("\n");
-                    for (String line : lines) {
-                        if (!line.trim().isEmpty()) {
-                            sender.sendMessage(line);
-                        }
-                    }
+                // Print debug info to console
+                plugin.getConfigManager().debugInfo();
 
-                    sender.sendMessage(ChatColor.GREEN + "Debug information printed to console!");
+                // Show stats to sender
+                String[] lines = debugInfo.split("\n");
+                for (String line : lines) {
+                    if (!line.trim().isEmpty()) {
+                        sender.sendMessage(line);
+                    }
                 }
-            }.runTask(plugin);
+
+                sender.sendMessage(ChatColor.GREEN + "Debug information printed to console!");
+            });
         });
     }
 
     // Comprehensive debug info gathering
-    private String gatherDebugInfo() {
+    private String gatherDebugInfo(LayoutRegistry layouts) {
         StringBuilder debug = new StringBuilder();
 
         debug.append(ChatColor.YELLOW).append("Plugin Status:\n");
         debug.append(ChatColor.WHITE).append("- Items configured: ")
                 .append(plugin.getConfigManager().getConfiguredRecipes().size()).append("\n");
-        debug.append(ChatColor.WHITE).append("- Slot mappings: ").append(getSlotMappingCount()).append("\n");
+        debug.append(ChatColor.WHITE).append("- Slot mappings: ").append(layouts.getFallback().getSlotCount())
+                .append(", EpicCraftingsPlus layouts: ").append(layouts.getLayoutCount()).append("\n");
         debug.append(ChatColor.WHITE).append("- Sound enabled: ")
                 .append(plugin.getConfigManager().isSoundEnabled()).append("\n");
         debug.append(ChatColor.WHITE).append("- Particles enabled: ")
@@ -368,26 +610,57 @@ public class HookCommand implements CommandExecutor, TabCompleter {
         // Cache statistics
         debug.append(ChatColor.WHITE).append("- Config cache size: ")
                 .append(plugin.getConfigManager().getCommandCacheSize()).append("\n");
-        debug.append(ChatColor.WHITE).append("- Command cache size: ")
-                .append(plugin.getCommandExecutor().getPlaceholderCacheSize());
+        debug.append(ChatColor.WHITE).append("- Compiled messages: ")
+                .append(plugin.getConfigManager().getSnapshot().getMessageCount()).append("\n");
+        debug.append(ChatColor.WHITE).append("- Delayed action sequences: ")
+                .append(plugin.getCommandExecutor().getDelayedActionCount()).append("\n");
+        debug.append(ChatColor.WHITE).append("- Player sessions: ")
+                .append(plugin.getSessions().size()).append("\n");
+        debug.append(ChatColor.WHITE).append("- Action cooldowns: ")
+                .append(plugin.getCommandExecutor().getActionCooldownCount())
+                .append(", parked for players who left: ").append(plugin.getSessions().getParkedCooldownCount())
+                .append("\n");
+
+        EnhancedCraftingMenuListener listener = plugin.getMenuListener();
+        if (listener != null) {
+            long hits = listener.getPrefetchHits();
+            long total = hits + listener.getPrefetchMisses();
+            debug.append(ChatColor.WHITE).append("- Prefetch hits: ").append(hits).append("/").append(total)
+                    .append(String.format(Locale.ROOT, " (%.1f%%)", total == 0 ? 0.0 : hits * 100.0 / total))
+                    .append("\n");
+            debug.append(ChatColor.WHITE).append("- Coalesced clicks: ").append(listener.getCoalescedClicks())
+                    .append("\n");
+        }
+
+        PlayerInventoryIndex inventoryIndex = plugin.getInventoryIndex();
+        if (inventoryIndex != null) {
+            debug.append(ChatColor.WHITE).append("- Inventory index: ").append(inventoryIndex.getIndexedPlayerCount())
+                    .append(" players, ").append(inventoryIndex.getRescanCount()).append(" rescans\n");
+        }
+
+        // Recipe id resolvers in chain order, with hit rates since the last reload
+        debug.append(ChatColor.YELLOW).append("Recipe Resolvers:\n");
+        for (ResolverChain.ResolverStats stats : plugin.getConfigManager().getResolverChain().getStats()) {
+            debug.append(ChatColor.WHITE).append("- ").append(stats.getName()).append(": ")
+                    .append(stats.getHits()).append("/").append(stats.getAttempts())
+                    .append(String.format(Locale.ROOT, " (%.1f%%)", stats.getHitRate() * 100)).append("\n");
+        }
 
         return debug.toString();
     }
 
-    // Optimized slot mapping count
-    private int getSlotMappingCount() {
-        int count = 0;
-        for (int i = 1; i <= 12; i++) {
-            if (plugin.getConfigManager().getSlotFromPosition(i) != -1) {
-                count++;
-            }
-        }
-        return count;
+    // The click filter's layouts; slot-mapping only while the menu listener is not registered
+    private LayoutRegistry currentLayouts() {
+        EnhancedCraftingMenuListener listener = plugin.getMenuListener();
+        if (listener != null) return listener.getLayouts();
+
+        ConfigSnapshot snapshot = plugin.getConfigManager().getSnapshot();
+        return LayoutRegistry.build(null, snapshot.getSlotMapping(), snapshot.getSettings().getLayout());
     }
 
     // Optimized test usage message
     private void sendTestUsage(CommandSender sender) {
-        sender.sendMessage(ChatColor.RED + "Usage: /echook test <item_id>");
+        sender.sendMessage(ChatColor.RED + "Usage: /echook test <item_id> [page]");
         sender.sendMessage(ChatColor.YELLOW + "Example: /echook test BICHNHA");
     }
 
@@ -409,28 +682,19 @@ public class HookCommand implements CommandExecutor, TabCompleter {
                     completions.add(subCommand);
                 }
             }
-        } else if (args.length == 2 && args[0].equalsIgnoreCase("test")) {
-            String partial = args[1].toLowerCase();
-
-            // Cache item completions for test command
-            String cacheKey = "test_items:" + partial;
-            List<String> cached = tabCompletionCache.get(cacheKey);
-
-            if (cached == null) {
-                cached = new ArrayList<>();
-                for (String itemId : plugin.getConfigManager().getConfiguredRecipes()) {
-                    if (itemId.toLowerCase().startsWith(partial)) {
-                        cached.add(itemId);
-                    }
-                }
-
-                // Only cache if we have results and partial is long enough
-                if (!cached.isEmpty() && partial.length() >= 2) {
-                    tabCompletionCache.put(cacheKey, cached);
+        } else if (args.length == 2 && (args[0].equalsIgnoreCase("test") || args[0].equalsIgnoreCase("stats")
+                || args[0].equalsIgnoreCase("tree"))) {
+            // Binary-search range lookup on the index built at config load
+            return plugin.getConfigManager().getRecipeIndex().complete(args[1]);
+        } else if (args.length == 4 && args[0].equalsIgnoreCase("bench")) {
+            return plugin.getConfigManager().getRecipeIndex().complete(args[3]);
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("session")) {
+            String partial = args[1].toLowerCase(Locale.ROOT);
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                if (player.getName().toLowerCase(Locale.ROOT).startsWith(partial)) {
+                    completions.add(player.getName());
                 }
             }
-
-            completions.addAll(cached);
         }
 
         return completions;
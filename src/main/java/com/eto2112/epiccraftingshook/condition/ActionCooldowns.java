@@ -0,0 +1,34 @@
+package com.eto2112.epiccraftingshook.condition;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One player's cooldowns for [if cooldown:N] conditions, keyed by the action template. Held by the player's
+// session and kept by the session registry across a relog; an expired entry is simply overwritten by the
+// next acquire, so there is nothing to sweep.
+public final class ActionCooldowns {
+
+    private final Map<String, Long> cooldowns = new ConcurrentHashMap<>(4);
+
+    // Starts the cooldown when it is not running; false while it still runs. Atomic per action.
+    boolean tryAcquire(String key, long durationMillis) {
+        long now = System.currentTimeMillis();
+        boolean[] acquired = {false};
+        cooldowns.compute(key, (k, until) -> {
+            if (until != null && until > now) return until;
+            acquired[0] = true;
+            return now + durationMillis;
+        });
+        return acquired[0];
+    }
+
+    // Cooldowns still running
+    public int size() {
+        long now = System.currentTimeMillis();
+        int size = 0;
+        for (long until : cooldowns.values()) {
+            if (until > now) size++;
+        }
+        return size;
+    }
+}
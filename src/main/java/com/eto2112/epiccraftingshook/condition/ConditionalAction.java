@@ -0,0 +1,239 @@
+package com.eto2112.epiccraftingshook.condition;
+
+import com.eto2112.epiccraftingshook.inventory.PlayerInventoryIndex;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+// An action template with its "[if type:value;...]" prefix compiled once per config load. Conditions are
+// ordered cheapest first and short-circuit; cooldown always runs last because passing it starts the cooldown.
+public final class ConditionalAction {
+
+    public static final String PREFIX = "[if ";
+
+    private static final Condition[] NO_CONDITIONS = new Condition[0];
+
+    private final String template;
+    private final Condition[] conditions;
+    private final String action;
+    // Why the prefix failed to compile, null when valid; invalid actions never run
+    private final String error;
+
+    private ConditionalAction(String template, Condition[] conditions, String action, String error) {
+        this.template = template;
+        this.conditions = conditions;
+        this.action = action;
+        this.error = error;
+    }
+
+    public static boolean isConditional(String template) {
+        return template.startsWith(PREFIX);
+    }
+
+    public static ConditionalAction compile(String template) {
+        int end = template.indexOf(']');
+        if (end < 0) return invalid(template, "missing ]");
+
+        List<Condition> conditions = new ArrayList<>();
+        for (String part : template.substring(PREFIX.length(), end).split(";")) {
+            String spec = part.trim();
+            if (spec.isEmpty()) continue;
+
+            boolean negate = spec.startsWith("!");
+            if (negate) spec = spec.substring(1).trim();
+
+            int colon = spec.indexOf(':');
+            if (colon < 0) return invalid(template, "expected type:value, got '" + spec + "'");
+            String type = spec.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = spec.substring(colon + 1).trim();
+            if (value.isEmpty()) return invalid(template, "empty value for " + type);
+
+            Condition condition;
+            switch (type) {
+                case "world":
+                    condition = new WorldCondition(value);
+                    break;
+                case "permission":
+                    condition = new PermissionCondition(value);
+                    break;
+                case "has-item":
+                    condition = HasItemCondition.parse(value);
+                    if (condition == null) return invalid(template, "expected has-item:<id>[:<amount>]");
+                    break;
+                case "cooldown":
+                    if (negate) return invalid(template, "cooldown cannot be negated");
+                    condition = CooldownCondition.parse(template, value);
+                    if (condition == null) return invalid(template, "expected cooldown:<seconds>");
+                    break;
+                default:
+                    return invalid(template, "unknown condition type " + type);
+            }
+            conditions.add(negate ? new NotCondition(condition) : condition);
+        }
+
+        conditions.sort(Comparator.comparingInt(Condition::cost));
+        return new ConditionalAction(template, conditions.toArray(NO_CONDITIONS), template.substring(end + 1).trim(),
+                null);
+    }
+
+    private static ConditionalAction invalid(String template, String error) {
+        return new ConditionalAction(template, NO_CONDITIONS, "", error);
+    }
+
+    // Runs where the dispatch is prepared; index may be null when the inventory index is unavailable
+    public boolean test(Player player, PlayerInventoryIndex index, ActionCooldowns cooldowns) {
+        if (error != null) return false;
+
+        for (Condition condition : conditions) {
+            if (!condition.test(player, index, cooldowns)) return false;
+        }
+        return true;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    // The action left after the prefix, e.g. "[console] ..."
+    public String getAction() {
+        return action;
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    private interface Condition {
+        boolean test(Player player, PlayerInventoryIndex index, ActionCooldowns cooldowns);
+
+        // Evaluation order, lowest first
+        int cost();
+    }
+
+    private static final class WorldCondition implements Condition {
+        private final String world;
+
+        WorldCondition(String world) {
+            this.world = world;
+        }
+
+        @Override
+        public boolean test(Player player, PlayerInventoryIndex index, ActionCooldowns cooldowns) {
+            return player.getWorld().getName().equals(world);
+        }
+
+        @Override
+        public int cost() {
+            return 0;
+        }
+    }
+
+    private static final class PermissionCondition implements Condition {
+        private final String permission;
+
+        PermissionCondition(String permission) {
+            this.permission = permission;
+        }
+
+        @Override
+        public boolean test(Player player, PlayerInventoryIndex index, ActionCooldowns cooldowns) {
+            return player.hasPermission(permission);
+        }
+
+        @Override
+        public int cost() {
+            return 1;
+        }
+    }
+
+    // Reads the per-player inventory index, never the inventory itself
+    private static final class HasItemCondition implements Condition {
+        private final String itemId;
+        private final int amount;
+
+        private HasItemCondition(String itemId, int amount) {
+            this.itemId = itemId;
+            this.amount = amount;
+        }
+
+        static HasItemCondition parse(String value) {
+            int colon = value.lastIndexOf(':');
+            String itemId = colon < 0 ? value : value.substring(0, colon).trim();
+            int amount = 1;
+            if (colon >= 0) {
+                try {
+                    amount = Integer.parseInt(value.substring(colon + 1).trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            return itemId.isEmpty() || amount < 1 ? null
+                    : new HasItemCondition(itemId.toUpperCase(Locale.ROOT), amount);
+        }
+
+        @Override
+        public boolean test(Player player, PlayerInventoryIndex index, ActionCooldowns cooldowns) {
+            return index != null && index.has(player.getUniqueId(), itemId, amount);
+        }
+
+        @Override
+        public int cost() {
+            return 2;
+        }
+    }
+
+    // Passing starts the cooldown, so it must stay the last condition evaluated
+    private static final class CooldownCondition implements Condition {
+        private final String key;
+        private final long durationMillis;
+
+        private CooldownCondition(String key, long durationMillis) {
+            this.key = key;
+            this.durationMillis = durationMillis;
+        }
+
+        static CooldownCondition parse(String template, String value) {
+            try {
+                long seconds = Long.parseLong(value);
+                return seconds > 0 ? new CooldownCondition(template, seconds * 1000L) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean test(Player player, PlayerInventoryIndex index, ActionCooldowns cooldowns) {
+            return cooldowns.tryAcquire(key, durationMillis);
+        }
+
+        @Override
+        public int cost() {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    private static final class NotCondition implements Condition {
+        private final Condition condition;
+
+        NotCondition(Condition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public boolean test(Player player, PlayerInventoryIndex index, ActionCooldowns cooldowns) {
+            return !condition.test(player, index, cooldowns);
+        }
+
+        @Override
+        public int cost() {
+            return condition.cost();
+        }
+    }
+}
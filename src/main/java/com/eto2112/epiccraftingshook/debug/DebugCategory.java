@@ -0,0 +1,30 @@
+package com.eto2112.epiccraftingshook.debug;
+
+// Debug output categories, each toggled separately under debug.categories in config.yml
+public enum DebugCategory {
+    // Click filtering and menu detection
+    CLICK("click"),
+    // Recipe/indicator resolution from the open menu
+    RESOLVE("resolve"),
+    // Command and action execution
+    DISPATCH("dispatch"),
+    // Cache clears and maintenance
+    CACHE("cache"),
+    // Config load, reload and compiled cache
+    CONFIG("config");
+
+    private final String key;
+
+    DebugCategory(String key) {
+        this.key = key;
+    }
+
+    // Config key and log tag
+    public String getKey() {
+        return key;
+    }
+
+    int mask() {
+        return 1 << ordinal();
+    }
+}
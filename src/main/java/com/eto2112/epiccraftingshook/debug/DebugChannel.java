@@ -0,0 +1,148 @@
+package com.eto2112.epiccraftingshook.debug;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Categorised, rate-limited debug output. Disabled categories cost one volatile read;
+// enabled messages are built and logged on a background thread, so suppliers must only
+// capture values that are safe to read from another thread.
+public final class DebugChannel {
+
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final long SHUTDOWN_WAIT_MILLIS = 500L;
+
+    private final Logger logger;
+    private final ThreadPoolExecutor emitter;
+    private final CategoryLimiter[] limiters;
+
+    // Bit per category, see DebugCategory#mask
+    private volatile int enabledMask;
+    private volatile int messagesPerWindow = DebugSettings.DISABLED.getMessagesPerWindow();
+    private volatile long windowNanos = TimeUnit.MILLISECONDS.toNanos(DebugSettings.DISABLED.getWindowMillis());
+
+    // Messages lost because the emitter queue was full
+    private final LongAdder overflowed = new LongAdder();
+
+    public DebugChannel(Logger logger) {
+        this.logger = logger;
+        this.emitter = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "EpicCraftingsHook-Debug");
+                    thread.setDaemon(true);
+                    return thread;
+                }, (runnable, executor) -> overflowed.increment());
+
+        DebugCategory[] categories = DebugCategory.values();
+        this.limiters = new CategoryLimiter[categories.length];
+        for (DebugCategory category : categories) {
+            limiters[category.ordinal()] = new CategoryLimiter(category);
+        }
+    }
+
+    public void reconfigure(DebugSettings settings) {
+        messagesPerWindow = settings.getMessagesPerWindow();
+        windowNanos = TimeUnit.MILLISECONDS.toNanos(settings.getWindowMillis());
+        enabledMask = settings.getEnabledMask();
+    }
+
+    public boolean isEnabled(DebugCategory category) {
+        return (enabledMask & category.mask()) != 0;
+    }
+
+    public boolean isAnyEnabled() {
+        return enabledMask != 0;
+    }
+
+    public void log(DebugCategory category, Supplier<String> message) {
+        submit(category, Level.INFO, message);
+    }
+
+    public void warn(DebugCategory category, Supplier<String> message) {
+        submit(category, Level.WARNING, message);
+    }
+
+    private void submit(DebugCategory category, Level level, Supplier<String> message) {
+        if ((enabledMask & category.mask()) == 0) return;
+
+        CategoryLimiter limiter = limiters[category.ordinal()];
+        if (!limiter.tryAcquire(System.nanoTime())) return;
+
+        emitter.execute(() -> {
+            try {
+                logger.log(level, "[debug/" + category.getKey() + "] " + message.get());
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "[debug/" + category.getKey() + "] failed to build message", e);
+            }
+        });
+    }
+
+    // Report suppression counts for windows that ended without further messages
+    public void flushSuppressed() {
+        long now = System.nanoTime();
+        for (CategoryLimiter limiter : limiters) {
+            limiter.rollIfExpired(now);
+        }
+        long lost = overflowed.sumThenReset();
+        if (lost > 0) {
+            emitter.execute(() -> logger.info("[debug] " + lost + " messages dropped, debug queue was full"));
+        }
+    }
+
+    // Emit pending summaries and stop the emitter thread
+    public void close() {
+        enabledMask = 0;
+        for (CategoryLimiter limiter : limiters) {
+            limiter.roll();
+        }
+        emitter.shutdown();
+        try {
+            emitter.awaitTermination(SHUTDOWN_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Fixed-window message budget for one category
+    private final class CategoryLimiter {
+        private final DebugCategory category;
+        private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+        private final AtomicInteger emitted = new AtomicInteger();
+        private final AtomicInteger suppressed = new AtomicInteger();
+
+        private CategoryLimiter(DebugCategory category) {
+            this.category = category;
+        }
+
+        boolean tryAcquire(long now) {
+            rollIfExpired(now);
+            if (emitted.incrementAndGet() <= messagesPerWindow) return true;
+
+            suppressed.incrementAndGet();
+            return false;
+        }
+
+        void rollIfExpired(long now) {
+            long start = windowStart.get();
+            if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+                roll();
+            }
+        }
+
+        void roll() {
+            emitted.set(0);
+            int missed = suppressed.getAndSet(0);
+            if (missed > 0) {
+                long windowSeconds = TimeUnit.NANOSECONDS.toSeconds(windowNanos);
+                emitter.execute(() -> logger.info("[debug/" + category.getKey() + "] " + missed
+                        + " messages suppressed (limit " + messagesPerWindow + " per " + windowSeconds + "s)"));
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.eto2112.epiccraftingshook.debug;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Debug channel settings: settings.debug master switch plus the debug section of config.yml
+public final class DebugSettings {
+
+    private static final int ALL_CATEGORIES = (1 << DebugCategory.values().length) - 1;
+
+    public static final DebugSettings DISABLED = new DebugSettings(0, 20, 10_000L);
+
+    // Bit per DebugCategory, already masked by the master switch
+    private final int enabledMask;
+    private final int messagesPerWindow;
+    private final long windowMillis;
+
+    private DebugSettings(int enabledMask, int messagesPerWindow, long windowMillis) {
+        this.enabledMask = enabledMask;
+        this.messagesPerWindow = messagesPerWindow;
+        this.windowMillis = windowMillis;
+    }
+
+    public static DebugSettings fromConfig(FileConfiguration config) {
+        int mask = 0;
+        if (config.getBoolean("settings.debug", false)) {
+            for (DebugCategory category : DebugCategory.values()) {
+                if (config.getBoolean("debug.categories." + category.getKey(), true)) {
+                    mask |= category.mask();
+                }
+            }
+        }
+        return new DebugSettings(mask,
+                Math.max(1, config.getInt("debug.rate-limit.messages", DISABLED.messagesPerWindow)),
+                Math.max(1L, config.getLong("debug.rate-limit.window-seconds", 10L)) * 1000L);
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(enabledMask);
+        out.writeInt(messagesPerWindow);
+        out.writeLong(windowMillis);
+    }
+
+    public static DebugSettings read(ByteBuffer in) {
+        return new DebugSettings(in.getInt() & ALL_CATEGORIES, in.getInt(), in.getLong());
+    }
+
+    public int getEnabledMask() {
+        return enabledMask;
+    }
+
+    public boolean isEnabled(DebugCategory category) {
+        return (enabledMask & category.mask()) != 0;
+    }
+
+    public int getMessagesPerWindow() {
+        return messagesPerWindow;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+}
@@ -0,0 +1,104 @@
+package com.eto2112.epiccraftingshook.dispatch;
+
+import com.eto2112.epiccraftingshook.EpicCraftingsHookPlugin;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sender for [console] actions. In silent mode commands run through Paper's feedback-forwarding sender,
+// which has console permissions but hands every reply to us instead of the server log.
+public final class ConsoleActionSender {
+
+    private static final String LOG_PREFIX = "[console action] ";
+
+    private final EpicCraftingsHookPlugin plugin;
+
+    // Created once on first silent dispatch; null until then or when the server lacks the API
+    private volatile CommandSender silentSender;
+    private volatile boolean silentUnsupported;
+
+    // Player whose action is running on this thread, for attributing feedback
+    private final ThreadLocal<String> currentPlayer = new ThreadLocal<>();
+
+    // Fixed-window limiter for Feedback.LOG
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicInteger windowCount = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public ConsoleActionSender(EpicCraftingsHookPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    // Must run on the global region / main thread, like any console dispatch
+    public boolean dispatch(String playerName, String command) {
+        CommandSender sender = resolveSender();
+        currentPlayer.set(playerName);
+        try {
+            return Bukkit.dispatchCommand(sender, command);
+        } finally {
+            currentPlayer.remove();
+        }
+    }
+
+    private CommandSender resolveSender() {
+        if (silentUnsupported || !settings().isSilentSender()) return Bukkit.getConsoleSender();
+
+        CommandSender sender = silentSender;
+        if (sender != null) return sender;
+
+        try {
+            sender = Bukkit.getServer().createCommandSender(this::onFeedback);
+            silentSender = sender;
+            return sender;
+        } catch (NoSuchMethodError | UnsupportedOperationException e) {
+            silentUnsupported = true;
+            plugin.getLogger().warning("console-actions.sender: silent needs Paper 1.19.4+, using the console sender");
+            return Bukkit.getConsoleSender();
+        }
+    }
+
+    private void onFeedback(Component message) {
+        ConsoleActionSettings settings = settings();
+        switch (settings.getFeedback()) {
+            case LOG:
+                if (tryAcquireLogSlot(settings)) {
+                    plugin.getLogger().info(LOG_PREFIX + plain(message));
+                } else {
+                    suppressed.incrementAndGet();
+                }
+                break;
+            case AUDIT:
+                String player = currentPlayer.get();
+                plugin.getAuditLog().recordFeedback(player != null ? player : "-", plain(message));
+                break;
+            default:
+                // DROP: the reply is discarded without being serialized
+                break;
+        }
+    }
+
+    private boolean tryAcquireLogSlot(ConsoleActionSettings settings) {
+        long now = System.currentTimeMillis();
+        long start = windowStart.get();
+        if (now - start >= settings.getLogWindowMillis() && windowStart.compareAndSet(start, now)) {
+            windowCount.set(0);
+            long dropped = suppressed.getAndSet(0);
+            if (dropped > 0) {
+                plugin.getLogger().info(LOG_PREFIX + dropped + " feedback message(s) suppressed");
+            }
+        }
+        return windowCount.incrementAndGet() <= settings.getLogMessagesPerWindow();
+    }
+
+    private ConsoleActionSettings settings() {
+        return plugin.getConfigManager().getSnapshot().getSettings().getConsoleActions();
+    }
+
+    private static String plain(Component message) {
+        return PlainTextComponentSerializer.plainText().serialize(message);
+    }
+}
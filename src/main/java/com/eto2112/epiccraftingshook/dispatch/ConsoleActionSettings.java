@@ -0,0 +1,84 @@
+package com.eto2112.epiccraftingshook.dispatch;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+// How [console] actions are sent (console-actions section of config.yml)
+public final class ConsoleActionSettings {
+
+    // What happens to messages a console action sends back to its sender
+    public enum Feedback {
+        DROP,
+        LOG,
+        AUDIT
+    }
+
+    public static final ConsoleActionSettings DEFAULTS = new ConsoleActionSettings(false, Feedback.DROP, 5, 10_000L);
+
+    // true = dispatch through a feedback-capturing sender instead of the real console
+    private final boolean silentSender;
+    private final Feedback feedback;
+    // Rate limit for Feedback.LOG
+    private final int logMessagesPerWindow;
+    private final long logWindowMillis;
+
+    private ConsoleActionSettings(boolean silentSender, Feedback feedback, int logMessagesPerWindow,
+                                  long logWindowMillis) {
+        this.silentSender = silentSender;
+        this.feedback = feedback;
+        this.logMessagesPerWindow = logMessagesPerWindow;
+        this.logWindowMillis = logWindowMillis;
+    }
+
+    public static ConsoleActionSettings fromConfig(FileConfiguration config) {
+        return new ConsoleActionSettings(
+                "silent".equalsIgnoreCase(config.getString("console-actions.sender", "console")),
+                parseFeedback(config.getString("console-actions.feedback", "drop")),
+                Math.max(1, config.getInt("console-actions.log-limit.messages", DEFAULTS.logMessagesPerWindow)),
+                Math.max(1L, config.getLong("console-actions.log-limit.window-seconds", 10L)) * 1000L);
+    }
+
+    private static Feedback parseFeedback(String value) {
+        try {
+            return Feedback.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return DEFAULTS.feedback;
+        }
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeBoolean(silentSender);
+        out.writeByte(feedback.ordinal());
+        out.writeInt(logMessagesPerWindow);
+        out.writeLong(logWindowMillis);
+    }
+
+    public static ConsoleActionSettings read(ByteBuffer in) {
+        boolean silentSender = in.get() != 0;
+        int feedback = in.get();
+        if (feedback < 0 || feedback >= Feedback.values().length) {
+            throw new IllegalStateException("Corrupt feedback mode " + feedback);
+        }
+        return new ConsoleActionSettings(silentSender, Feedback.values()[feedback], in.getInt(), in.getLong());
+    }
+
+    public boolean isSilentSender() {
+        return silentSender;
+    }
+
+    public Feedback getFeedback() {
+        return feedback;
+    }
+
+    public int getLogMessagesPerWindow() {
+        return logMessagesPerWindow;
+    }
+
+    public long getLogWindowMillis() {
+        return logWindowMillis;
+    }
+}
@@ -0,0 +1,47 @@
+package com.eto2112.epiccraftingshook.dispatch;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+
+// Where resolved actions end up. CommandExecutor's live sink performs them; a dispatch can carry
+// another sink to record or discard its actions while still going through scheduling and placeholders.
+public interface DispatchSink {
+
+    // Accepts every action and does nothing
+    DispatchSink NO_OP = new DispatchSink() {
+        @Override
+        public void console(Player player, String command) {
+        }
+
+        @Override
+        public void op(Player player, String command) {
+        }
+
+        @Override
+        public void playerCommand(Player player, String command) {
+        }
+
+        @Override
+        public void message(Player player, Component message) {
+        }
+
+        @Override
+        public void closeInventory(Player player) {
+        }
+    };
+
+    // [console] actions, unprefixed commands and the command a [chain] resolves to
+    void console(Player player, String command);
+
+    // [op] actions
+    void op(Player player, String command);
+
+    // [player] actions
+    void playerCommand(Player player, String command);
+
+    // [message] actions, compiled and with placeholders filled in
+    void message(Player player, Component message);
+
+    // [close] actions
+    void closeInventory(Player player);
+}
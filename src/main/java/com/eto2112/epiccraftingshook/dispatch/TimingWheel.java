@@ -0,0 +1,96 @@
+package com.eto2112.epiccraftingshook.dispatch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Hashed timing wheel advanced by one repeating task: one bucket per tick modulo the wheel size, and items due
+// more than a rotation out stay in their bucket until their tick comes round. schedule() is safe from any
+// thread; new items wait in a lock-free inbox that only the ticking thread moves into the buckets.
+public final class TimingWheel<T> {
+
+    // Power of two, so the bucket index is a mask
+    private static final int WHEEL_SIZE = 512;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final Consumer<T> onExpire;
+    private final Queue<Entry<T>> inbox = new ConcurrentLinkedQueue<>();
+    private final ArrayDeque<Entry<T>>[] buckets;
+    private final AtomicInteger size = new AtomicInteger();
+
+    // Written only by the ticking thread
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(Consumer<T> onExpire) {
+        this.onExpire = onExpire;
+        this.buckets = new ArrayDeque[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    // Runs the item on the tick delayTicks from now (at least the next one)
+    public void schedule(T item, long delayTicks) {
+        size.incrementAndGet();
+        inbox.offer(new Entry<>(item, currentTick + Math.max(1L, delayTicks)));
+    }
+
+    // Called once per tick by the owning repeating task; expired items run on that thread
+    public void tick() {
+        long tick = currentTick + 1;
+        currentTick = tick;
+
+        // Anything whose tick passed while it sat in the inbox is due now
+        Entry<T> scheduled;
+        while ((scheduled = inbox.poll()) != null) {
+            buckets[(int) (Math.max(scheduled.dueTick, tick) & MASK)].add(scheduled);
+        }
+
+        ArrayDeque<Entry<T>> bucket = buckets[(int) (tick & MASK)];
+        for (int remaining = bucket.size(); remaining > 0; remaining--) {
+            Entry<T> entry = bucket.poll();
+            if (entry.dueTick > tick) {
+                bucket.add(entry); // A later rotation
+                continue;
+            }
+            size.decrementAndGet();
+            onExpire.accept(entry.item);
+        }
+    }
+
+    // Remove and return everything still waiting; only call once the ticking task has stopped
+    public List<T> clear() {
+        List<T> items = new ArrayList<>(size.get());
+        Entry<T> scheduled;
+        while ((scheduled = inbox.poll()) != null) {
+            items.add(scheduled.item);
+        }
+        for (ArrayDeque<Entry<T>> bucket : buckets) {
+            for (Entry<T> entry : bucket) {
+                items.add(entry.item);
+            }
+            bucket.clear();
+        }
+        size.set(0);
+        return items;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    private static final class Entry<T> {
+        final T item;
+        final long dueTick;
+
+        Entry(T item, long dueTick) {
+            this.item = item;
+            this.dueTick = dueTick;
+        }
+    }
+}
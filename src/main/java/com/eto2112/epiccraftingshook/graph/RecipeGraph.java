@@ -0,0 +1,374 @@
+package com.eto2112.epiccraftingshook.graph;
+
+import com.eto2112.epiccraftingshook.condition.ConditionalAction;
+import ecp.ajneb97.model.Crafting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+// Recipe -> ingredient recipe links taken from "opencraft" and [chain] actions in items-command, built once per
+// config load. Depths, cycle membership and per-root topological orders are precomputed or cached.
+public final class RecipeGraph {
+
+    public static final RecipeGraph EMPTY = new RecipeGraph(new ArrayList<>(), new ArrayList<>(), new HashMap<>(),
+            new ArrayList<>(), new ArrayList<>(), new HashMap<>(), Collections.emptySet());
+
+    private static final String OPEN_CRAFT_ARGUMENT = "opencraft";
+    private static final String CHAIN_ACTION = "[chain]";
+    private static final String MMOITEMS_ID_TAG = "MMOITEMS_ITEM_ID|";
+
+    // Node n: id, crafting name that opens it (null for roots nobody links to)
+    private final String[] ids;
+    private final String[] craftings;
+    private final Map<String, Integer> index;
+
+    // Outgoing edges of node n, ordered by position: child node and the position that links to it
+    private final int[][] children;
+    private final int[][] childPositions;
+
+    private final int[] depth;
+    private final int[] component;
+    private final boolean[] inCycle;
+
+    // Lowercase ECP crafting name -> recipe id of its result, and every ECP crafting name, for [chain] arguments
+    private final Map<String, String> craftingToRecipe;
+    private final Set<String> craftingNames;
+
+    // Root node -> craft order (ingredients first), filled on first request
+    private final Map<Integer, List<String>> topologicalOrders = new ConcurrentHashMap<>();
+
+    private RecipeGraph(List<String> ids, List<String> craftings, Map<String, Integer> index,
+                        List<List<Integer>> children, List<List<Integer>> childPositions,
+                        Map<String, String> craftingToRecipe, Set<String> craftingNames) {
+        int size = ids.size();
+        this.craftingToRecipe = craftingToRecipe;
+        this.craftingNames = craftingNames;
+        this.ids = ids.toArray(new String[0]);
+        this.craftings = craftings.toArray(new String[0]);
+        this.index = index;
+        this.children = new int[size][];
+        this.childPositions = new int[size][];
+        for (int node = 0; node < size; node++) {
+            this.children[node] = children.get(node).stream().mapToInt(Integer::intValue).toArray();
+            this.childPositions[node] = childPositions.get(node).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        this.component = new int[size];
+        this.inCycle = new boolean[size];
+        findCycles();
+
+        this.depth = new int[size];
+        Arrays.fill(depth, -1);
+        for (int node = 0; node < size; node++) {
+            computeDepth(node);
+        }
+    }
+
+    // Links come from the action templates; EpicCraftingsPlus crafting definitions map crafting names
+    // to recipe ids through the MMOItems id of their result item. Must run where ECP state is safe to read.
+    public static RecipeGraph build(Map<String, Map<Integer, List<String>>> itemCommands, List<Crafting> craftingList) {
+        Map<String, String> craftingToRecipe = new HashMap<>();
+        Set<String> craftingNames = new HashSet<>();
+        if (craftingList != null) {
+            for (Crafting crafting : craftingList) {
+                craftingNames.add(crafting.getName().toLowerCase(Locale.ROOT));
+                String recipeId = mmoItemsId(crafting);
+                if (recipeId != null) {
+                    craftingToRecipe.put(crafting.getName().toLowerCase(Locale.ROOT), recipeId);
+                }
+            }
+        }
+
+        List<String> ids = new ArrayList<>();
+        List<String> craftings = new ArrayList<>();
+        Map<String, Integer> index = new HashMap<>();
+        List<List<Integer>> children = new ArrayList<>();
+        List<List<Integer>> childPositions = new ArrayList<>();
+
+        // Configured recipes first, in sorted order so node numbering is stable across loads
+        Map<String, Map<Integer, List<String>>> sorted = new TreeMap<>(itemCommands);
+        for (String recipeId : sorted.keySet()) {
+            addNode(recipeId, ids, craftings, index, children, childPositions);
+        }
+
+        for (Map.Entry<String, Map<Integer, List<String>>> recipe : sorted.entrySet()) {
+            int from = index.get(recipe.getKey());
+            for (Map.Entry<Integer, List<String>> position : new TreeMap<>(recipe.getValue()).entrySet()) {
+                String target = findOpenCraftTarget(position.getValue());
+                if (target == null) continue;
+
+                String targetId = resolveRecipeId(target, craftingToRecipe, itemCommands);
+                int to = addNode(targetId, ids, craftings, index, children, childPositions);
+                if (craftings.get(to) == null) {
+                    craftings.set(to, target);
+                }
+                children.get(from).add(to);
+                childPositions.get(from).add(position.getKey());
+            }
+        }
+        return new RecipeGraph(ids, craftings, index, children, childPositions, craftingToRecipe, craftingNames);
+    }
+
+    private static int addNode(String id, List<String> ids, List<String> craftings, Map<String, Integer> index,
+                               List<List<Integer>> children, List<List<Integer>> childPositions) {
+        Integer existing = index.get(id);
+        if (existing != null) return existing;
+
+        int node = ids.size();
+        ids.add(id);
+        craftings.add(null);
+        index.put(id, node);
+        children.add(new ArrayList<>());
+        childPositions.add(new ArrayList<>());
+        return node;
+    }
+
+    // Crafting name of the first "... opencraft <player> <crafting> ..." or "[chain] <crafting>" action, or null
+    static String findOpenCraftTarget(List<String> commands) {
+        for (String command : commands) {
+            // Conditional links still count; the graph describes every path a click could take
+            String action = command.trim();
+            if (ConditionalAction.isConditional(action) && action.indexOf(']') > 0) {
+                action = action.substring(action.indexOf(']') + 1).trim();
+            }
+            String[] tokens = action.split("\\s+");
+            if (tokens.length > 1 && tokens[0].equalsIgnoreCase(CHAIN_ACTION)) {
+                return tokens[1];
+            }
+            for (int i = 0; i + 2 < tokens.length; i++) {
+                if (tokens[i].equalsIgnoreCase(OPEN_CRAFT_ARGUMENT)) {
+                    return tokens[i + 2];
+                }
+            }
+        }
+        return null;
+    }
+
+    // ECP definition first, then the crafting name itself, then the name without underscores
+    private static String resolveRecipeId(String crafting, Map<String, String> craftingToRecipe,
+                                          Map<String, Map<Integer, List<String>>> itemCommands) {
+        String fromDefinition = craftingToRecipe.get(crafting.toLowerCase(Locale.ROOT));
+        if (fromDefinition != null) return fromDefinition;
+
+        String upper = crafting.toUpperCase(Locale.ROOT);
+        if (itemCommands.containsKey(upper)) return upper;
+
+        String stripped = upper.replace("_", "");
+        return itemCommands.containsKey(stripped) ? stripped : upper;
+    }
+
+    private static String mmoItemsId(Crafting crafting) {
+        if (crafting.getItem() == null || crafting.getItem().getNbt() == null) return null;
+
+        // ECP stores custom NBT as "KEY|value|type"
+        for (String nbt : crafting.getItem().getNbt()) {
+            if (nbt != null && nbt.startsWith(MMOITEMS_ID_TAG)) {
+                int end = nbt.indexOf('|', MMOITEMS_ID_TAG.length());
+                String value = end < 0 ? nbt.substring(MMOITEMS_ID_TAG.length())
+                        : nbt.substring(MMOITEMS_ID_TAG.length(), end);
+                return value.isEmpty() ? null : value.toUpperCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+
+    // Tarjan's strongly connected components; nodes in a component of 2+ (or with a self link) are cyclic
+    private void findCycles() {
+        int size = ids.length;
+        int[] order = new int[size];
+        int[] low = new int[size];
+        boolean[] onStack = new boolean[size];
+        int[] stack = new int[size];
+        int[] stackTop = {0};
+        int[] counter = {0};
+        int[] components = {0};
+        Arrays.fill(order, -1);
+
+        for (int node = 0; node < size; node++) {
+            if (order[node] == -1) {
+                strongConnect(node, order, low, onStack, stack, stackTop, counter, components);
+            }
+        }
+    }
+
+    private void strongConnect(int node, int[] order, int[] low, boolean[] onStack, int[] stack, int[] stackTop,
+                               int[] counter, int[] components) {
+        order[node] = low[node] = counter[0]++;
+        stack[stackTop[0]++] = node;
+        onStack[node] = true;
+
+        for (int child : children[node]) {
+            if (order[child] == -1) {
+                strongConnect(child, order, low, onStack, stack, stackTop, counter, components);
+                low[node] = Math.min(low[node], low[child]);
+            } else if (onStack[child]) {
+                low[node] = Math.min(low[node], order[child]);
+            }
+        }
+
+        if (low[node] != order[node]) return;
+
+        // Pop the component; stack[base..] are its members
+        int id = components[0]++;
+        int base = stackTop[0];
+        do {
+            base--;
+            onStack[stack[base]] = false;
+            component[stack[base]] = id;
+        } while (stack[base] != node);
+
+        boolean cyclic = stackTop[0] - base > 1;
+        for (int child : children[node]) {
+            cyclic |= child == node;
+        }
+        if (cyclic) {
+            for (int i = base; i < stackTop[0]; i++) {
+                inCycle[stack[i]] = true;
+            }
+        }
+        stackTop[0] = base;
+    }
+
+    // Longest ingredient chain below the node; links inside a cycle are not followed
+    private int computeDepth(int node) {
+        if (depth[node] >= 0) return depth[node];
+
+        depth[node] = 0;
+        int deepest = 0;
+        for (int child : children[node]) {
+            if (component[child] == component[node]) continue;
+            deepest = Math.max(deepest, computeDepth(child) + 1);
+        }
+        depth[node] = deepest;
+        return deepest;
+    }
+
+    public boolean contains(String recipeId) {
+        return index.containsKey(recipeId);
+    }
+
+    public int getNodeCount() {
+        return ids.length;
+    }
+
+    public int getDepth(String recipeId) {
+        Integer node = index.get(recipeId);
+        return node != null ? depth[node] : -1;
+    }
+
+    public boolean isInCycle(String recipeId) {
+        Integer node = index.get(recipeId);
+        return node != null && inCycle[node];
+    }
+
+    public String getCrafting(String recipeId) {
+        Integer node = index.get(recipeId);
+        return node != null ? craftings[node] : null;
+    }
+
+    // Ingredient recipe ids of the recipe, by position
+    public List<String> getIngredients(String recipeId) {
+        Integer node = index.get(recipeId);
+        if (node == null || children[node].length == 0) return Collections.emptyList();
+
+        List<String> ingredients = new ArrayList<>(children[node].length);
+        for (int child : children[node]) {
+            ingredients.add(ids[child]);
+        }
+        return ingredients;
+    }
+
+    // Positions of the recipe's menu, parallel to getIngredients
+    public List<Integer> getIngredientPositions(String recipeId) {
+        Integer node = index.get(recipeId);
+        if (node == null || childPositions[node].length == 0) return Collections.emptyList();
+
+        List<Integer> positions = new ArrayList<>(childPositions[node].length);
+        for (int position : childPositions[node]) {
+            positions.add(position);
+        }
+        return positions;
+    }
+
+    // Every recipe reachable from the root, ingredients before the recipes that need them
+    public List<String> getCraftOrder(String recipeId) {
+        Integer root = index.get(recipeId);
+        if (root == null) return Collections.emptyList();
+
+        return topologicalOrders.computeIfAbsent(root, node -> {
+            List<String> order = new ArrayList<>();
+            appendPostOrder(node, new boolean[ids.length], order);
+            return Collections.unmodifiableList(order);
+        });
+    }
+
+    private void appendPostOrder(int node, boolean[] visited, List<String> order) {
+        visited[node] = true;
+        for (int child : children[node]) {
+            if (!visited[child]) appendPostOrder(child, visited, order);
+        }
+        order.add(ids[node]);
+    }
+
+    // Recipe id a crafting name opens, by the same rules as the links; null when it is not part of the graph
+    public String resolveCrafting(String crafting) {
+        String fromDefinition = craftingToRecipe.get(crafting.toLowerCase(Locale.ROOT));
+        if (fromDefinition != null) return index.containsKey(fromDefinition) ? fromDefinition : null;
+
+        String upper = crafting.toUpperCase(Locale.ROOT);
+        if (index.containsKey(upper)) return upper;
+
+        String stripped = upper.replace("_", "");
+        return index.containsKey(stripped) ? stripped : null;
+    }
+
+    // Whether EpicCraftingsPlus defines a crafting of that name, linked from anywhere or not
+    public boolean isKnownCrafting(String crafting) {
+        return craftingNames.contains(crafting.toLowerCase(Locale.ROOT));
+    }
+
+    // Chain navigation from the named recipe: keep descending into the deepest ingredient the player
+    // still lacks. The start itself when nothing below it is missing; null when it is not in the graph.
+    public String findChainTarget(String recipeId, Predicate<String> owned) {
+        Integer node = index.get(recipeId);
+        return node != null ? ids[descend(node, owned)] : null;
+    }
+
+    // Fallback for a [chain] without an argument: start at the ingredient linked from the clicked position.
+    // Null when the position links nowhere.
+    public String findChainTarget(String recipeId, int position, Predicate<String> owned) {
+        Integer node = index.get(recipeId);
+        if (node == null) return null;
+
+        int current = -1;
+        for (int i = 0; i < children[node].length; i++) {
+            if (childPositions[node][i] == position) {
+                current = children[node][i];
+                break;
+            }
+        }
+        return current >= 0 ? ids[descend(current, owned)] : null;
+    }
+
+    private int descend(int current, Predicate<String> owned) {
+        while (true) {
+            int next = -1;
+            for (int child : children[current]) {
+                if (component[child] == component[current] || owned.test(ids[child])) continue;
+                if (next < 0 || depth[child] > depth[next]) next = child;
+            }
+            if (next < 0) return current;
+            current = next;
+        }
+    }
+}
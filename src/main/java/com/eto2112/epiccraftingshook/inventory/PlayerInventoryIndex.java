@@ -0,0 +1,133 @@
+package com.eto2112.epiccraftingshook.inventory;
+
+import com.eto2112.epiccraftingshook.EpicCraftingsHookPlugin;
+import com.eto2112.epiccraftingshook.debug.DebugCategory;
+import com.eto2112.epiccraftingshook.resolver.ResolverChain;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Item id -> held amount per online player, so "has N of X" is a map lookup instead of an inventory scan.
+// Inventory events only mark a player dirty; one rescan per dirty player runs on its thread next tick,
+// and a periodic pass rescans players whose holdings are older than the reconcile interval.
+public final class PlayerInventoryIndex {
+
+    private final EpicCraftingsHookPlugin plugin;
+
+    private final Map<UUID, Holdings> holdings = new ConcurrentHashMap<>();
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private final LongAdder rescans = new LongAdder();
+
+    public PlayerInventoryIndex(EpicCraftingsHookPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    // Event hot path: at most one scheduled rescan per player however many events fire in a tick
+    public void markDirty(Player player) {
+        if (!plugin.getConfigManager().isInventoryIndexEnabled()) return;
+
+        if (dirty.add(player.getUniqueId())) {
+            plugin.getTaskScheduler().runForEntity(player, () -> rescan(player));
+        }
+    }
+
+    // Runs on the player's thread; ids come from the recipe resolvers, plain items index by material
+    private void rescan(Player player) {
+        UUID playerId = player.getUniqueId();
+        dirty.remove(playerId);
+        if (!player.isOnline()) {
+            holdings.remove(playerId);
+            return;
+        }
+
+        ResolverChain resolvers = plugin.getConfigManager().getResolverChain();
+        Map<String, Integer> counts = new HashMap<>();
+        for (ItemStack item : player.getInventory().getContents()) {
+            if (item == null || item.getType().isAir()) continue;
+
+            String itemId = item.hasItemMeta() ? resolvers.identify(item, player.getName()) : null;
+            counts.merge(itemId != null ? itemId : item.getType().name(), item.getAmount(), Integer::sum);
+        }
+
+        holdings.put(playerId, new Holdings(Collections.unmodifiableMap(counts), System.currentTimeMillis()));
+        rescans.increment();
+    }
+
+    // Periodic pass on the global thread: catch changes no event reported (plugins, commands, hoppers)
+    public void reconcile() {
+        if (!plugin.getConfigManager().isInventoryIndexEnabled()) {
+            if (!holdings.isEmpty()) holdings.clear();
+            return;
+        }
+
+        long staleBefore = System.currentTimeMillis() - plugin.getConfigManager().getInventoryReconcileMillis();
+        int[] marked = {0};
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            Holdings current = holdings.get(player.getUniqueId());
+            if (current == null || current.scannedAt < staleBefore) {
+                markDirty(player);
+                marked[0]++;
+            }
+        }
+        if (marked[0] > 0) {
+            plugin.getDebugChannel().log(DebugCategory.CACHE, () -> "Inventory index reconcile: "
+                    + marked[0] + " player(s) rescheduled");
+        }
+    }
+
+    public int getCount(UUID playerId, String itemId) {
+        Holdings current = holdings.get(playerId);
+        if (current == null) return 0;
+
+        Integer count = current.counts.get(itemId);
+        return count != null ? count : 0;
+    }
+
+    public boolean has(UUID playerId, String itemId, int amount) {
+        return getCount(playerId, itemId) >= amount;
+    }
+
+    // False until the player's first scan has completed
+    public boolean isIndexed(UUID playerId) {
+        return holdings.containsKey(playerId);
+    }
+
+    public void remove(UUID playerId) {
+        holdings.remove(playerId);
+        dirty.remove(playerId);
+    }
+
+    // Ids change meaning when the resolvers are reconfigured; old holdings stay readable until each rescan lands
+    public void rescanAll() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            markDirty(player);
+        }
+    }
+
+    public int getIndexedPlayerCount() {
+        return holdings.size();
+    }
+
+    public long getRescanCount() {
+        return rescans.sum();
+    }
+
+    // Immutable counts from one scan
+    private static final class Holdings {
+        final Map<String, Integer> counts;
+        final long scannedAt;
+
+        Holdings(Map<String, Integer> counts, long scannedAt) {
+            this.counts = counts;
+            this.scannedAt = scannedAt;
+        }
+    }
+}
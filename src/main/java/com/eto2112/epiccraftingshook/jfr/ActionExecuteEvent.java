@@ -0,0 +1,33 @@
+package com.eto2112.epiccraftingshook.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One configured action run by CommandExecutor
+@Name("epiccraftingshook.ActionExecute")
+@Label("Action Execute")
+@Category({"EpicCraftingsHook", "Dispatch"})
+@Description("Execution of a single configured action")
+@StackTrace(false)
+public final class ActionExecuteEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("Recipe Id")
+    public String recipeId;
+
+    @Label("Position")
+    public int position;
+
+    @Label("Action Type")
+    @Description("console, op, player, message, chain or close")
+    public String actionType;
+
+    @Label("Action")
+    public String action;
+}
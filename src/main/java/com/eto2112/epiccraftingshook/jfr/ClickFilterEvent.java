@@ -0,0 +1,27 @@
+package com.eto2112.epiccraftingshook.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Main-thread filter in onInventoryClick: click kind, slot, open menu, coalescing, actions and cooldown checks
+@Name("epiccraftingshook.ClickFilter")
+@Label("Click Filter")
+@Category({"EpicCraftingsHook", "Click"})
+@Description("Main-thread filtering of an inventory click")
+@StackTrace(false)
+public final class ClickFilterEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("Slot")
+    public int slot;
+
+    @Label("Outcome")
+    @Description("accepted, or the check that rejected the click")
+    public String outcome;
+}
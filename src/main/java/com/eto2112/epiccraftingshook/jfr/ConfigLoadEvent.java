@@ -0,0 +1,24 @@
+package com.eto2112.epiccraftingshook.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Config load or reload, from the compiled cache or from YAML
+@Name("epiccraftingshook.ConfigLoad")
+@Label("Config Load")
+@Category({"EpicCraftingsHook", "Config"})
+@Description("Load of config.yml into a compiled snapshot")
+@StackTrace(false)
+public final class ConfigLoadEvent extends Event {
+
+    @Label("Source")
+    @Description("cache or yaml")
+    public String source;
+
+    @Label("Recipe Count")
+    public int recipeCount;
+}
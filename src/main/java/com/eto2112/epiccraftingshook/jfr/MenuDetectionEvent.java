@@ -0,0 +1,26 @@
+package com.eto2112.epiccraftingshook.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Crafting menu indicator check on the open inventory
+@Name("epiccraftingshook.MenuDetection")
+@Label("Menu Detection")
+@Category({"EpicCraftingsHook", "Click"})
+@Description("Check for the crafting menu indicator item")
+@StackTrace(false)
+public final class MenuDetectionEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("Slot")
+    public int slot;
+
+    @Label("Valid Menu")
+    public boolean valid;
+}
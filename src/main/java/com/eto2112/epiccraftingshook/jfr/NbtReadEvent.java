@@ -0,0 +1,25 @@
+package com.eto2112.epiccraftingshook.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// MMOItems NBT read of the result item
+@Name("epiccraftingshook.NbtRead")
+@Label("NBT Read")
+@Category({"EpicCraftingsHook", "Click"})
+@Description("Read of the MMOItems id from the result item NBT")
+@StackTrace(false)
+public final class NbtReadEvent extends Event {
+
+    @Label("Player")
+    @Description("Player the item was read for")
+    public String player;
+
+    @Label("Item Id")
+    @Description("Resolved MMOItems id, empty when none was found")
+    public String itemId;
+}
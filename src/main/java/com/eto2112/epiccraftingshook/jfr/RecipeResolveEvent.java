@@ -0,0 +1,32 @@
+package com.eto2112.epiccraftingshook.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Recipe id resolution plus command lookup for the clicked position
+@Name("epiccraftingshook.RecipeResolve")
+@Label("Recipe Resolve")
+@Category({"EpicCraftingsHook", "Click"})
+@Description("Resolution of the recipe and commands for a clicked require-item slot")
+@StackTrace(false)
+public final class RecipeResolveEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("Recipe Id")
+    public String recipeId;
+
+    @Label("Position")
+    public int position;
+
+    @Label("Slot")
+    public int slot;
+
+    @Label("Command Count")
+    public int commandCount;
+}
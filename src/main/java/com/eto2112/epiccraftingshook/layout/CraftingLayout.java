@@ -0,0 +1,118 @@
+package com.eto2112.epiccraftingshook.layout;
+
+import ecp.ajneb97.model.InventoryCraft;
+import ecp.ajneb97.model.ItemInventoryCraft;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// Precomputed slot table for one crafting menu layout: raw top-inventory slot -> require-item position
+public final class CraftingLayout {
+
+    private static final String REQUIRED_ITEM_TYPE = "required_item";
+    private static final String FINAL_CRAFTING_TYPE = "final_crafting";
+
+    private final String name;
+    private final int[] positionBySlot;
+    private final int resultSlot;
+    private final int maxPosition;
+
+    private CraftingLayout(String name, int[] positionBySlot, int resultSlot) {
+        this.name = name;
+        this.positionBySlot = positionBySlot;
+        this.resultSlot = resultSlot;
+
+        int max = 0;
+        for (int position : positionBySlot) {
+            max = Math.max(max, position);
+        }
+        this.maxPosition = max;
+    }
+
+    // EpicCraftingsPlus fills required_item slots in list order, so position N is the N-th listed slot.
+    // Null when the inventory has no required_item entries (not a crafting menu).
+    static CraftingLayout fromInventory(InventoryCraft inventory, int fallbackResultSlot) {
+        List<Integer> requiredSlots = new ArrayList<>();
+        int resultSlot = -1;
+        for (ItemInventoryCraft item : inventory.getItems()) {
+            if (REQUIRED_ITEM_TYPE.equals(item.getType())) {
+                requiredSlots.addAll(item.getSlots());
+            } else if (FINAL_CRAFTING_TYPE.equals(item.getType()) && resultSlot < 0 && !item.getSlots().isEmpty()) {
+                resultSlot = item.getSlots().get(0);
+            }
+        }
+        if (requiredSlots.isEmpty()) return null;
+
+        int size = Math.max(inventory.getSlots(), 1);
+        int[] table = new int[size];
+        Arrays.fill(table, -1);
+        for (int i = 0; i < requiredSlots.size(); i++) {
+            int slot = requiredSlots.get(i);
+            if (slot >= 0 && slot < size && table[slot] == -1) {
+                table[slot] = i + 1;
+            }
+        }
+        return new CraftingLayout(inventory.getName(), table, resultSlot >= 0 ? resultSlot : fallbackResultSlot);
+    }
+
+    // Legacy layout from slot-mapping.positions, used for menus EpicCraftingsPlus doesn't describe
+    static CraftingLayout fromSlotMapping(Map<Integer, Integer> slotMapping, int resultSlot) {
+        int size = 0;
+        for (int slot : slotMapping.values()) {
+            size = Math.max(size, slot + 1);
+        }
+        int[] table = new int[size];
+        Arrays.fill(table, -1);
+        slotMapping.forEach((position, slot) -> {
+            if (slot >= 0) table[slot] = position;
+        });
+        return new CraftingLayout("slot-mapping", table, resultSlot);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Position for a raw top-inventory slot, -1 when it is not a require-item slot
+    public int getPosition(int rawSlot) {
+        return rawSlot >= 0 && rawSlot < positionBySlot.length ? positionBySlot[rawSlot] : -1;
+    }
+
+    public int getResultSlot() {
+        return resultSlot;
+    }
+
+    // Highest require-item position in this layout, 0 when it has none
+    public int getMaxPosition() {
+        return maxPosition;
+    }
+
+    // Number of require-item slots in this layout
+    public int getSlotCount() {
+        int count = 0;
+        for (int position : positionBySlot) {
+            if (position != -1) count++;
+        }
+        return count;
+    }
+
+    // Slot of a position (first match), -1 when the layout has no such position
+    public int getSlot(int position) {
+        for (int slot = 0; slot < positionBySlot.length; slot++) {
+            if (positionBySlot[slot] == position) return slot;
+        }
+        return -1;
+    }
+
+    void markSlots(boolean[] union) {
+        for (int slot = 0; slot < positionBySlot.length && slot < union.length; slot++) {
+            if (positionBySlot[slot] != -1) union[slot] = true;
+        }
+    }
+
+    int size() {
+        return positionBySlot.length;
+    }
+}
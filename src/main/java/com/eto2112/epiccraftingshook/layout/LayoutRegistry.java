@@ -0,0 +1,90 @@
+package com.eto2112.epiccraftingshook.layout;
+
+import ecp.ajneb97.model.InventoryCraft;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Crafting layouts by EpicCraftingsPlus inventory name, plus the slot-mapping fallback.
+// Built on the main thread; immutable afterwards.
+public final class LayoutRegistry {
+
+    private final Object source;
+    private final Map<String, CraftingLayout> byName;
+    private final CraftingLayout fallback;
+
+    // Union of require-item slots over every layout, a cheap pre-filter before the menu lookup
+    private final boolean[] anyRequiredSlot;
+
+    private LayoutRegistry(Object source, Map<String, CraftingLayout> byName, CraftingLayout fallback) {
+        this.source = source;
+        this.byName = byName;
+        this.fallback = fallback;
+
+        int size = fallback.size();
+        for (CraftingLayout layout : byName.values()) {
+            size = Math.max(size, layout.size());
+        }
+        this.anyRequiredSlot = new boolean[size];
+        fallback.markSlots(anyRequiredSlot);
+        for (CraftingLayout layout : byName.values()) {
+            layout.markSlots(anyRequiredSlot);
+        }
+    }
+
+    // inventories may be null when EpicCraftingsPlus layouts are disabled or unavailable
+    public static LayoutRegistry build(List<InventoryCraft> inventories, Map<Integer, Integer> slotMapping,
+                                       LayoutSettings settings) {
+        CraftingLayout fallback = CraftingLayout.fromSlotMapping(slotMapping, settings.getFallbackResultSlot());
+        if (inventories == null || !settings.isUseEpicCraftingsLayouts()) {
+            return new LayoutRegistry(inventories, Collections.emptyMap(), fallback);
+        }
+
+        Map<String, CraftingLayout> byName = new HashMap<>();
+        for (InventoryCraft inventory : inventories) {
+            CraftingLayout layout = CraftingLayout.fromInventory(inventory, settings.getFallbackResultSlot());
+            if (layout != null) {
+                byName.put(inventory.getName(), layout);
+            }
+        }
+        return new LayoutRegistry(inventories, Collections.unmodifiableMap(byName), fallback);
+    }
+
+    // EpicCraftingsPlus replaces its inventory list on reload, so identity tells us when to rebuild
+    public boolean isBuiltFrom(Object inventories) {
+        return source == inventories;
+    }
+
+    public boolean mayBeRequiredSlot(int rawSlot) {
+        return rawSlot >= 0 && rawSlot < anyRequiredSlot.length && anyRequiredSlot[rawSlot];
+    }
+
+    public CraftingLayout forInventory(String inventoryName) {
+        CraftingLayout layout = inventoryName != null ? byName.get(inventoryName) : null;
+        return layout != null ? layout : fallback;
+    }
+
+    public CraftingLayout getFallback() {
+        return fallback;
+    }
+
+    // Slot of the position under slot-mapping, then each EpicCraftingsPlus menu that puts it elsewhere,
+    // e.g. "12 (smithing: 14)"
+    public String describeSlot(int position) {
+        int slot = fallback.getSlot(position);
+        List<String> elsewhere = new ArrayList<>();
+        for (Map.Entry<String, CraftingLayout> layout : new TreeMap<>(byName).entrySet()) {
+            int menuSlot = layout.getValue().getSlot(position);
+            if (menuSlot != slot) elsewhere.add(layout.getKey() + ": " + menuSlot);
+        }
+        return elsewhere.isEmpty() ? String.valueOf(slot) : slot + " (" + String.join(", ", elsewhere) + ")";
+    }
+
+    public int getLayoutCount() {
+        return byName.size();
+    }
+}
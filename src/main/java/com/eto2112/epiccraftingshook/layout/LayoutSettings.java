@@ -0,0 +1,65 @@
+package com.eto2112.epiccraftingshook.layout;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Crafting menu layout settings (layout section of config.yml)
+public final class LayoutSettings {
+
+    public static final LayoutSettings DEFAULTS = new LayoutSettings(false, 34, 10004, 25);
+
+    // Read required_item/final_crafting slots from EpicCraftingsPlus (layout.source: auto); false = slot-mapping
+    // only, the default, so positions never change meaning unless asked for
+    private final boolean useEpicCraftingsLayouts;
+    // Marker item that identifies hooked menus, -1 disables the check
+    private final int indicatorSlot;
+    private final int indicatorModelData;
+    // Result slot for menus without a final_crafting entry
+    private final int fallbackResultSlot;
+
+    private LayoutSettings(boolean useEpicCraftingsLayouts, int indicatorSlot, int indicatorModelData,
+                           int fallbackResultSlot) {
+        this.useEpicCraftingsLayouts = useEpicCraftingsLayouts;
+        this.indicatorSlot = indicatorSlot;
+        this.indicatorModelData = indicatorModelData;
+        this.fallbackResultSlot = fallbackResultSlot;
+    }
+
+    public static LayoutSettings fromConfig(FileConfiguration config) {
+        return new LayoutSettings(
+                "auto".equalsIgnoreCase(config.getString("layout.source", "config")),
+                config.getInt("layout.indicator.slot", DEFAULTS.indicatorSlot),
+                config.getInt("layout.indicator.custom-model-data", DEFAULTS.indicatorModelData),
+                config.getInt("layout.result-slot", DEFAULTS.fallbackResultSlot));
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeBoolean(useEpicCraftingsLayouts);
+        out.writeInt(indicatorSlot);
+        out.writeInt(indicatorModelData);
+        out.writeInt(fallbackResultSlot);
+    }
+
+    public static LayoutSettings read(ByteBuffer in) {
+        return new LayoutSettings(in.get() != 0, in.getInt(), in.getInt(), in.getInt());
+    }
+
+    public boolean isUseEpicCraftingsLayouts() {
+        return useEpicCraftingsLayouts;
+    }
+
+    public int getIndicatorSlot() {
+        return indicatorSlot;
+    }
+
+    public int getIndicatorModelData() {
+        return indicatorModelData;
+    }
+
+    public int getFallbackResultSlot() {
+        return fallbackResultSlot;
+    }
+}
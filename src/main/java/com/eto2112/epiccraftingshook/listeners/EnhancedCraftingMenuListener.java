@@ -1,261 +1,557 @@
 package com.eto2112.epiccraftingshook.listeners;
 
 import com.eto2112.epiccraftingshook.EpicCraftingsHookPlugin;
+import com.eto2112.epiccraftingshook.debug.DebugCategory;
+import com.eto2112.epiccraftingshook.debug.DebugChannel;
+import com.eto2112.epiccraftingshook.dispatch.DispatchSink;
+import com.eto2112.epiccraftingshook.jfr.ClickFilterEvent;
+import com.eto2112.epiccraftingshook.jfr.MenuDetectionEvent;
+import com.eto2112.epiccraftingshook.jfr.RecipeResolveEvent;
+import com.eto2112.epiccraftingshook.layout.CraftingLayout;
+import com.eto2112.epiccraftingshook.layout.LayoutRegistry;
+import com.eto2112.epiccraftingshook.layout.LayoutSettings;
+import com.eto2112.epiccraftingshook.resolver.ResolverChain;
+import com.eto2112.epiccraftingshook.session.PlayerSession;
+import com.eto2112.epiccraftingshook.session.SessionRegistry;
+import com.eto2112.epiccraftingshook.utils.ClickKind;
 import com.eto2112.epiccraftingshook.utils.ConfigManager;
-import io.lumine.mythic.lib.api.item.NBTItem;
-import org.bukkit.ChatColor;
+import com.eto2112.epiccraftingshook.utils.ConfigSnapshot;
+import ecp.ajneb97.model.Crafting;
+import ecp.ajneb97.model.InventoryCraft;
+import ecp.ajneb97.model.internal.PlayerInventory;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.ClickType;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.scheduler.BukkitRunnable;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 public class EnhancedCraftingMenuListener implements Listener {
 
     private final EpicCraftingsHookPlugin plugin;
     private final ConfigManager configManager;
+    private final DebugChannel debug;
 
-    // Cache for performance optimization
-    private final Map<UUID, Long> cooldowns = new ConcurrentHashMap<>();
-    private final Map<String, Boolean> titleCache = new ConcurrentHashMap<>();
-    private final Map<Integer, Boolean> slotCache = new ConcurrentHashMap<>();
+    // Layouts built from EpicCraftingsPlus inventories; null = rebuild on the next click
+    private volatile LayoutRegistry layouts;
 
-    // Pre-computed constants for better performance
-    private static final String CRAFTING_KEYWORD = "chế tạo";
-    private static final int INDICATOR_SLOT = 34;
-    private static final int RESULT_SLOT = 25;
-    private static final int INDICATOR_MODEL_DATA = 10004;
+    // Per-player click state (cooldown, prefetched menu, last click) lives in the player's session
+    private final SessionRegistry sessions;
+
+    // Menus resolved when they opened, so the follow-up click skips the item reads
+    private final LongAdder prefetchHits = new LongAdder();
+    private final LongAdder prefetchMisses = new LongAdder();
+
+    // Identical clicks coalesce into the last accepted one while it is pending or just finished
+    private final LongAdder coalescedClicks = new LongAdder();
+
+    // Clicks accepted on the main thread that are still resolving asynchronously
+    private final AtomicInteger inFlightClicks = new AtomicInteger();
+    private static final long IN_FLIGHT_POLL_NANOS = 100_000L;
 
     public EnhancedCraftingMenuListener(EpicCraftingsHookPlugin plugin) {
         this.plugin = plugin;
         this.configManager = plugin.getConfigManager();
-
-        // Pre-populate slot cache for better performance
-        initializeSlotCache();
-    }
-
-    // Pre-compute slot mappings to avoid repeated calculations
-    private void initializeSlotCache() {
-        for (int i = 0; i < 54; i++) { // Standard inventory size
-            slotCache.put(i, configManager.isRequireItemSlot(i));
-        }
+        this.debug = plugin.getDebugChannel();
+        this.sessions = plugin.getSessions();
     }
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onInventoryClick(InventoryClickEvent event) {
-        // Fastest possible checks first to minimize overhead
-        if (!(event.getWhoClicked() instanceof Player)) return;
-
-        final int clickedSlot = event.getSlot();
-
-        // Use cached slot lookup instead of method call
-        if (!slotCache.getOrDefault(clickedSlot, false)) return;
-
-        final String title = event.getView().getTitle();
-        if (!isCraftingMenuCached(title)) return;
+        // Readiness gate: until startup completes, clicks are left to EpicCraftingsPlus untouched
+        if (!plugin.isPluginEnabled()) return;
+
+        ClickFilterEvent filterEvent = new ClickFilterEvent();
+        filterEvent.begin();
+        ClickTarget target = filterClick(event);
+        filterEvent.end();
+        if (filterEvent.shouldCommit()) {
+            filterEvent.player = event.getWhoClicked().getName();
+            filterEvent.slot = event.getRawSlot();
+            filterEvent.outcome = target.rejection != null ? target.rejection : "accepted";
+            filterEvent.commit();
+        }
+        if (target.rejection != null) return;
 
         final Player player = (Player) event.getWhoClicked();
 
-        // Quick cooldown check before expensive operations
-        if (isOnCooldownFast(player)) return;
-
         // Cancel click immediately for better UX
         event.setCancelled(true);
 
+        // Everything was resolved when the menu opened, dispatch straight from here
+        if (target.prefetched != null) {
+            prefetchHits.increment();
+            processPrefetchedClick(player, target);
+            return;
+        }
+        if (configManager.isPrefetchEnabled()) {
+            prefetchMisses.increment();
+        }
+
+        // On Folia this handler already runs on the player's region thread, which is the only
+        // thread allowed to read the open inventory, so resolve the click inline there
+        if (plugin.getTaskScheduler().isFolia()) {
+            processClickAsync(player, target, event.getView().getTopInventory());
+            return;
+        }
+
         // Process the click asynchronously to avoid blocking the main thread
+        inFlightClicks.incrementAndGet();
         CompletableFuture.runAsync(() -> {
-            processClickAsync(player, clickedSlot, event.getView());
-        }).exceptionally(throwable -> {
-            if (configManager.isDebugEnabled()) {
-                plugin.getLogger().warning("Async click processing failed: " + throwable.getMessage());
+            try {
+                processClickAsync(player, target, event.getView().getTopInventory());
+            } finally {
+                inFlightClicks.decrementAndGet();
             }
+        }).exceptionally(throwable -> {
+            debug.warn(DebugCategory.CLICK, () -> "Async click processing failed: " + throwable.getMessage());
             return null;
         });
     }
 
-    // Cached title checking for better performance
-    private boolean isCraftingMenuCached(String title) {
-        if (title == null) return false;
+    // Cheap main-thread checks, fastest first; returns the failed check or the resolved click target
+    private ClickTarget filterClick(InventoryClickEvent event) {
+        if (!(event.getWhoClicked() instanceof Player)) return ClickTarget.NOT_PLAYER;
+
+        return filterClick((Player) event.getWhoClicked(), event.getClick(), event.getRawSlot(),
+                event.getView().getTopInventory(), null, null);
+    }
+
+    // The filter itself. Real clicks pass null session and menu, looked up only once the cheap checks pass;
+    // /echook bench passes the synthetic player's own
+    private ClickTarget filterClick(Player player, ClickType clickType, int rawSlot, Inventory top,
+                                    PlayerSession session, PlayerInventory open) {
+        // Number keys, double clicks, drops and the like never run actions
+        ClickKind kind = ClickKind.of(clickType);
+        if (kind == null) return ClickTarget.CLICK_TYPE;
+
+        // Raw slots past the top inventory belong to the player's own inventory
+        if (rawSlot < 0 || rawSlot >= top.getSize()) return ClickTarget.BOTTOM_INVENTORY;
 
-        // Check cache first
-        Boolean cached = titleCache.get(title);
-        if (cached != null) return cached;
+        // Union of every layout's require-item slots rejects most clicks before any lookup
+        LayoutRegistry registry = currentLayouts();
+        if (!registry.mayBeRequiredSlot(rawSlot)) return ClickTarget.SLOT;
+
+        // EpicCraftingsPlus tracks which of its menus the player has open, no title matching needed
+        if (open == null) {
+            open = plugin.getEpicCraftings().getInventoryManager().getPlayerInventory(player);
+        }
+        if (open == null || open.getCrafting() == null) return ClickTarget.MENU;
 
-        // Compute and cache result
-        String cleanTitle = ChatColor.stripColor(title).toLowerCase();
-        boolean result = cleanTitle.contains(CRAFTING_KEYWORD);
+        CraftingLayout layout = registry.forInventory(open.getInventoryType());
+        int position = layout.getPosition(rawSlot);
+        if (position < 0) return ClickTarget.SLOT;
+
+        // A repeat of a click that is still dispatching (or just finished) joins it instead of dispatching again
+        if (session == null) {
+            session = sessions.forPlayer(player);
+        }
+        long now = System.currentTimeMillis();
+        InFlightClick previous = session.getLastClick();
+        if (previous != null && previous.coalesces(top, position, kind, now, configManager.getCoalesceWindowMillis())) {
+            coalescedClicks.increment();
+            return ClickTarget.COALESCED;
+        }
 
-        // Only cache positive results to avoid memory bloat
-        if (result) {
-            titleCache.put(title, true);
+        ConfigSnapshot snapshot = configManager.getSnapshot();
+        PrefetchedMenu prefetched = session.getActiveView();
+        if (prefetched != null && !prefetched.matches(top, open.getCrafting(), snapshot, layout)) {
+            prefetched = null;
         }
 
-        return result;
+        // A click kind with nothing to run is left to EpicCraftingsPlus before it can take the cooldown: exactly
+        // for a prefetched menu, otherwise when no recipe has actions for it at this position
+        boolean hasActions = prefetched != null ? !prefetched.getCommands(position, kind).isEmpty()
+                : snapshot.hasActions(position, kind);
+        if (!hasActions) return ClickTarget.NO_ACTIONS;
+
+        // Check and start the cooldown in one step, so a second click can't pass before the first one sets it
+        long cooldownUntil = acquireCooldown(session, now);
+        if (cooldownUntil < 0) return ClickTarget.COOLDOWN;
+
+        InFlightClick click = new InFlightClick(top, position, kind, now);
+        session.setLastClick(click);
+        return new ClickTarget(layout, rawSlot, position, kind, prefetched, session, cooldownUntil, click);
     }
 
-    // Optimized cooldown check without synchronization overhead
-    private boolean isOnCooldownFast(Player player) {
-        if (!configManager.isCooldownEnabled()) return false;
+    // Layouts the click filter uses right now, for admin output; call where ECP state is safe to read
+    public LayoutRegistry getLayouts() {
+        return currentLayouts();
+    }
 
-        Long cooldownEnd = cooldowns.get(player.getUniqueId());
-        if (cooldownEnd == null) return false;
+    // Rebuilt when config is reapplied or EpicCraftingsPlus swaps its inventory list on reload
+    private LayoutRegistry currentLayouts() {
+        List<InventoryCraft> inventories = plugin.getEpicCraftings().getInventoryManager().getInventories();
+        LayoutRegistry current = layouts;
+        if (current == null || !current.isBuiltFrom(inventories)) {
+            ConfigSnapshot snapshot = configManager.getSnapshot();
+            current = LayoutRegistry.build(inventories, snapshot.getSlotMapping(),
+                    snapshot.getSettings().getLayout());
+            layouts = current;
+
+            LayoutRegistry built = current;
+            debug.log(DebugCategory.CACHE, () -> "Built " + built.getLayoutCount()
+                    + " crafting layouts from EpicCraftingsPlus inventories");
+        }
+        return current;
+    }
 
-        long currentTime = System.currentTimeMillis();
-        if (currentTime >= cooldownEnd) {
-            cooldowns.remove(player.getUniqueId());
-            return false;
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryOpen(InventoryOpenEvent event) {
+        if (!plugin.isPluginEnabled()) return;
+        if (!(event.getPlayer() instanceof Player)) return;
+
+        Player player = (Player) event.getPlayer();
+        Inventory top = event.getInventory();
+
+        // EpicCraftingsPlus registers the open menu only after Player#openInventory returns
+        plugin.getTaskScheduler().runForEntity(player, () -> trackMenu(player, top));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInventoryClose(InventoryCloseEvent event) {
+        PlayerSession session = sessions.get(event.getPlayer().getUniqueId());
+        if (session == null) return;
+
+        PrefetchedMenu prefetched = session.getActiveView();
+        if (prefetched != null && prefetched.isFor(event.getInventory())) {
+            session.clearActiveView(prefetched);
+        }
+    }
+
+    // Runs on the player's thread one tick after the open: records the crafting and prefetches its clicks
+    private void trackMenu(Player player, Inventory top) {
+        if (!player.isOnline() || player.getOpenInventory().getTopInventory() != top) return;
+
+        PlayerSession session = sessions.get(player.getUniqueId());
+        if (session == null) return;
+
+        PlayerInventory open = plugin.getEpicCraftings().getInventoryManager().getPlayerInventory(player);
+        if (open == null || open.getCrafting() == null) return;
+
+        Crafting crafting = open.getCrafting();
+        session.recordView(crafting.getName());
+        if (!configManager.isPrefetchEnabled()) return;
+
+        CraftingLayout layout = currentLayouts().forInventory(open.getInventoryType());
+        ConfigSnapshot snapshot = configManager.getSnapshot();
+
+        // Folia only allows inventory reads on the owning region thread, like the click path
+        if (!configManager.isPrefetchAsync() || plugin.getTaskScheduler().isFolia()) {
+            session.setActiveView(buildPrefetch(player, top, crafting, snapshot, layout));
+            return;
+        }
+
+        CompletableFuture.runAsync(() -> session.setActiveView(buildPrefetch(player, top, crafting, snapshot, layout)))
+                .exceptionally(throwable -> {
+                    debug.warn(DebugCategory.RESOLVE, () -> "Menu prefetch failed: " + throwable.getMessage());
+                    return null;
+                });
+    }
+
+    // Indicator, recipe id and per-position actions for one menu, all against a single snapshot
+    private PrefetchedMenu buildPrefetch(Player player, Inventory top, Crafting crafting, ConfigSnapshot snapshot,
+                                         CraftingLayout layout) {
+        boolean validIndicator = hasValidIndicatorAsync(top, snapshot.getSettings().getLayout());
+        String recipeId = validIndicator
+                ? getRecipeIdAsync(player, top, layout.getResultSlot(), snapshot.getResolverChain()) : null;
+        if (recipeId == null) {
+            recipeId = "default_crafting";
+        }
+
+        String resolvedRecipe = recipeId;
+        debug.log(DebugCategory.RESOLVE, () -> "Prefetched " + layout.getName() + " menu for recipe "
+                + resolvedRecipe + " (" + crafting.getName() + ")");
+
+        return new PrefetchedMenu(top, crafting, snapshot, layout, validIndicator, recipeId,
+                snapshot.getActionTable(recipeId));
+    }
+
+    // Wait (bounded) for accepted clicks to hand their commands to the executor, used on shutdown
+    public boolean awaitInFlightClicks(long deadlineNanos) {
+        while (inFlightClicks.get() > 0) {
+            if (System.nanoTime() >= deadlineNanos) {
+                plugin.getLogger().warning(inFlightClicks.get() + " click(s) still resolving at shutdown deadline");
+                return false;
+            }
+            LockSupport.parkNanos(IN_FLIGHT_POLL_NANOS);
         }
         return true;
     }
 
+    // Expiry of the cooldown just started, 0 when cooldowns are off, -1 while one is still running
+    private long acquireCooldown(PlayerSession session, long now) {
+        if (!configManager.isCooldownEnabled()) return 0L;
+
+        return session.acquireClickCooldown(now, configManager.getCooldownDuration() * 1000L);
+    }
+
+    // Accepted click that dispatches nothing: hand the cooldown back and end the in-flight entry
+    private void abandonClick(Player player, ClickTarget target) {
+        if (target.cooldownUntil > 0) {
+            target.session.releaseClickCooldown(target.cooldownUntil);
+        }
+        target.inFlight.complete();
+    }
+
+    // Click on a prefetched menu: no item reads, only the table lookups done at open time
+    private void processPrefetchedClick(Player player, ClickTarget target) {
+        List<String> commands = prefetchedCommands(player, target);
+        if (commands.isEmpty()) {
+            abandonClick(player, target);
+            return;
+        }
+
+        dispatchClick(player, target, target.prefetched.getRecipeId(), commands, " (prefetched)");
+    }
+
+    // The click's actions from the open-time tables, empty when the menu's indicator was invalid
+    private List<String> prefetchedCommands(Player player, ClickTarget target) {
+        PrefetchedMenu prefetched = target.prefetched;
+        if (!prefetched.hasValidIndicator()) {
+            debug.log(DebugCategory.CLICK, () -> "Player " + player.getName()
+                    + " clicked invalid crafting menu - ignoring");
+            return Collections.emptyList();
+        }
+        return prefetched.getCommands(target.position, target.kind);
+    }
+
     // Process click operations asynchronously
-    private void processClickAsync(Player player, int clickedSlot, org.bukkit.inventory.InventoryView view) {
+    private void processClickAsync(Player player, ClickTarget target, Inventory top) {
+        final int clickedSlot = target.rawSlot;
+        final int position = target.position;
         try {
+            ConfigSnapshot snapshot = configManager.getSnapshot();
+
             // Validate menu structure asynchronously
-            if (!hasValidIndicatorAsync(view)) {
-                if (configManager.isDebugEnabled()) {
-                    plugin.getLogger().info("Player " + player.getName() + " clicked invalid crafting menu - ignoring");
-                }
+            MenuDetectionEvent detectionEvent = new MenuDetectionEvent();
+            detectionEvent.begin();
+            boolean validMenu = hasValidIndicatorAsync(top, snapshot.getSettings().getLayout());
+            detectionEvent.end();
+            if (detectionEvent.shouldCommit()) {
+                detectionEvent.player = player.getName();
+                detectionEvent.slot = clickedSlot;
+                detectionEvent.valid = validMenu;
+                detectionEvent.commit();
+            }
+            if (!validMenu) {
+                debug.log(DebugCategory.CLICK, () -> "Player " + player.getName()
+                        + " clicked invalid crafting menu - ignoring");
+                abandonClick(player, target);
                 return;
             }
 
+            RecipeResolveEvent resolveEvent = new RecipeResolveEvent();
+            resolveEvent.begin();
+
             // Get recipe ID asynchronously
-            String recipeId = getRecipeIdAsync(view);
+            String recipeId = getRecipeIdAsync(player, top, target.layout.getResultSlot(),
+                    snapshot.getResolverChain());
             if (recipeId == null) {
                 recipeId = "default_crafting";
             }
 
-            // Get commands (this is already cached in ConfigManager)
-            List<String> commands = configManager.getCommandsForSlot(recipeId, clickedSlot);
-            if (commands.isEmpty()) return;
+            // Position comes from the menu's own layout, commands are a direct [position][click] lookup
+            List<String> commands = configManager.getCommandsForItem(recipeId, position, target.kind);
+
+            resolveEvent.end();
+            if (resolveEvent.shouldCommit()) {
+                resolveEvent.player = player.getName();
+                resolveEvent.recipeId = recipeId;
+                resolveEvent.position = position;
+                resolveEvent.slot = clickedSlot;
+                resolveEvent.commandCount = commands.size();
+                resolveEvent.commit();
+            }
+            if (commands.isEmpty()) {
+                abandonClick(player, target);
+                return;
+            }
+
+            dispatchClick(player, target, recipeId, commands, "");
+
+        } catch (Exception e) {
+            debug.warn(DebugCategory.CLICK, () -> "Error in async click processing: " + e.getMessage());
+            abandonClick(player, target);
+        }
+    }
 
-            // Set cooldown
-            setCooldownFast(player);
+    // Shared tail of both click paths: bookkeeping and command dispatch (the cooldown started in the filter)
+    private void dispatchClick(Player player, ClickTarget target, String recipeId, List<String> commands,
+                               String source) {
+        plugin.getAuditLog().recordClick(player, recipeId, target.position, target.rawSlot);
+        plugin.getClickHeatmap().record(recipeId, target.position);
 
-            // Execute commands on main thread (required for Bukkit API)
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    executeCommandsSync(player, commands);
-                }
-            }.runTask(plugin);
+        // Placeholders are resolved here, commands then run on the main thread (required for Bukkit API)
+        plugin.getCommandExecutor().executeCommands(player, target.session, recipeId, target.position, commands,
+                null, target.inFlight::complete);
 
-            if (configManager.isDebugEnabled()) {
-                plugin.getLogger().info("Player " + player.getName() + " clicked slot " + clickedSlot +
-                        " in recipe " + recipeId + " - executing " + commands.size() + " commands");
-            }
+        debug.log(DebugCategory.CLICK, () -> "Player " + player.getName() + " clicked slot " + target.rawSlot
+                + " (" + target.layout.getName() + " position " + target.position + ") in recipe " + recipeId
+                + source + " - executing " + commands.size() + " commands");
+    }
 
-        } catch (Exception e) {
-            if (configManager.isDebugEnabled()) {
-                plugin.getLogger().warning("Error in async click processing: " + e.getMessage());
-            }
+    // /echook bench: one synthetic click through the same filter, prefetched lookup and executor hand-off as a
+    // real click on a prefetched menu, with the caller's session, menu and top inventory standing in for the
+    // player's and nothing recorded in the audit log or click stats. Stage times go to stageNanos[0..2]; returns
+    // the filter's rejection, or null when accepted, in which case onComplete runs once the click has finished.
+    public String replayClick(Player carrier, PlayerSession session, Inventory top, PlayerInventory menu,
+                              String recipeId, int position, DispatchSink sink, Runnable onComplete,
+                              long[] stageNanos) {
+        // Outside the timed stages: the slot to click, and the prefetch the menu would have made when it opened
+        CraftingLayout openLayout = currentLayouts().forInventory(menu.getInventoryType());
+        int rawSlot = openLayout.getSlot(position);
+        ConfigSnapshot snapshot = configManager.getSnapshot();
+        PrefetchedMenu view = session.getActiveView();
+        if (view == null || !view.matches(top, menu.getCrafting(), snapshot, openLayout)) {
+            session.setActiveView(new PrefetchedMenu(top, menu.getCrafting(), snapshot, openLayout, true, recipeId,
+                    snapshot.getActionTable(recipeId)));
         }
+
+        long start = System.nanoTime();
+        ClickTarget target = filterClick(carrier, ClickType.LEFT, rawSlot, top, session, menu);
+        long filtered = System.nanoTime();
+        stageNanos[0] = filtered - start;
+        stageNanos[1] = -1L;
+        stageNanos[2] = -1L;
+        if (target.rejection != null) return target.rejection;
+
+        // A reload between the setup and the filter leaves no matching prefetch; the click then ends here
+        List<String> commands = target.prefetched != null
+                ? prefetchedCommands(carrier, target) : Collections.emptyList();
+        long resolved = System.nanoTime();
+        stageNanos[1] = resolved - filtered;
+
+        if (commands.isEmpty()) {
+            abandonClick(carrier, target);
+            onComplete.run();
+            return null;
+        }
+
+        plugin.getCommandExecutor().executeCommands(carrier, session, recipeId, target.position, commands, sink,
+                () -> {
+                    target.inFlight.complete();
+                    onComplete.run();
+                });
+        stageNanos[2] = System.nanoTime() - resolved;
+        return null;
     }
 
-    // Async version of indicator validation
-    private boolean hasValidIndicatorAsync(org.bukkit.inventory.InventoryView view) {
+    // Async version of indicator validation; a negative indicator slot disables the check
+    private boolean hasValidIndicatorAsync(Inventory top, LayoutSettings settings) {
+        if (settings.getIndicatorSlot() < 0) return true;
+
         try {
-            ItemStack item = view.getTopInventory().getItem(INDICATOR_SLOT);
+            ItemStack item = top.getItem(settings.getIndicatorSlot());
             if (item == null) return false;
 
             ItemMeta meta = item.getItemMeta();
             if (meta == null) return false;
 
-            return meta.hasCustomModelData() && meta.getCustomModelData() == INDICATOR_MODEL_DATA;
+            return meta.hasCustomModelData() && meta.getCustomModelData() == settings.getIndicatorModelData();
         } catch (Exception e) {
-            if (configManager.isDebugEnabled()) {
-                plugin.getLogger().warning("Error checking recipe indicator: " + e.getMessage());
-            }
+            debug.warn(DebugCategory.RESOLVE, () -> "Error checking recipe indicator: " + e.getMessage());
             return false;
         }
     }
 
     // Async version of recipe ID extraction
-    private String getRecipeIdAsync(org.bukkit.inventory.InventoryView view) {
+    private String getRecipeIdAsync(Player player, Inventory top, int resultSlot, ResolverChain resolverChain) {
         try {
-            ItemStack resultItem = view.getTopInventory().getItem(RESULT_SLOT);
-            if (resultItem == null) return null;
-
-            // Use NBT reading with better error handling
-            NBTItem nbtItem = NBTItem.get(resultItem);
-            if (nbtItem != null && nbtItem.hasType()) {
-                String itemId = nbtItem.getString("MMOITEMS_ITEM_ID");
-                if (itemId != null && !itemId.trim().isEmpty()) {
-                    return itemId.trim().toUpperCase();
-                }
-            }
+            ItemStack resultItem = top.getItem(resultSlot);
+
+            // Cheap table lookups first, the MMOItems NBT read only when they all miss
+            return resolverChain.resolve(resultItem, player.getName());
 
         } catch (Exception e) {
-            if (configManager.isDebugEnabled()) {
-                plugin.getLogger().warning("Error getting recipe ID: " + e.getMessage());
-            }
+            debug.warn(DebugCategory.RESOLVE, () -> "Error getting recipe ID: " + e.getMessage());
         }
         return null;
     }
 
-    // Fast cooldown setting without synchronization overhead
-    private void setCooldownFast(Player player) {
-        if (configManager.isCooldownEnabled()) {
-            cooldowns.put(player.getUniqueId(),
-                    System.currentTimeMillis() + (configManager.getCooldownDuration() * 1000L));
-        }
+    // Clear caches when needed (called by ConfigManager on reload)
+    public void clearCaches() {
+        layouts = null; // Rebuilt against the new config on the next click
+        sessions.forEach(session -> session.setActiveView(null)); // Built against the old snapshot
+
+        debug.log(DebugCategory.CACHE, () -> "Listener caches cleared");
     }
 
-    // Optimized command execution
-    private void executeCommandsSync(Player player, List<String> commands) {
-        // Execute all commands without delay for better performance
-        // The original delay was causing unnecessary complexity
-        for (String command : commands) {
-            try {
-                plugin.getCommandExecutor().executeCommand(player, command);
-            } catch (Exception e) {
-                if (configManager.isDebugEnabled()) {
-                    plugin.getLogger().warning("Error executing command: " + command + " - " + e.getMessage());
-                }
-            }
-        }
+    public long getPrefetchHits() {
+        return prefetchHits.sum();
     }
 
-    // Cleanup method with batch processing for better performance
-    public void cleanupCooldowns() {
-        if (cooldowns.isEmpty()) return;
+    public long getPrefetchMisses() {
+        return prefetchMisses.sum();
+    }
 
-        long currentTime = System.currentTimeMillis();
+    public long getCoalescedClicks() {
+        return coalescedClicks.sum();
+    }
 
-        // Use parallel processing for large cooldown maps
-        if (cooldowns.size() > 100) {
-            CompletableFuture.runAsync(() -> {
-                cooldowns.entrySet().removeIf(entry -> entry.getValue() < currentTime);
-            });
-        } else {
-            cooldowns.entrySet().removeIf(entry -> entry.getValue() < currentTime);
-        }
+    // Method to get current cache sizes for debugging
+    public void logCacheStats() {
+        LayoutRegistry current = layouts;
+        debug.log(DebugCategory.CACHE, () -> "Cache stats - Layouts: " + (current != null ? current.getLayoutCount() : 0)
+                + ", Sessions: " + sessions.size());
     }
 
-    // Clear caches when needed (called by ConfigManager on reload)
-    public void clearCaches() {
-        titleCache.clear();
-        initializeSlotCache(); // Rebuild slot cache with new config
+    // Outcome of the main-thread filter: the matched layout slot, or a preallocated rejection
+    private static final class ClickTarget {
+        static final ClickTarget NOT_PLAYER = new ClickTarget("not-player");
+        static final ClickTarget CLICK_TYPE = new ClickTarget("click-type");
+        static final ClickTarget BOTTOM_INVENTORY = new ClickTarget("bottom-inventory");
+        static final ClickTarget SLOT = new ClickTarget("slot");
+        static final ClickTarget MENU = new ClickTarget("menu");
+        static final ClickTarget NO_ACTIONS = new ClickTarget("no-actions");
+        static final ClickTarget COOLDOWN = new ClickTarget("cooldown");
+        static final ClickTarget COALESCED = new ClickTarget("coalesced");
+
+        final String rejection;
+        final CraftingLayout layout;
+        final int rawSlot;
+        final int position;
+        final ClickKind kind;
+        // Matching open-time resolution, null when the click has to resolve itself
+        final PrefetchedMenu prefetched;
+        // Session the click was accepted in, the cooldown expiry it started (0 = none) and its coalescing entry
+        final PlayerSession session;
+        final long cooldownUntil;
+        final InFlightClick inFlight;
+
+        private ClickTarget(String rejection) {
+            this(rejection, null, -1, -1, null, null, null, 0L, null);
+        }
 
-        if (configManager.isDebugEnabled()) {
-            plugin.getLogger().info("Listener caches cleared and rebuilt");
+        ClickTarget(CraftingLayout layout, int rawSlot, int position, ClickKind kind, PrefetchedMenu prefetched,
+                    PlayerSession session, long cooldownUntil, InFlightClick inFlight) {
+            this(null, layout, rawSlot, position, kind, prefetched, session, cooldownUntil, inFlight);
         }
-    }
 
-    // Method to get current cache sizes for debugging
-    public void logCacheStats() {
-        if (configManager.isDebugEnabled()) {
-            plugin.getLogger().info("Cache stats - Titles: " + titleCache.size() +
-                    ", Cooldowns: " + cooldowns.size());
+        private ClickTarget(String rejection, CraftingLayout layout, int rawSlot, int position, ClickKind kind,
+                            PrefetchedMenu prefetched, PlayerSession session, long cooldownUntil,
+                            InFlightClick inFlight) {
+            this.rejection = rejection;
+            this.layout = layout;
+            this.rawSlot = rawSlot;
+            this.position = position;
+            this.kind = kind;
+            this.prefetched = prefetched;
+            this.session = session;
+            this.cooldownUntil = cooldownUntil;
+            this.inFlight = inFlight;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.eto2112.epiccraftingshook.listeners;
+
+import com.eto2112.epiccraftingshook.utils.ClickKind;
+import org.bukkit.inventory.Inventory;
+
+// One accepted click from acceptance until its dispatch has run, plus the coalescing window after it
+public final class InFlightClick {
+
+    // A dispatch that never reports completion stops coalescing after this long
+    private static final long MAX_PENDING_MILLIS = 10_000L;
+
+    private final Inventory topInventory;
+    private final int position;
+    private final ClickKind kind;
+    private final long acceptedAt;
+    // 0 while pending
+    private volatile long completedAt;
+
+    InFlightClick(Inventory topInventory, int position, ClickKind kind, long acceptedAt) {
+        this.topInventory = topInventory;
+        this.position = position;
+        this.kind = kind;
+        this.acceptedAt = acceptedAt;
+    }
+
+    // Same menu, position and click kind, and still pending or within the window after completing
+    boolean coalesces(Inventory topInventory, int position, ClickKind kind, long now, long windowMillis) {
+        if (this.topInventory != topInventory || this.position != position || this.kind != kind) return false;
+
+        long completed = completedAt;
+        return completed == 0L ? now - acceptedAt < MAX_PENDING_MILLIS : now - completed < windowMillis;
+    }
+
+    void complete() {
+        if (completedAt == 0L) {
+            completedAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.eto2112.epiccraftingshook.listeners;
+
+import com.eto2112.epiccraftingshook.layout.CraftingLayout;
+import com.eto2112.epiccraftingshook.utils.ActionTable;
+import com.eto2112.epiccraftingshook.utils.ClickKind;
+import com.eto2112.epiccraftingshook.utils.ConfigSnapshot;
+import ecp.ajneb97.model.Crafting;
+import org.bukkit.inventory.Inventory;
+
+import java.util.List;
+
+// Click resolution done ahead of time for one open crafting menu: indicator, recipe id and
+// the actions of every require-item position. Only valid for the exact menu it was built from.
+public final class PrefetchedMenu {
+
+    private final Inventory topInventory;
+    private final Crafting crafting;
+    private final ConfigSnapshot snapshot;
+    private final CraftingLayout layout;
+    private final boolean validIndicator;
+    private final String recipeId;
+
+    // The recipe's [position][click kind] table from the same snapshot
+    private final ActionTable actions;
+
+    PrefetchedMenu(Inventory topInventory, Crafting crafting, ConfigSnapshot snapshot, CraftingLayout layout,
+                   boolean validIndicator, String recipeId, ActionTable actions) {
+        this.topInventory = topInventory;
+        this.crafting = crafting;
+        this.snapshot = snapshot;
+        this.layout = layout;
+        this.validIndicator = validIndicator;
+        this.recipeId = recipeId;
+        this.actions = actions;
+    }
+
+    // Same inventory object, same EpicCraftingsPlus crafting, same config and layout
+    boolean matches(Inventory topInventory, Crafting crafting, ConfigSnapshot snapshot, CraftingLayout layout) {
+        return this.topInventory == topInventory && this.crafting == crafting
+                && this.snapshot == snapshot && this.layout == layout;
+    }
+
+    boolean isFor(Inventory inventory) {
+        return topInventory == inventory;
+    }
+
+    boolean hasValidIndicator() {
+        return validIndicator;
+    }
+
+    public String getRecipeId() {
+        return recipeId;
+    }
+
+    public String getCraftingName() {
+        return crafting.getName();
+    }
+
+    List<String> getCommands(int position, ClickKind kind) {
+        return actions.get(position, kind);
+    }
+}
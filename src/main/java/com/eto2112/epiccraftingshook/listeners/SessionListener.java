@@ -0,0 +1,28 @@
+package com.eto2112.epiccraftingshook.listeners;
+
+import com.eto2112.epiccraftingshook.session.SessionRegistry;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+// Opens a player's session before any other join handler and closes it after every quit handler has run
+public class SessionListener implements Listener {
+
+    private final SessionRegistry sessions;
+
+    public SessionListener(SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        sessions.open(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        sessions.close(event.getPlayer().getUniqueId());
+    }
+}
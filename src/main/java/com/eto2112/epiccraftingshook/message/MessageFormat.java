@@ -0,0 +1,18 @@
+package com.eto2112.epiccraftingshook.message;
+
+import java.util.Locale;
+
+// Markup of [message] text (commands.message-format in config.yml)
+public enum MessageFormat {
+    // & color codes, including &#rrggbb hex colors
+    LEGACY,
+    // MiniMessage tags, e.g. <gradient>, <hover> and <click>
+    MINIMESSAGE;
+
+    public static MessageFormat fromConfig(String value) {
+        if (value != null && "minimessage".equals(value.trim().toLowerCase(Locale.ROOT))) {
+            return MINIMESSAGE;
+        }
+        return LEGACY;
+    }
+}
@@ -0,0 +1,75 @@
+package com.eto2112.epiccraftingshook.message;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextReplacementConfig;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// A [message] action's text compiled once per config load into an Adventure component. Placeholders stay in
+// the component as %name% text and are swapped in per send, keeping the style around them; a message without
+// placeholders is sent as the same component every time.
+public final class MessageTemplate {
+
+    public static final String PREFIX = "[message]";
+
+    private static final Pattern PLACEHOLDER = Pattern.compile(
+            "%(player|player_name|player_uuid|player_displayname|world|x|y|z)%");
+    private static final String DISPLAY_NAME = "player_displayname";
+
+    private static final LegacyComponentSerializer LEGACY = LegacyComponentSerializer.builder()
+            .character('&')
+            .hexColors()
+            .build();
+
+    private final Component component;
+    private final boolean hasPlaceholders;
+    // "[message]" with no text sends nothing, as before
+    private final boolean empty;
+
+    private MessageTemplate(Component component, boolean hasPlaceholders, boolean empty) {
+        this.component = component;
+        this.hasPlaceholders = hasPlaceholders;
+        this.empty = empty;
+    }
+
+    // Takes the whole action, "[message] ..."; markup MiniMessage can't parse is sent as plain text
+    public static MessageTemplate compile(String action, MessageFormat format) {
+        String text = action.startsWith(PREFIX) ? action.substring(PREFIX.length()).trim() : action;
+        Component component;
+        try {
+            component = format == MessageFormat.MINIMESSAGE ? MiniMessage.miniMessage().deserialize(text)
+                    : LEGACY.deserialize(text);
+        } catch (RuntimeException e) {
+            component = Component.text(text);
+        }
+        return new MessageTemplate(component, PLACEHOLDER.matcher(text).find(), text.isEmpty());
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public boolean hasPlaceholders() {
+        return hasPlaceholders;
+    }
+
+    // The compiled component, ready to send when there are no placeholders
+    public Component getComponent() {
+        return component;
+    }
+
+    // Placeholders in text content only; the display name keeps its own formatting
+    public Component render(Player player, Map<String, String> values) {
+        if (!hasPlaceholders) return component;
+
+        return component.replaceText(TextReplacementConfig.builder()
+                .match(PLACEHOLDER)
+                .replacement((match, builder) -> DISPLAY_NAME.equals(match.group(1)) ? player.displayName()
+                        : builder.content(values.get(match.group(1))))
+                .build());
+    }
+}
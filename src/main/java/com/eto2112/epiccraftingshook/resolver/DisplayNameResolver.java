@@ -0,0 +1,32 @@
+package com.eto2112.epiccraftingshook.resolver;
+
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.Map;
+
+// Display name table; needs colour stripping, so it runs after the keyed lookups
+final class DisplayNameResolver implements RecipeIdResolver {
+
+    private final Map<String, String> displayNames;
+
+    DisplayNameResolver(Map<String, String> displayNames) {
+        this.displayNames = displayNames;
+    }
+
+    @Override
+    public String getName() {
+        return "display-name";
+    }
+
+    @Override
+    public boolean needsMeta() {
+        return true;
+    }
+
+    @Override
+    public String resolve(ItemStack item, ItemMeta meta, String player) {
+        if (meta == null || !meta.hasDisplayName()) return null;
+        return displayNames.get(ResolverSettings.normalizeDisplayName(meta.getDisplayName()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.eto2112.epiccraftingshook.resolver;
+
+import com.eto2112.epiccraftingshook.jfr.NbtReadEvent;
+import io.lumine.mythic.lib.api.item.NBTItem;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+// MMOItems id from NBT via MythicLib, the most expensive read, so it runs last
+final class MmoItemsResolver implements RecipeIdResolver {
+
+    private static final String MMOITEMS_ID_TAG = "MMOITEMS_ITEM_ID";
+
+    @Override
+    public String getName() {
+        return "mmoitems";
+    }
+
+    @Override
+    public boolean needsMeta() {
+        return false;
+    }
+
+    @Override
+    public String resolve(ItemStack item, ItemMeta meta, String player) {
+        NbtReadEvent nbtEvent = new NbtReadEvent();
+        nbtEvent.begin();
+        String recipeId = readItemId(item);
+        nbtEvent.end();
+        if (nbtEvent.shouldCommit()) {
+            nbtEvent.player = player;
+            nbtEvent.itemId = recipeId != null ? recipeId : "";
+            nbtEvent.commit();
+        }
+        return recipeId;
+    }
+
+    private static String readItemId(ItemStack item) {
+        NBTItem nbtItem = NBTItem.get(item);
+        if (nbtItem != null && nbtItem.hasType()) {
+            String itemId = nbtItem.getString(MMOITEMS_ID_TAG);
+            if (itemId != null && !itemId.trim().isEmpty()) {
+                return itemId.trim().toUpperCase();
+            }
+        }
+        return null;
+    }
+}
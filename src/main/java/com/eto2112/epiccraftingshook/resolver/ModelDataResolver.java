@@ -0,0 +1,48 @@
+package com.eto2112.epiccraftingshook.resolver;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+// Material + custom model data table, the cheapest lookup (two primitive reads and two map hits)
+final class ModelDataResolver implements RecipeIdResolver {
+
+    private final Map<Material, Map<Integer, String>> table = new EnumMap<>(Material.class);
+
+    ModelDataResolver(Map<String, String> modelData) {
+        modelData.forEach((key, recipeId) -> {
+            int separator = key.lastIndexOf(':');
+            Material material = Material.matchMaterial(key.substring(0, separator));
+            if (material != null) {
+                table.computeIfAbsent(material, ignored -> new HashMap<>())
+                        .put(Integer.parseInt(key.substring(separator + 1)), recipeId);
+            }
+        });
+    }
+
+    boolean isEmpty() {
+        return table.isEmpty();
+    }
+
+    @Override
+    public String getName() {
+        return "model-data";
+    }
+
+    @Override
+    public boolean needsMeta() {
+        return true;
+    }
+
+    @Override
+    public String resolve(ItemStack item, ItemMeta meta, String player) {
+        if (meta == null || !meta.hasCustomModelData()) return null;
+
+        Map<Integer, String> byModelData = table.get(item.getType());
+        return byModelData != null ? byModelData.get(meta.getCustomModelData()) : null;
+    }
+}
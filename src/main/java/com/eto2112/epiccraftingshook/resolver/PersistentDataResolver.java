@@ -0,0 +1,59 @@
+package com.eto2112.epiccraftingshook.resolver;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// PersistentDataContainer string ids, as written by Oraxen/Nexo-style custom item plugins
+final class PersistentDataResolver implements RecipeIdResolver {
+
+    private final NamespacedKey[] keys;
+
+    PersistentDataResolver(List<String> keyStrings) {
+        List<NamespacedKey> parsed = new ArrayList<>(keyStrings.size());
+        for (String keyString : keyStrings) {
+            NamespacedKey key = NamespacedKey.fromString(keyString);
+            if (key != null) parsed.add(key);
+        }
+        this.keys = parsed.toArray(new NamespacedKey[0]);
+    }
+
+    boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    @Override
+    public String getName() {
+        return "persistent-data";
+    }
+
+    @Override
+    public boolean needsMeta() {
+        return true;
+    }
+
+    @Override
+    public String resolve(ItemStack item, ItemMeta meta, String player) {
+        if (meta == null) return null;
+
+        PersistentDataContainer container = meta.getPersistentDataContainer();
+        if (container.isEmpty()) return null;
+
+        for (NamespacedKey key : keys) {
+            // get() throws for a value stored under another type; such a key is simply not an id here
+            if (!container.has(key, PersistentDataType.STRING)) continue;
+
+            String value = container.get(key, PersistentDataType.STRING);
+            if (value != null && !value.trim().isEmpty()) {
+                return value.trim().toUpperCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+}
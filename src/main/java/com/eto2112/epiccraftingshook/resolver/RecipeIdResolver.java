@@ -0,0 +1,18 @@
+package com.eto2112.epiccraftingshook.resolver;
+
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+// One strategy for mapping the crafting menu's result item to a configured recipe id
+public interface RecipeIdResolver {
+
+    // Short name shown in hit-rate stats
+    String getName();
+
+    // True if resolve() reads the item meta, so the chain fetches it once up front
+    boolean needsMeta();
+
+    // Recipe id for the item, or null to let the next resolver try; meta may be null. player names who the
+    // item is read for, only to label diagnostics
+    String resolve(ItemStack item, ItemMeta meta, String player);
+}
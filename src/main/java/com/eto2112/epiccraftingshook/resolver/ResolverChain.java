@@ -0,0 +1,115 @@
+package com.eto2112.epiccraftingshook.resolver;
+
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// Ordered resolvers, cheapest first; the first non-null id wins. Tracks per-resolver hit rates.
+public final class ResolverChain {
+
+    private final RecipeIdResolver[] resolvers;
+    private final LongAdder[] attempts;
+    private final LongAdder[] hits;
+    private final boolean needsMeta;
+
+    private ResolverChain(List<RecipeIdResolver> ordered) {
+        this.resolvers = ordered.toArray(new RecipeIdResolver[0]);
+        this.attempts = new LongAdder[resolvers.length];
+        this.hits = new LongAdder[resolvers.length];
+
+        boolean anyNeedsMeta = false;
+        for (int i = 0; i < resolvers.length; i++) {
+            attempts[i] = new LongAdder();
+            hits[i] = new LongAdder();
+            anyNeedsMeta |= resolvers[i].needsMeta();
+        }
+        this.needsMeta = anyNeedsMeta;
+    }
+
+    // Cost order: model data table, PDC keys, display names, MMOItems NBT. Empty tables are left out.
+    public static ResolverChain build(ResolverSettings settings) {
+        List<RecipeIdResolver> ordered = new ArrayList<>(4);
+
+        ModelDataResolver modelData = new ModelDataResolver(settings.getModelData());
+        if (!modelData.isEmpty()) ordered.add(modelData);
+
+        PersistentDataResolver persistentData = new PersistentDataResolver(settings.getPersistentDataKeys());
+        if (!persistentData.isEmpty()) ordered.add(persistentData);
+
+        if (!settings.getDisplayNames().isEmpty()) ordered.add(new DisplayNameResolver(settings.getDisplayNames()));
+
+        if (settings.isMmoItemsEnabled()) ordered.add(new MmoItemsResolver());
+
+        return new ResolverChain(ordered);
+    }
+
+    // Recipe id for the player's menu item, or null when no resolver recognises it
+    public String resolve(ItemStack item, String player) {
+        return resolve(item, player, true);
+    }
+
+    // Same lookup without touching the hit-rate counters, for bulk scans that aren't menu clicks
+    public String identify(ItemStack item, String player) {
+        return resolve(item, player, false);
+    }
+
+    private String resolve(ItemStack item, String player, boolean countStats) {
+        if (item == null) return null;
+
+        // Item meta is a copy, fetch it once for every resolver that needs it
+        ItemMeta meta = needsMeta && item.hasItemMeta() ? item.getItemMeta() : null;
+
+        for (int i = 0; i < resolvers.length; i++) {
+            if (countStats) attempts[i].increment();
+            String recipeId = resolvers[i].resolve(item, meta, player);
+            if (recipeId != null) {
+                if (countStats) hits[i].increment();
+                return recipeId;
+            }
+        }
+        return null;
+    }
+
+    public List<ResolverStats> getStats() {
+        if (resolvers.length == 0) return Collections.emptyList();
+
+        List<ResolverStats> stats = new ArrayList<>(resolvers.length);
+        for (int i = 0; i < resolvers.length; i++) {
+            stats.add(new ResolverStats(resolvers[i].getName(), attempts[i].sum(), hits[i].sum()));
+        }
+        return stats;
+    }
+
+    // Point-in-time counters for one resolver
+    public static final class ResolverStats {
+        private final String name;
+        private final long attempts;
+        private final long hits;
+
+        ResolverStats(String name, long attempts, long hits) {
+            this.name = name;
+            this.attempts = attempts;
+            this.hits = hits;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getAttempts() {
+            return attempts;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public double getHitRate() {
+            return attempts == 0 ? 0.0 : (double) hits / attempts;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.eto2112.epiccraftingshook.resolver;
+
+import com.eto2112.epiccraftingshook.utils.CompiledConfigCache;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Lookup tables for the recipe id resolvers (resolvers section of config.yml)
+public final class ResolverSettings {
+
+    public static final ResolverSettings DEFAULTS = new ResolverSettings(Collections.emptyMap(),
+            Collections.emptyList(), Collections.emptyMap(), true);
+
+    // "MATERIAL:custom_model_data" -> recipe id
+    private final Map<String, String> modelData;
+    // "namespace:key" string PDC entries holding an item id
+    private final List<String> persistentDataKeys;
+    // Normalised display name -> recipe id
+    private final Map<String, String> displayNames;
+    private final boolean mmoItemsEnabled;
+
+    private ResolverSettings(Map<String, String> modelData, List<String> persistentDataKeys,
+                             Map<String, String> displayNames, boolean mmoItemsEnabled) {
+        this.modelData = modelData;
+        this.persistentDataKeys = persistentDataKeys;
+        this.displayNames = displayNames;
+        this.mmoItemsEnabled = mmoItemsEnabled;
+    }
+
+    public static ResolverSettings fromConfig(FileConfiguration config) {
+        Map<String, String> modelData = new LinkedHashMap<>();
+        ConfigurationSection modelSection = config.getConfigurationSection("resolvers.model-data");
+        if (modelSection != null) {
+            for (String key : modelSection.getKeys(false)) {
+                String normalized = normalizeModelDataKey(key);
+                String recipeId = modelSection.getString(key);
+                if (normalized != null && recipeId != null && !recipeId.trim().isEmpty()) {
+                    modelData.put(normalized, recipeId.trim().toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+
+        List<String> keys = new ArrayList<>();
+        for (String key : config.getStringList("resolvers.persistent-data-keys")) {
+            if (key != null && key.indexOf(':') > 0) {
+                keys.add(key.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+
+        Map<String, String> displayNames = new LinkedHashMap<>();
+        ConfigurationSection nameSection = config.getConfigurationSection("resolvers.display-names");
+        if (nameSection != null) {
+            for (String name : nameSection.getKeys(false)) {
+                String recipeId = nameSection.getString(name);
+                if (recipeId != null && !recipeId.trim().isEmpty()) {
+                    displayNames.put(normalizeDisplayName(name), recipeId.trim().toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+
+        return new ResolverSettings(Collections.unmodifiableMap(modelData), Collections.unmodifiableList(keys),
+                Collections.unmodifiableMap(displayNames),
+                config.getBoolean("resolvers.mmoitems", DEFAULTS.mmoItemsEnabled));
+    }
+
+    // "paper:10010" -> "PAPER:10010"; null when the material or number is invalid
+    static String normalizeModelDataKey(String key) {
+        int separator = key.lastIndexOf(':');
+        if (separator <= 0) return null;
+
+        Material material = Material.matchMaterial(key.substring(0, separator).trim());
+        if (material == null) return null;
+        try {
+            return material.name() + ':' + Integer.parseInt(key.substring(separator + 1).trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Colour codes and case are ignored when matching display names
+    static String normalizeDisplayName(String name) {
+        return ChatColor.stripColor(ChatColor.translateAlternateColorCodes('&', name)).trim().toLowerCase(Locale.ROOT);
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        writeMap(out, modelData);
+        out.writeInt(persistentDataKeys.size());
+        for (String key : persistentDataKeys) {
+            CompiledConfigCache.writeString(out, key);
+        }
+        writeMap(out, displayNames);
+        out.writeBoolean(mmoItemsEnabled);
+    }
+
+    public static ResolverSettings read(ByteBuffer in) {
+        Map<String, String> modelData = readMap(in);
+        int keyCount = CompiledConfigCache.readCount(in);
+        List<String> keys = new ArrayList<>(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            keys.add(CompiledConfigCache.readString(in));
+        }
+        Map<String, String> displayNames = readMap(in);
+        return new ResolverSettings(modelData, Collections.unmodifiableList(keys), displayNames, in.get() != 0);
+    }
+
+    private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            CompiledConfigCache.writeString(out, entry.getKey());
+            CompiledConfigCache.writeString(out, entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readMap(ByteBuffer in) {
+        int size = CompiledConfigCache.readCount(in);
+        Map<String, String> map = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            map.put(CompiledConfigCache.readString(in), CompiledConfigCache.readString(in));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    public Map<String, String> getModelData() {
+        return modelData;
+    }
+
+    public List<String> getPersistentDataKeys() {
+        return persistentDataKeys;
+    }
+
+    public Map<String, String> getDisplayNames() {
+        return displayNames;
+    }
+
+    public boolean isMmoItemsEnabled() {
+        return mmoItemsEnabled;
+    }
+}
@@ -0,0 +1,121 @@
+package com.eto2112.epiccraftingshook.session;
+
+import com.eto2112.epiccraftingshook.condition.ActionCooldowns;
+import com.eto2112.epiccraftingshook.listeners.InFlightClick;
+import com.eto2112.epiccraftingshook.listeners.PrefetchedMenu;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Everything the hook keeps about one online player. Opened on join and dropped on quit, so none of it
+// needs an expiry sweep: the session's lifetime is the bound.
+public final class PlayerSession {
+
+    // Crafting menus remembered for /echook session
+    private static final int HISTORY_SIZE = 10;
+
+    private final UUID playerId;
+
+    // Stable placeholder values, fixed for the whole session
+    private final String playerName;
+    private final String playerIdString;
+
+    // Expiry of the running click cooldown, 0 when none was started
+    private final AtomicLong clickCooldownUntil = new AtomicLong();
+
+    // Running [if cooldown:N] cooldowns, carried over from the previous session if any were still running
+    private final ActionCooldowns actionCooldowns;
+
+    // Crafting menu currently open, resolved when it opened; null when none or not prefetched
+    private final AtomicReference<PrefetchedMenu> activeView = new AtomicReference<>();
+
+    // Last accepted click, for coalescing repeats
+    private volatile InFlightClick lastClick;
+
+    // Crafting names opened this session, oldest first; guarded by itself
+    private final ArrayDeque<String> history = new ArrayDeque<>(HISTORY_SIZE);
+
+    PlayerSession(UUID playerId, String playerName, ActionCooldowns actionCooldowns) {
+        this.playerId = playerId;
+        this.playerName = playerName;
+        this.playerIdString = playerId.toString();
+        this.actionCooldowns = actionCooldowns;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public String getPlayerIdString() {
+        return playerIdString;
+    }
+
+    // Check and start the click cooldown in one step; the new expiry, or -1 while the previous one still runs
+    public long acquireClickCooldown(long now, long durationMillis) {
+        long until = now + durationMillis;
+        while (true) {
+            long current = clickCooldownUntil.get();
+            if (current > now) return -1L;
+            if (clickCooldownUntil.compareAndSet(current, until)) return until;
+        }
+    }
+
+    // Hand back a cooldown whose click dispatched nothing, unless a later click already replaced it
+    public void releaseClickCooldown(long until) {
+        clickCooldownUntil.compareAndSet(until, 0L);
+    }
+
+    public long getClickCooldownUntil() {
+        return clickCooldownUntil.get();
+    }
+
+    public ActionCooldowns getActionCooldowns() {
+        return actionCooldowns;
+    }
+
+    public PrefetchedMenu getActiveView() {
+        return activeView.get();
+    }
+
+    public void setActiveView(PrefetchedMenu view) {
+        activeView.set(view);
+    }
+
+    // Only clears the view that was closed, never one a newer open already replaced
+    public void clearActiveView(PrefetchedMenu expected) {
+        activeView.compareAndSet(expected, null);
+    }
+
+    public InFlightClick getLastClick() {
+        return lastClick;
+    }
+
+    public void setLastClick(InFlightClick click) {
+        lastClick = click;
+    }
+
+    // Reopening the crafting already on top of the history doesn't add an entry
+    public void recordView(String craftingName) {
+        synchronized (history) {
+            if (craftingName.equals(history.peekLast())) return;
+            if (history.size() == HISTORY_SIZE) {
+                history.pollFirst();
+            }
+            history.addLast(craftingName);
+        }
+    }
+
+    public List<String> getHistory() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.eto2112.epiccraftingshook.session;
+
+import com.eto2112.epiccraftingshook.condition.ActionCooldowns;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Sessions of the players currently online. The table is sized for the server's player slots up front,
+// so joins never resize it under load. [if cooldown:N] cooldowns still running at quit are kept by UUID
+// and handed to the next session, so relogging doesn't reset them; the plugin's cleanup timer drops them
+// once they have expired.
+public final class SessionRegistry {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final Map<UUID, PlayerSession> sessions;
+    private final Map<UUID, ActionCooldowns> parkedCooldowns = new ConcurrentHashMap<>();
+
+    public SessionRegistry(int expectedPlayers) {
+        this.sessions = new ConcurrentHashMap<>(Math.max(MIN_CAPACITY, expectedPlayers));
+    }
+
+    // A fresh session, replacing any left over from a quit that was never seen
+    public PlayerSession open(Player player) {
+        return open(player.getUniqueId(), player.getName());
+    }
+
+    // Also how /echook bench opens its synthetic players, in a registry of its own
+    public PlayerSession open(UUID playerId, String playerName) {
+        PlayerSession session = newSession(playerId, playerName);
+        sessions.put(playerId, session);
+        return session;
+    }
+
+    public void close(UUID playerId) {
+        PlayerSession session = sessions.remove(playerId);
+        if (session != null && session.getActionCooldowns().size() > 0) {
+            parkedCooldowns.put(playerId, session.getActionCooldowns());
+        }
+    }
+
+    // Null for players without a session (offline, or synthetic players)
+    public PlayerSession get(UUID playerId) {
+        return sessions.get(playerId);
+    }
+
+    // The player's session, opened here when the join hasn't been seen yet. A call that lands after the quit
+    // gets an unregistered session over the parked cooldowns instead, so it can't leave a session behind.
+    public PlayerSession forPlayer(Player player) {
+        UUID playerId = player.getUniqueId();
+        PlayerSession session = sessions.get(playerId);
+        if (session != null) return session;
+
+        if (!player.isOnline()) {
+            ActionCooldowns parked = parkedCooldowns.get(playerId);
+            return new PlayerSession(playerId, player.getName(), parked != null ? parked : new ActionCooldowns());
+        }
+        return sessions.computeIfAbsent(playerId, id -> newSession(id, player.getName()));
+    }
+
+    private PlayerSession newSession(UUID playerId, String playerName) {
+        ActionCooldowns parked = parkedCooldowns.remove(playerId);
+        return new PlayerSession(playerId, playerName, parked != null ? parked : new ActionCooldowns());
+    }
+
+    // Drops parked cooldowns that have all expired; runs on the cleanup timer, off the quit path
+    public void purgeExpiredCooldowns() {
+        parkedCooldowns.values().removeIf(cooldowns -> cooldowns.size() == 0);
+    }
+
+    public int getParkedCooldownCount() {
+        return parkedCooldowns.size();
+    }
+
+    public void forEach(Consumer<PlayerSession> action) {
+        sessions.values().forEach(action);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    // Running [if cooldown:N] cooldowns across all sessions
+    public int getActionCooldownCount() {
+        int count = 0;
+        for (PlayerSession session : sessions.values()) {
+            count += session.getActionCooldowns().size();
+        }
+        return count;
+    }
+
+    public void clear() {
+        sessions.clear();
+        parkedCooldowns.clear();
+    }
+}
@@ -0,0 +1,270 @@
+package com.eto2112.epiccraftingshook.stats;
+
+import com.eto2112.epiccraftingshook.utils.ConfigSnapshot;
+import com.eto2112.epiccraftingshook.utils.RecipeSummary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+// Per-recipe, per-position click counters laid out over the compiled recipe table.
+// Clicks cost a shared read lock, one map lookup and one atomic increment; counts persist to stats/heatmap.bin.
+public final class ClickHeatmap {
+
+    private static final int MAGIC = 0x45434853; // "ECHS"
+    private static final int FORMAT_VERSION = 1;
+    private static final char KEY_SEPARATOR = ':';
+
+    private final File file;
+    private final Logger logger;
+
+    private final AtomicReference<Table> table = new AtomicReference<>(Table.EMPTY);
+
+    // Clicks share the read side; rebind takes the write side so no increment lands in a table being folded
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    // Counts for recipes/positions missing from the current config, kept so config edits don't wipe history
+    private final Map<String, Long> retained = new ConcurrentHashMap<>();
+
+    // Clicks since start, compared on save to skip rewriting an unchanged file
+    private final LongAdder recorded = new LongAdder();
+    private long recordedAtLastSave;
+
+    public ClickHeatmap(File dataFolder, Logger logger) {
+        this.file = new File(dataFolder, "stats/heatmap.bin");
+        this.logger = logger;
+    }
+
+    // Hot path: count one successful click
+    public void record(String recipeId, int position) {
+        swapLock.readLock().lock();
+        try {
+            Table current = table.get();
+            int index = current.index(recipeId, position);
+            if (index < 0) return;
+
+            current.counts.incrementAndGet(index);
+            recorded.increment();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // Re-lay the counters over a newly applied config, carrying existing counts across
+    public synchronized void rebind(ConfigSnapshot snapshot) {
+        Table previous = table.get();
+        Table next = Table.build(snapshot);
+
+        // Retained counts that fit the new layout move back into the table
+        retained.entrySet().removeIf(entry -> {
+            int separator = entry.getKey().lastIndexOf(KEY_SEPARATOR);
+            int index = next.index(entry.getKey().substring(0, separator),
+                    Integer.parseInt(entry.getKey().substring(separator + 1)));
+            if (index < 0) return false;
+            next.counts.addAndGet(index, entry.getValue());
+            return true;
+        });
+
+        // Swap and fold the old table in with clicks held off, so none lands in the old table after its fold
+        swapLock.writeLock().lock();
+        try {
+            table.set(next);
+            previous.forEachCount((recipeId, position, count) -> {
+                int index = next.index(recipeId, position);
+                if (index >= 0) {
+                    next.counts.addAndGet(index, count);
+                } else {
+                    retained.merge(recipeId + KEY_SEPARATOR + position, count, Long::sum);
+                }
+            });
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    public long getTotalClicks() {
+        long[] total = {0L};
+        table.get().forEachCount((recipeId, position, count) -> total[0] += count);
+        return total[0];
+    }
+
+    // Clicks kept for recipes/positions the current config no longer has; restored if they come back
+    public long getRetainedClicks() {
+        long total = 0L;
+        for (long count : retained.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    public int getRetainedCellCount() {
+        return retained.size();
+    }
+
+    // Recipes by total clicks, highest first
+    public List<Map.Entry<String, Long>> getTopRecipes(int limit) {
+        Map<String, Long> totals = new HashMap<>();
+        table.get().forEachCount((recipeId, position, count) -> totals.merge(recipeId, count, Long::sum));
+
+        List<Map.Entry<String, Long>> sorted = new ArrayList<>(totals.entrySet());
+        sorted.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return sorted.size() > limit ? sorted.subList(0, limit) : sorted;
+    }
+
+    // Click count per position (index = position), or null when the recipe is not configured
+    public long[] getPositionCounts(String recipeId) {
+        Table current = table.get();
+        Integer ordinal = current.ordinals.get(recipeId);
+        if (ordinal == null) return null;
+
+        long[] counts = new long[current.stride];
+        int base = ordinal * current.stride;
+        for (int position = 0; position < counts.length; position++) {
+            counts[position] = current.counts.get(base + position);
+        }
+        return counts;
+    }
+
+    // Read persisted counts; they are placed into the table by the next rebind
+    public synchronized void load() {
+        if (!file.isFile()) return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.warning("Ignoring click stats with unknown format: " + file.getName());
+                return;
+            }
+            int entries = in.readInt();
+            for (int i = 0; i < entries; i++) {
+                String recipeId = in.readUTF();
+                int position = in.readInt();
+                long count = in.readLong();
+                if (count > 0) {
+                    retained.merge(recipeId + KEY_SEPARATOR + position, count, Long::sum);
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("Could not read click stats, starting fresh: " + e.getMessage());
+        }
+    }
+
+    // Write all counts via a temp file; skipped when nothing was clicked since the last save
+    public synchronized void save() {
+        long recordedNow = recorded.sum();
+        if (recordedNow == recordedAtLastSave && file.isFile()) return;
+
+        List<String> recipeIds = new ArrayList<>();
+        List<long[]> values = new ArrayList<>();
+        table.get().forEachCount((recipeId, position, count) -> {
+            recipeIds.add(recipeId);
+            values.add(new long[]{position, count});
+        });
+        retained.forEach((key, count) -> {
+            int separator = key.lastIndexOf(KEY_SEPARATOR);
+            recipeIds.add(key.substring(0, separator));
+            values.add(new long[]{Integer.parseInt(key.substring(separator + 1)), count});
+        });
+
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        try {
+            Files.createDirectories(target.getParent());
+            try (OutputStream raw = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(raw))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(recipeIds.size());
+                for (int i = 0; i < recipeIds.size(); i++) {
+                    out.writeUTF(recipeIds.get(i));
+                    out.writeInt((int) values.get(i)[0]);
+                    out.writeLong(values.get(i)[1]);
+                }
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            recordedAtLastSave = recordedNow;
+        } catch (IOException e) {
+            logger.warning("Could not save click stats: " + e.getMessage());
+        }
+    }
+
+    // Receives non-zero cells
+    private interface CountVisitor {
+        void visit(String recipeId, int position, long count);
+    }
+
+    // Dense counter layout for one config snapshot: cell = ordinal * stride + position
+    private static final class Table {
+        static final Table EMPTY = new Table(Collections.emptyMap(), new String[0], 1);
+
+        final Map<String, Integer> ordinals;
+        final String[] recipes;
+        final int stride;
+        final AtomicLongArray counts;
+
+        private Table(Map<String, Integer> ordinals, String[] recipes, int stride) {
+            this.ordinals = ordinals;
+            this.recipes = recipes;
+            this.stride = stride;
+            this.counts = new AtomicLongArray(recipes.length * stride);
+        }
+
+        static Table build(ConfigSnapshot snapshot) {
+            List<RecipeSummary> summaries = snapshot.getSortedSummaries();
+            Map<String, Integer> ordinals = new HashMap<>(summaries.size() * 2);
+            String[] recipes = new String[summaries.size()];
+
+            int maxPosition = 0;
+            for (int position : snapshot.getSlotMapping().keySet()) {
+                maxPosition = Math.max(maxPosition, position);
+            }
+            for (int i = 0; i < summaries.size(); i++) {
+                RecipeSummary summary = summaries.get(i);
+                recipes[i] = summary.getRecipeId();
+                ordinals.put(summary.getRecipeId(), i);
+                if (summary.getPositionCount() > 0) {
+                    maxPosition = Math.max(maxPosition, summary.getPosition(summary.getPositionCount() - 1));
+                }
+            }
+            return new Table(ordinals, recipes, maxPosition + 1);
+        }
+
+        int index(String recipeId, int position) {
+            if (position < 0 || position >= stride) return -1;
+            Integer ordinal = ordinals.get(recipeId);
+            return ordinal != null ? ordinal * stride + position : -1;
+        }
+
+        void forEachCount(CountVisitor visitor) {
+            for (int cell = 0; cell < counts.length(); cell++) {
+                long count = counts.get(cell);
+                if (count > 0) {
+                    visitor.visit(recipes[cell / stride], cell % stride, count);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.eto2112.epiccraftingshook.utils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// One recipe's actions as a dense [position][click kind] table, so a click is two array reads.
+// Positions and click kinds without actions hold the shared empty list.
+public final class ActionTable {
+
+    public static final ActionTable EMPTY = new ActionTable(newTable(0));
+
+    private final List<String>[][] actions;
+
+    // First non-empty click kind per position, for the admin views and the recipe graph
+    private final Map<Integer, List<String>> primaryActions;
+
+    // Generic arrays can't be created directly
+    @SuppressWarnings("unchecked")
+    private static List<String>[][] newTable(int positions) {
+        return new List[positions][ClickKind.count()];
+    }
+
+    private ActionTable(List<String>[][] actions) {
+        this.actions = actions;
+
+        Map<Integer, List<String>> primary = new HashMap<>();
+        for (int position = 0; position < actions.length; position++) {
+            for (List<String> kindActions : actions[position]) {
+                if (!kindActions.isEmpty()) {
+                    primary.put(position, kindActions);
+                    break;
+                }
+            }
+        }
+        this.primaryActions = Collections.unmodifiableMap(primary);
+    }
+
+    // Negative positions are ignored; action lists are expected to be immutable already
+    static ActionTable of(Map<Integer, Map<ClickKind, List<String>>> byPosition) {
+        int size = 0;
+        for (int position : byPosition.keySet()) {
+            size = Math.max(size, position + 1);
+        }
+
+        List<String>[][] actions = newTable(size);
+        for (int position = 0; position < size; position++) {
+            Map<ClickKind, List<String>> byKind = byPosition.get(position);
+            for (int kind = 0; kind < ClickKind.count(); kind++) {
+                List<String> kindActions = byKind != null ? byKind.get(ClickKind.byOrdinal(kind)) : null;
+                actions[position][kind] = kindActions != null ? kindActions : Collections.emptyList();
+            }
+        }
+        return new ActionTable(actions);
+    }
+
+    public List<String> get(int position, ClickKind kind) {
+        return position >= 0 && position < actions.length ? actions[position][kind.ordinal()]
+                : Collections.emptyList();
+    }
+
+    public Map<Integer, List<String>> getPrimaryActions() {
+        return primaryActions;
+    }
+
+    // Every action of every list; a list shared by several click kinds is visited once per kind
+    void forEachAction(Consumer<String> consumer) {
+        for (List<String>[] row : actions) {
+            for (List<String> kindActions : row) {
+                kindActions.forEach(consumer);
+            }
+        }
+    }
+
+    int size() {
+        return actions.length;
+    }
+
+    // Sets union[position][kind] for every position and click kind with actions
+    void markActions(boolean[][] union) {
+        for (int position = 0; position < actions.length && position < union.length; position++) {
+            for (int kind = 0; kind < ClickKind.count(); kind++) {
+                if (!actions[position][kind].isEmpty()) union[position][kind] = true;
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return primaryActions.isEmpty();
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(actions.length);
+        for (List<String>[] row : actions) {
+            for (List<String> kindActions : row) {
+                out.writeInt(kindActions.size());
+                for (String action : kindActions) {
+                    CompiledConfigCache.writeString(out, action);
+                }
+            }
+        }
+    }
+
+    static ActionTable read(ByteBuffer in) {
+        int size = CompiledConfigCache.readCount(in);
+        List<String>[][] actions = newTable(size);
+        for (int position = 0; position < size; position++) {
+            for (int kind = 0; kind < ClickKind.count(); kind++) {
+                int count = CompiledConfigCache.readCount(in);
+                List<String> kindActions = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    kindActions.add(CompiledConfigCache.readString(in));
+                }
+                actions[position][kind] = count > 0 ? Collections.unmodifiableList(kindActions)
+                        : Collections.emptyList();
+            }
+        }
+        return new ActionTable(actions);
+    }
+}
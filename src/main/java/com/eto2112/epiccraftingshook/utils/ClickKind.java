@@ -0,0 +1,54 @@
+package com.eto2112.epiccraftingshook.utils;
+
+import org.bukkit.event.inventory.ClickType;
+
+import java.util.Locale;
+
+// Click types that can carry actions; every other Bukkit click type (number keys, double click, drop, ...)
+// never dispatches. Ordinal = column in ActionTable.
+public enum ClickKind {
+    LEFT,
+    RIGHT,
+    SHIFT_LEFT,
+    SHIFT_RIGHT,
+    MIDDLE;
+
+    private static final ClickKind[] VALUES = values();
+
+    // Indexed by ClickType ordinal, null for click types without actions
+    private static final ClickKind[] BY_CLICK_TYPE = new ClickKind[ClickType.values().length];
+
+    static {
+        BY_CLICK_TYPE[ClickType.LEFT.ordinal()] = LEFT;
+        BY_CLICK_TYPE[ClickType.RIGHT.ordinal()] = RIGHT;
+        BY_CLICK_TYPE[ClickType.SHIFT_LEFT.ordinal()] = SHIFT_LEFT;
+        BY_CLICK_TYPE[ClickType.SHIFT_RIGHT.ordinal()] = SHIFT_RIGHT;
+        BY_CLICK_TYPE[ClickType.MIDDLE.ordinal()] = MIDDLE;
+    }
+
+    private final String configKey = name().toLowerCase(Locale.ROOT).replace('_', '-');
+
+    public static ClickKind of(ClickType clickType) {
+        return clickType != null ? BY_CLICK_TYPE[clickType.ordinal()] : null;
+    }
+
+    // "left", "shift-right", ...; null when the key names no click kind
+    public static ClickKind fromConfigKey(String key) {
+        for (ClickKind kind : VALUES) {
+            if (kind.configKey.equalsIgnoreCase(key)) return kind;
+        }
+        return null;
+    }
+
+    static ClickKind byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    static int count() {
+        return VALUES.length;
+    }
+
+    public String getConfigKey() {
+        return configKey;
+    }
+}
@@ -1,29 +1,67 @@
 package com.eto2112.epiccraftingshook.utils;
 
 import com.eto2112.epiccraftingshook.EpicCraftingsHookPlugin;
-import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
+import com.eto2112.epiccraftingshook.condition.ConditionalAction;
+import com.eto2112.epiccraftingshook.debug.DebugCategory;
+import com.eto2112.epiccraftingshook.debug.DebugChannel;
+import com.eto2112.epiccraftingshook.dispatch.ConsoleActionSender;
+import com.eto2112.epiccraftingshook.dispatch.DispatchSink;
+import com.eto2112.epiccraftingshook.dispatch.TimingWheel;
+import com.eto2112.epiccraftingshook.graph.RecipeGraph;
+import com.eto2112.epiccraftingshook.inventory.PlayerInventoryIndex;
+import com.eto2112.epiccraftingshook.jfr.ActionExecuteEvent;
+import com.eto2112.epiccraftingshook.message.MessageTemplate;
+import com.eto2112.epiccraftingshook.session.PlayerSession;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 public class CommandExecutor {
 
     private final EpicCraftingsHookPlugin plugin;
+    private final DebugChannel debug;
+    private final ConsoleActionSender consoleSender;
 
-    // Cache for compiled regex patterns and placeholder replacements
+    // Performs actions for real; other sinks only come from callers that pass one explicitly
+    private final DispatchSink liveSink = new LiveSink();
+
+    // Remaining commands of dispatches paused by [delay], advanced by one repeating global task
+    private final TimingWheel<DelayedStep> delayedSteps = new TimingWheel<>(this::resumeDelayedStep);
+
+    // Cache for compiled regex patterns
     private final Map<String, Pattern> placeholderPatterns = new ConcurrentHashMap<>();
-    private final Map<String, String> placeholderCache = new ConcurrentHashMap<>();
+
+    // In-flight dispatches, tracked so shutdown can drain or report them
+    private final Set<PendingDispatch> pendingDispatches = ConcurrentHashMap.newKeySet();
+    // [chain] arguments already reported as unknown, so a misconfigured action warns once rather than per click
+    private final Set<String> unknownChainTargets = ConcurrentHashMap.newKeySet();
+    private volatile boolean accepting = true;
+    private static final int MAX_REPORTED_DROPS = 10;
 
     // Command type constants for better performance
     private static final String CONSOLE_PREFIX = "[console]";
     private static final String OP_PREFIX = "[op]";
     private static final String PLAYER_PREFIX = "[player]";
-    private static final String MESSAGE_PREFIX = "[message]";
+    private static final String MESSAGE_PREFIX = MessageTemplate.PREFIX;
+    private static final String CHAIN_PREFIX = "[chain]";
+    private static final String CLOSE_PREFIX = "[close]";
+    private static final String DELAY_PREFIX = "[delay]";
+
+    // Console command that opens the crafting picked by a [chain] action
+    private static final String OPEN_CRAFT_COMMAND = "ecraft opencraft ";
 
     // Pre-compiled patterns for placeholder replacement
     private static final Pattern PLAYER_PATTERN = Pattern.compile("%player%");
@@ -37,6 +75,8 @@ public class CommandExecutor {
 
     public CommandExecutor(EpicCraftingsHookPlugin plugin) {
         this.plugin = plugin;
+        this.debug = plugin.getDebugChannel();
+        this.consoleSender = new ConsoleActionSender(plugin);
         initializePlaceholderPatterns();
     }
 
@@ -58,87 +98,505 @@ public class CommandExecutor {
         }
 
         // Fast command processing with minimal string operations
-        String trimmedCommand = command.trim();
+        executeCommands(player, Collections.singletonList(command.trim()));
+    }
 
-        // Process command asynchronously for placeholder replacement
-        CompletableFuture.runAsync(() -> {
-            processCommandAsync(player, trimmedCommand);
-        }).exceptionally(throwable -> {
-            plugin.getLogger().warning("Async command processing failed: " + throwable.getMessage());
-            return null;
-        });
+    public void executeCommands(Player player, List<String> commands) {
+        executeCommands(player, null, -1, commands);
+    }
+
+    // Batch command execution: one tracked dispatch per click, commands run in order on the main thread.
+    // recipeId/position describe the click that triggered it (null/-1 when not click-driven).
+    public void executeCommands(Player player, String recipeId, int position, List<String> commands) {
+        executeCommands(player, recipeId, position, commands, (Runnable) null);
+    }
+
+    // onComplete runs once when the last command has run, or when the dispatch is rejected or dropped
+    public void executeCommands(Player player, String recipeId, int position, List<String> commands,
+                                Runnable onComplete) {
+        executeCommands(player, plugin.getSessions().forPlayer(player), recipeId, position, commands, liveSink,
+                onComplete);
+    }
+
+    // Click dispatch: placeholders and [if cooldown] state come from the given session, actions go to the sink
+    // (null = performed for real)
+    public void executeCommands(Player player, PlayerSession session, String recipeId, int position,
+                                List<String> commands, DispatchSink sink, Runnable onComplete) {
+        if (commands == null || commands.isEmpty()) {
+            if (onComplete != null) onComplete.run();
+            return;
+        }
+
+        if (!accepting) {
+            plugin.getLogger().warning("Rejected " + commands.size() + " command(s) for " + player.getName()
+                    + " during shutdown");
+            if (onComplete != null) onComplete.run();
+            return;
+        }
+
+        PendingDispatch dispatch = new PendingDispatch(player, session, recipeId, position, commands,
+                sink != null ? sink : liveSink, onComplete);
+        pendingDispatches.add(dispatch);
+
+        if (plugin.getTaskScheduler().isTickThread(player)) {
+            // Placeholder replacement off the main thread
+            CompletableFuture.runAsync(() -> prepareAndSchedule(dispatch)).exceptionally(throwable -> {
+                plugin.getLogger().warning("Batch command processing failed: " + throwable.getMessage());
+                return null;
+            });
+        } else {
+            // Already off the main thread, no need for another hop
+            prepareAndSchedule(dispatch);
+        }
     }
 
-    // Async command processing to avoid blocking main thread
-    private void processCommandAsync(Player player, String command) {
+    // Replace placeholders, then hand the dispatch to the thread that owns its first command
+    private void prepareAndSchedule(PendingDispatch dispatch) {
         try {
-            // Replace placeholders efficiently
-            String processedCommand = replacePlaceholdersOptimized(command, player);
-
-            // Determine command type and execute on main thread
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    executeCommandSync(player, processedCommand);
+            List<String> processed = dispatch.getProcessedCommands();
+            boolean global = !processed.isEmpty() && !ConditionalAction.isConditional(processed.get(0))
+                    && isConsoleAction(processed.get(0));
+            scheduleOn(dispatch.player, global, () -> runDispatch(dispatch, global), () -> dropUnclaimed(dispatch));
+
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error in async command processing for " + dispatch.player.getName() + ": "
+                    + e.getMessage());
+            dropUnclaimed(dispatch);
+        }
+    }
+
+    // A dispatch nothing will run any more: report its commands as dropped and end the click
+    private void dropDispatch(PendingDispatch dispatch, List<String> commands) {
+        debug.log(DebugCategory.DISPATCH, () -> "Dropped actions for " + dispatch.player.getName() + ": " + commands);
+        plugin.getAuditLog().recordDrop(dispatch.player.getName(), String.valueOf(commands));
+        dispatch.complete();
+    }
+
+    // Same, for a dispatch still waiting to start; skipped when the shutdown drain already took it
+    private void dropUnclaimed(PendingDispatch dispatch) {
+        if (dispatch.claim()) {
+            pendingDispatches.remove(dispatch);
+            dropDispatch(dispatch, dispatch.commands);
+        }
+    }
+
+    // Runs a dispatch exactly once, whether from its scheduled task or from the shutdown drain
+    private void runDispatch(PendingDispatch dispatch, boolean onGlobal) {
+        if (!dispatch.claim()) return;
+        pendingDispatches.remove(dispatch);
+
+        runCommandsFrom(dispatch, dispatch.getProcessedCommands(), 0, onGlobal);
+    }
+
+    // Run commands in order; on Folia, hop between the global region and the player's region
+    // only when the next command needs the other one
+    private void runCommandsFrom(PendingDispatch dispatch, List<String> commands, int start, boolean onGlobal) {
+        TaskScheduler scheduler = plugin.getTaskScheduler();
+        Player player = dispatch.player;
+        for (int i = start; i < commands.size(); i++) {
+            String command = commands.get(i);
+
+            // Conditions read the player's world, permissions and inventory: decide them on the player's thread
+            // when the action is reached, after any [delay] before it
+            if (ConditionalAction.isConditional(command)) {
+                if (scheduler.isFolia() && onGlobal) {
+                    int next = i;
+                    scheduleOn(player, false, () -> runCommandsFrom(dispatch, commands, next, false),
+                            () -> dropDispatch(dispatch, commands.subList(next, commands.size())));
+                    return;
+                }
+                command = passedAction(player, dispatch.session, command);
+                if (command == null) continue;
+                // Decided once: a hop to the global region resumes at the action, not at the condition
+                commands.set(i, command);
+            }
+
+            // The rest of the sequence waits in the timing wheel; no task is scheduled per delay
+            if (command.startsWith(DELAY_PREFIX)) {
+                long ticks = parseDelayTicks(command);
+                if (ticks > 0) {
+                    delayedSteps.schedule(new DelayedStep(dispatch, commands, i + 1), ticks);
+                    return;
                 }
-            }.runTask(plugin);
+                continue;
+            }
+
+            boolean global = isConsoleAction(command);
+            if (scheduler.isFolia() && global != onGlobal) {
+                int next = i;
+                scheduleOn(player, global, () -> runCommandsFrom(dispatch, commands, next, global),
+                        () -> dropDispatch(dispatch, commands.subList(next, commands.size())));
+                return;
+            }
+            executeCommandSync(dispatch, command);
+        }
+        dispatch.complete();
+    }
 
+    private long parseDelayTicks(String command) {
+        String ticks = command.substring(DELAY_PREFIX.length()).trim();
+        try {
+            return Long.parseLong(ticks);
+        } catch (NumberFormatException e) {
+            plugin.getLogger().warning("Invalid delay, expected ticks: " + command);
+            return 0L;
+        }
+    }
+
+    // Runs on the wheel's global tick; player-bound commands hop to the player's region on Folia as usual
+    private void resumeDelayedStep(DelayedStep step) {
+        Player player = step.dispatch.player;
+        if (!accepting || !player.isOnline()) {
+            debug.log(DebugCategory.DISPATCH, () -> "Dropped delayed actions for " + player.getName()
+                    + ": " + step.remaining());
+            step.dispatch.complete();
+            return;
+        }
+        try {
+            runCommandsFrom(step.dispatch, step.commands, step.next, true);
         } catch (Exception e) {
-            plugin.getLogger().warning("Error in async command processing: " + e.getMessage());
+            plugin.getLogger().warning("Error resuming delayed actions for " + player.getName() + ": " + e.getMessage());
+            step.dispatch.complete();
+        }
+    }
+
+    // Action behind an [if ...] prefix, placeholders filled in, when its conditions pass; otherwise null
+    private String passedAction(Player player, PlayerSession session, String template) {
+        // Templates come from the snapshot's tables; only a click racing a reload compiles here
+        ConditionalAction conditional = plugin.getConfigManager().getSnapshot().getConditionalAction(template);
+        if (conditional == null) {
+            conditional = ConditionalAction.compile(template);
+        }
+
+        if (!conditional.test(player, plugin.getInventoryIndex(), session.getActionCooldowns())) {
+            debug.log(DebugCategory.DISPATCH, () -> "Condition not met for " + player.getName() + ": " + template);
+            return null;
+        }
+        String action = conditional.getAction();
+        if (action.isEmpty()) return null;
+        return action.startsWith(MESSAGE_PREFIX) ? action : replacePlaceholdersOptimized(action, player, session);
+    }
+
+    // Called every tick by the plugin's delayed-action task
+    public void tickDelayedActions() {
+        delayedSteps.tick();
+    }
+
+    public int getActionCooldownCount() {
+        return plugin.getSessions().getActionCooldownCount();
+    }
+
+    public int getDelayedActionCount() {
+        return delayedSteps.size();
+    }
+
+    // Console actions run on the global region, player-bound actions on the player's own thread;
+    // retired runs instead when the player is gone before a player-bound task gets to run (Folia)
+    private void scheduleOn(Player player, boolean global, Runnable task, Runnable retired) {
+        if (global) {
+            plugin.getTaskScheduler().runGlobal(task);
+        } else {
+            plugin.getTaskScheduler().runForEntity(player, task, retired);
+        }
+    }
+
+    private static boolean isConsoleAction(String command) {
+        return !(command.startsWith(OP_PREFIX) || command.startsWith(PLAYER_PREFIX) || command.startsWith(MESSAGE_PREFIX)
+                || command.startsWith(CLOSE_PREFIX));
+    }
+
+    // Stop accepting new dispatches; anything already tracked can still be drained
+    public void stopAccepting() {
+        accepting = false;
+    }
+
+    // Run pending dispatches synchronously on the main thread until the deadline, then report the rest
+    public void drainPendingDispatches(long deadlineNanos) {
+        stopAccepting();
+        if (pendingDispatches.isEmpty() && delayedSteps.size() == 0) return;
+
+        int drained = 0;
+        List<PendingDispatch> dropped = new ArrayList<>();
+
+        // Region-threaded servers can't run player-bound actions from here, so only report them
+        boolean canRunInline = !plugin.getTaskScheduler().isFolia();
+
+        for (PendingDispatch dispatch : pendingDispatches) {
+            if (!canRunInline || System.nanoTime() >= deadlineNanos) {
+                dropped.add(dispatch);
+                continue;
+            }
+            try {
+                runDispatch(dispatch, true);
+                drained++;
+            } catch (Exception e) {
+                plugin.getLogger().warning("Error draining command dispatch for " + dispatch.player.getName()
+                        + ": " + e.getMessage());
+                dispatch.complete();
+            }
+        }
+        pendingDispatches.clear();
+
+        if (drained > 0) {
+            plugin.getLogger().info("Drained " + drained + " pending command dispatch(es) before shutdown");
+        }
+
+        // The wheel's task is already stopped, so sequences still waiting on a [delay] cannot finish
+        List<DelayedStep> delayed = delayedSteps.clear();
+        if (!delayed.isEmpty()) {
+            plugin.getLogger().warning("Dropped " + delayed.size() + " delayed action sequence(s) at shutdown");
+            for (DelayedStep step : delayed) {
+                plugin.getAuditLog().recordDrop(step.dispatch.player.getName(), String.valueOf(step.remaining()));
+                step.dispatch.complete();
+            }
+        }
+        if (!dropped.isEmpty()) {
+            plugin.getLogger().warning((canRunInline ? "Shutdown drain budget exceeded" : "Region-threaded server")
+                    + ", dropped " + dropped.size() + " command dispatch(es):");
+            dropped.forEach(PendingDispatch::complete);
+            int reported = 0;
+            for (PendingDispatch dispatch : dropped) {
+                plugin.getAuditLog().recordDrop(dispatch.player.getName(), String.valueOf(dispatch.commands));
+                if (reported++ == MAX_REPORTED_DROPS) {
+                    plugin.getLogger().warning("  ... and " + (dropped.size() - MAX_REPORTED_DROPS) + " more");
+                    break;
+                }
+                plugin.getLogger().warning("  " + dispatch.player.getName() + ": " + dispatch.commands);
+            }
+        }
+    }
+
+    public int getPendingDispatchCount() {
+        return pendingDispatches.size();
+    }
+
+    // One click's worth of commands between acceptance and execution
+    private final class PendingDispatch {
+        private final Player player;
+        private final PlayerSession session;
+        private final String recipeId;
+        private final int position;
+        private final List<String> commands;
+        private final DispatchSink sink;
+        private final Runnable onComplete;
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+        // The first caller of getProcessedCommands prepares; any other caller waits for that result
+        private final AtomicBoolean prepareClaimed = new AtomicBoolean(false);
+        private final CompletableFuture<List<String>> processedCommands = new CompletableFuture<>();
+
+        private PendingDispatch(Player player, PlayerSession session, String recipeId, int position,
+                                List<String> commands, DispatchSink sink, Runnable onComplete) {
+            this.player = player;
+            this.session = session;
+            this.recipeId = recipeId;
+            this.position = position;
+            this.commands = commands;
+            this.sink = sink;
+            this.onComplete = onComplete;
+        }
+
+        private void complete() {
+            if (onComplete != null && completed.compareAndSet(false, true)) {
+                onComplete.run();
+            }
+        }
+
+        // Placeholders only; [if ...] templates are kept whole and decided when runCommandsFrom reaches them
+        private List<String> prepare() {
+            List<String> processed = new ArrayList<>(commands.size());
+            for (String command : commands) {
+                if (command == null || command.trim().isEmpty()) continue;
+
+                String action = command.trim();
+                // Messages keep their template instance, so the send finds the component compiled for it
+                processed.add(action.startsWith(MESSAGE_PREFIX) || ConditionalAction.isConditional(action) ? action
+                        : replacePlaceholdersOptimized(action, player, session));
+            }
+            return processed;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        // Prepared exactly once, so placeholders never expand twice; the shutdown drain
+        // prepares inline if the async step has not started, or waits for it if it is running
+        private List<String> getProcessedCommands() {
+            if (prepareClaimed.compareAndSet(false, true)) {
+                try {
+                    processedCommands.complete(prepare());
+                } catch (RuntimeException e) {
+                    processedCommands.completeExceptionally(e);
+                    throw e;
+                }
+            }
+            return processedCommands.join();
+        }
+    }
+
+    // Where a dispatch paused on [delay]: its commands from index next onwards
+    private static final class DelayedStep {
+        private final PendingDispatch dispatch;
+        private final List<String> commands;
+        private final int next;
+
+        private DelayedStep(PendingDispatch dispatch, List<String> commands, int next) {
+            this.dispatch = dispatch;
+            this.commands = commands;
+            this.next = next;
+        }
+
+        private List<String> remaining() {
+            return commands.subList(next, commands.size());
+        }
+    }
+
+    // Default sink: performs each action with the real console, player or OP state
+    private final class LiveSink implements DispatchSink {
+        @Override
+        public void console(Player player, String command) {
+            executeConsoleCommandOptimized(player, command);
+        }
+
+        @Override
+        public void op(Player player, String command) {
+            executeOpCommandOptimized(player, command);
+        }
+
+        @Override
+        public void playerCommand(Player player, String command) {
+            executePlayerCommandOptimized(player, command);
+        }
+
+        @Override
+        public void message(Player player, Component message) {
+            sendMessageOptimized(player, message);
+        }
+
+        @Override
+        public void closeInventory(Player player) {
+            debug.log(DebugCategory.DISPATCH, () -> "Closing inventory for " + player.getName());
+            player.closeInventory();
         }
     }
 
     // Synchronous execution on main thread for Bukkit API compatibility
-    private void executeCommandSync(Player player, String command) {
+    private void executeCommandSync(PendingDispatch dispatch, String command) {
+        Player player = dispatch.player;
+        DispatchSink sink = dispatch.sink;
+        if (sink == liveSink) {
+            plugin.getAuditLog().recordDispatch(player, command);
+        }
+
+        ActionExecuteEvent actionEvent = new ActionExecuteEvent();
+        actionEvent.begin();
         try {
             if (command.startsWith(CONSOLE_PREFIX)) {
-                executeConsoleCommandOptimized(command.substring(CONSOLE_PREFIX.length()).trim());
+                sink.console(player, command.substring(CONSOLE_PREFIX.length()).trim());
             } else if (command.startsWith(OP_PREFIX)) {
-                executeOpCommandOptimized(player, command.substring(OP_PREFIX.length()).trim());
+                sink.op(player, command.substring(OP_PREFIX.length()).trim());
             } else if (command.startsWith(PLAYER_PREFIX)) {
-                executePlayerCommandOptimized(player, command.substring(PLAYER_PREFIX.length()).trim());
+                sink.playerCommand(player, command.substring(PLAYER_PREFIX.length()).trim());
             } else if (command.startsWith(MESSAGE_PREFIX)) {
-                sendMessageOptimized(player, command.substring(MESSAGE_PREFIX.length()).trim());
+                MessageTemplate message = messageFor(command);
+                if (!message.isEmpty()) {
+                    sink.message(player, message.hasPlaceholders()
+                            ? message.render(player, getPlayerPlaceholderValues(player, dispatch.session))
+                            : message.getComponent());
+                }
+            } else if (command.startsWith(CHAIN_PREFIX)) {
+                executeChainAction(dispatch, command.substring(CHAIN_PREFIX.length()).trim());
+            } else if (command.startsWith(CLOSE_PREFIX)) {
+                sink.closeInventory(player);
             } else {
                 // Default to console command if no prefix
-                executeConsoleCommandOptimized(command);
+                sink.console(player, command);
             }
         } catch (Exception e) {
             plugin.getLogger().warning("Error executing command: " + command + " - " + e.getMessage());
+        } finally {
+            actionEvent.end();
+            if (actionEvent.shouldCommit()) {
+                actionEvent.player = player.getName();
+                actionEvent.recipeId = dispatch.recipeId;
+                actionEvent.position = dispatch.position;
+                actionEvent.actionType = actionType(command);
+                actionEvent.action = command;
+                actionEvent.commit();
+            }
         }
     }
 
-    // Optimized console command execution
-    private void executeConsoleCommandOptimized(String command) {
+    // Action type label for diagnostics, matching the prefix rules in executeCommandSync
+    private static String actionType(String command) {
+        if (command.startsWith(OP_PREFIX)) return "op";
+        if (command.startsWith(PLAYER_PREFIX)) return "player";
+        if (command.startsWith(MESSAGE_PREFIX)) return "message";
+        if (command.startsWith(CHAIN_PREFIX)) return "chain";
+        if (command.startsWith(CLOSE_PREFIX)) return "close";
+        return "console";
+    }
+
+    // Optimized console command execution; replies go wherever console-actions.feedback sends them
+    private void executeConsoleCommandOptimized(Player player, String command) {
         if (command.isEmpty()) return;
 
-        try {
-            if (plugin.getConfigManager() != null && plugin.getConfigManager().isDebugEnabled()) {
-                plugin.getLogger().info("Executing console command: " + command);
-            }
-        } catch (Exception e) {
-            // Ignore if plugin is not fully initialized
-        }
+        debug.log(DebugCategory.DISPATCH, () -> "Executing console command: " + command);
 
         try {
-            Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
+            consoleSender.dispatch(player.getName(), command);
         } catch (Exception e) {
             plugin.getLogger().warning("Error executing console command: " + command);
             plugin.getLogger().warning("Error: " + e.getMessage());
         }
     }
 
+    // [chain] <crafting>: open the deepest ingredient crafting below <crafting> in one step. Without an
+    // argument the chain starts at the ingredient the clicked position links to.
+    private void executeChainAction(PendingDispatch dispatch, String argument) {
+        Player player = dispatch.player;
+        RecipeGraph graph = plugin.getConfigManager().getRecipeGraph();
+        PlayerInventoryIndex inventory = plugin.getInventoryIndex();
+        String start = argument.isEmpty() ? null : argument.split("\\s+", 2)[0];
+
+        // Ingredients the player already holds are skipped, so the chain stops at what is actually missing
+        Predicate<String> owned = recipeId -> inventory != null && inventory.has(player.getUniqueId(), recipeId, 1);
+        String target;
+        String crafting;
+        if (start == null) {
+            target = graph.findChainTarget(dispatch.recipeId, dispatch.position, owned);
+            crafting = target != null ? graph.getCrafting(target) : null;
+        } else {
+            String startId = graph.resolveCrafting(start);
+            target = startId != null ? graph.findChainTarget(startId, owned) : null;
+            if (target == null && !graph.isKnownCrafting(start)) {
+                if (unknownChainTargets.add(start.toLowerCase(Locale.ROOT))) {
+                    plugin.getLogger().warning("[chain] " + start + " in " + dispatch.recipeId + " position "
+                            + dispatch.position + " names no configured recipe or EpicCraftingsPlus crafting");
+                }
+                return;
+            }
+            // A crafting outside the graph has nothing to descend into; open it as named
+            crafting = target == null || target.equals(startId) ? start : graph.getCrafting(target);
+        }
+        if (crafting == null) {
+            debug.log(DebugCategory.DISPATCH, () -> "No craft chain from " + dispatch.recipeId
+                    + " position " + dispatch.position + " for " + player.getName());
+            return;
+        }
+
+        debug.log(DebugCategory.DISPATCH, () -> "Craft chain for " + player.getName() + ": "
+                + dispatch.recipeId + " -> " + (target != null ? target : start));
+        dispatch.sink.console(player, OPEN_CRAFT_COMMAND + player.getName() + " " + crafting);
+    }
+
     // Optimized OP command execution with better state management
     private void executeOpCommandOptimized(Player player, String command) {
         if (command.isEmpty()) return;
 
-        try {
-            if (plugin.getConfigManager() != null && plugin.getConfigManager().isDebugEnabled()) {
-                plugin.getLogger().info("Executing OP command for " + player.getName() + ": " + command);
-            }
-        } catch (Exception e) {
-            // Ignore if plugin is not fully initialized
-        }
+        debug.log(DebugCategory.DISPATCH, () -> "Executing OP command for " + player.getName()
+                + ": " + command);
 
         boolean wasOp = player.isOp();
 
@@ -166,13 +624,8 @@ public class CommandExecutor {
     private void executePlayerCommandOptimized(Player player, String command) {
         if (command.isEmpty()) return;
 
-        try {
-            if (plugin.getConfigManager() != null && plugin.getConfigManager().isDebugEnabled()) {
-                plugin.getLogger().info("Executing player command for " + player.getName() + ": " + command);
-            }
-        } catch (Exception e) {
-            // Ignore if plugin is not fully initialized
-        }
+        debug.log(DebugCategory.DISPATCH, () -> "Executing player command for " + player.getName()
+                + ": " + command);
 
         try {
             player.performCommand(command);
@@ -182,45 +635,28 @@ public class CommandExecutor {
         }
     }
 
-    // Optimized message sending with color code caching
-    private void sendMessageOptimized(Player player, String message) {
-        if (message.isEmpty()) return;
+    // Compiled at config load; only an action from before a reload (or outside the tables) compiles here
+    private MessageTemplate messageFor(String action) {
+        ConfigSnapshot snapshot = plugin.getConfigManager().getSnapshot();
+        MessageTemplate message = snapshot.getMessage(action);
+        return message != null ? message : MessageTemplate.compile(action, snapshot.getSettings().getMessageFormat());
+    }
 
-        try {
-            if (plugin.getConfigManager() != null && plugin.getConfigManager().isDebugEnabled()) {
-                plugin.getLogger().info("Sending message to " + player.getName() + ": " + message);
-            }
-        } catch (Exception e) {
-            // Ignore if plugin is not fully initialized
-        }
+    // Paper's native component send; placeholders were filled in when the message was rendered
+    private void sendMessageOptimized(Player player, Component message) {
+        debug.log(DebugCategory.DISPATCH, () -> "Sending message to " + player.getName() + ": "
+                + PlainTextComponentSerializer.plainText().serialize(message));
 
         try {
-            // Cache color-translated messages for better performance
-            String cacheKey = "msg:" + message;
-            String coloredMessage = placeholderCache.get(cacheKey);
-
-            if (coloredMessage == null) {
-                coloredMessage = ChatColor.translateAlternateColorCodes('&', message);
-                // Only cache if it's worth it (has color codes)
-                if (message.contains("&")) {
-                    placeholderCache.put(cacheKey, coloredMessage);
-                }
-            }
-
-            player.sendMessage(coloredMessage);
+            player.sendMessage(message);
         } catch (Exception e) {
-            plugin.getLogger().warning("Error sending message to " + player.getName() + ": " + message);
-            plugin.getLogger().warning("Error: " + e.getMessage());
+            plugin.getLogger().warning("Error sending message to " + player.getName() + ": " + e.getMessage());
         }
     }
 
     // Highly optimized placeholder replacement using pre-compiled patterns and caching
-    private String replacePlaceholdersOptimized(String command, Player player) {
-        // Create cache key for this player's placeholders
-        String playerCacheKey = player.getUniqueId().toString();
-
-        // Check if we have cached placeholder values for this player
-        Map<String, String> playerValues = getPlayerPlaceholderValues(player, playerCacheKey);
+    private String replacePlaceholdersOptimized(String command, Player player, PlayerSession session) {
+        Map<String, String> playerValues = getPlayerPlaceholderValues(player, session);
 
         String result = command;
 
@@ -237,31 +673,14 @@ public class CommandExecutor {
         return result;
     }
 
-    // Get placeholder values with caching for better performance
-    private Map<String, String> getPlayerPlaceholderValues(Player player, String cacheKey) {
-        // Create a temporary map for current values (location can change frequently)
-        Map<String, String> values = new ConcurrentHashMap<>();
-
-        // Cache stable values
-        String stableCacheKey = cacheKey + ":stable";
-        String stableValues = placeholderCache.get(stableCacheKey);
+    // Name and UUID strings come from the player's session, display name and location are read fresh
+    private Map<String, String> getPlayerPlaceholderValues(Player player, PlayerSession session) {
+        Map<String, String> values = new HashMap<>(16);
 
-        if (stableValues == null) {
-            // Cache stable player data
-            values.put("player", player.getName());
-            values.put("player_name", player.getName());
-            values.put("player_uuid", player.getUniqueId().toString());
-            values.put("player_displayname", player.getDisplayName());
-
-            // Store in cache
-            placeholderCache.put(stableCacheKey, "cached");
-        } else {
-            // Retrieve from cache
-            values.put("player", player.getName());
-            values.put("player_name", player.getName());
-            values.put("player_uuid", player.getUniqueId().toString());
-            values.put("player_displayname", player.getDisplayName());
-        }
+        values.put("player", session.getPlayerName());
+        values.put("player_name", session.getPlayerName());
+        values.put("player_uuid", session.getPlayerIdString());
+        values.put("player_displayname", player.getDisplayName());
 
         // Always get fresh location data (changes frequently)
         values.put("world", player.getWorld().getName());
@@ -271,68 +690,4 @@ public class CommandExecutor {
 
         return values;
     }
-
-    // Cache management methods
-    public void clearPlaceholderCache() {
-        placeholderCache.clear();
-        try {
-            if (plugin.getConfigManager() != null && plugin.getConfigManager().isDebugEnabled()) {
-                plugin.getLogger().info("Placeholder cache cleared");
-            }
-        } catch (Exception e) {
-            // Ignore if plugin is not fully initialized
-            plugin.getLogger().info("Placeholder cache cleared");
-        }
-    }
-
-    public int getPlaceholderCacheSize() {
-        return placeholderCache.size();
-    }
-
-    // Cleanup method to remove old cache entries
-    public void cleanupCache() {
-        // Remove old cache entries to prevent memory leaks
-        if (placeholderCache.size() > 1000) {
-            placeholderCache.clear();
-            try {
-                if (plugin.getConfigManager() != null && plugin.getConfigManager().isDebugEnabled()) {
-                    plugin.getLogger().info("Placeholder cache cleared due to size limit");
-                }
-            } catch (Exception e) {
-                // Ignore if plugin is not fully initialized
-                plugin.getLogger().info("Placeholder cache cleared due to size limit");
-            }
-        }
-    }
-
-    // Batch command execution for better performance when executing multiple commands
-    public void executeCommands(Player player, java.util.List<String> commands) {
-        if (commands == null || commands.isEmpty()) return;
-
-        // Process all commands asynchronously first, then execute in batch
-        CompletableFuture.runAsync(() -> {
-            java.util.List<String> processedCommands = new java.util.ArrayList<>();
-
-            for (String command : commands) {
-                if (command != null && !command.trim().isEmpty()) {
-                    String processed = replacePlaceholdersOptimized(command.trim(), player);
-                    processedCommands.add(processed);
-                }
-            }
-
-            // Execute all processed commands on main thread
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    for (String command : processedCommands) {
-                        executeCommandSync(player, command);
-                    }
-                }
-            }.runTask(plugin);
-
-        }).exceptionally(throwable -> {
-            plugin.getLogger().warning("Batch command processing failed: " + throwable.getMessage());
-            return null;
-        });
-    }
-}
\ No newline at end of file
+}
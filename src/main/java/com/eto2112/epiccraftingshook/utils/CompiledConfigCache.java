@@ -0,0 +1,240 @@
+package com.eto2112.epiccraftingshook.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Binary cache of the compiled config tables, keyed by a hash of config.yml and the EpicCraftingsPlus files
+// that menu layouts and crafting links are read from
+public final class CompiledConfigCache {
+
+    private static final int MAGIC = 0x45434843; // "ECHC"
+    private static final int FORMAT_VERSION = 15;
+    private static final int HASH_LENGTH = 32;
+    private static final int HEADER_LENGTH = 4 + 4 + HASH_LENGTH;
+
+    private final File sourceFile;
+    private final File cacheFile;
+    private final String pluginVersion;
+    private final Logger logger;
+
+    public CompiledConfigCache(File sourceFile, File cacheFile, String pluginVersion, Logger logger) {
+        this.sourceFile = sourceFile;
+        this.cacheFile = cacheFile;
+        this.pluginVersion = pluginVersion != null ? pluginVersion : "";
+        this.logger = logger;
+    }
+
+    // SHA-256 over the source YAML and the plugin version, so upgrades invalidate the cache, plus the
+    // EpicCraftingsPlus version and the path, size and modification time of every YAML file in its folder.
+    // Its files are only stat'ed, not read. dependencyFolder may be null when EpicCraftingsPlus isn't loaded.
+    public byte[] hashSource(File dependencyFolder, String dependencyVersion) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Files.readAllBytes(sourceFile.toPath()));
+            digest.update(pluginVersion.getBytes(StandardCharsets.UTF_8));
+            digest.update((dependencyVersion != null ? dependencyVersion : "").getBytes(StandardCharsets.UTF_8));
+            if (dependencyFolder != null && dependencyFolder.isDirectory()) {
+                hashFileStats(digest, dependencyFolder.toPath());
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+    }
+
+    // Sorted so the walk order of the file system never changes the hash
+    private static void hashFileStats(MessageDigest digest, Path folder) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(folder)) {
+            files = walk.filter(path -> path.getFileName().toString().endsWith(".yml") && Files.isRegularFile(path))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        ByteBuffer stats = ByteBuffer.allocate(16);
+        for (Path file : files) {
+            digest.update(folder.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+            stats.clear();
+            stats.putLong(Files.size(file)).putLong(Files.getLastModifiedTime(file).toMillis());
+            digest.update(stats.array());
+        }
+    }
+
+    // Returns the cached snapshot, or null when missing, stale or unreadable
+    public ConfigSnapshot load(byte[] sourceHash) {
+        if (!cacheFile.isFile()) return null;
+
+        try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_LENGTH) return null;
+
+            // Check the header with a plain read so a stale file is never mapped
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Fill the header buffer
+            }
+            header.flip();
+            if (header.remaining() < HEADER_LENGTH || header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            byte[] storedHash = new byte[HASH_LENGTH];
+            header.get(storedHash);
+            if (!Arrays.equals(storedHash, sourceHash)) return null;
+
+            MappedByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH, size - HEADER_LENGTH);
+            return readSnapshot(body);
+
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Ignoring unreadable compiled config cache: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Write the snapshot to a temp file and move it into place
+    public void save(ConfigSnapshot snapshot, byte[] sourceHash) {
+        File directory = cacheFile.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            logger.warning("Could not create cache directory: " + directory);
+            return;
+        }
+
+        // A temp file per save, so overlapping reloads never write into each other's file
+        File tempFile;
+        try {
+            tempFile = Files.createTempFile(cacheFile.getAbsoluteFile().getParentFile().toPath(),
+                    cacheFile.getName(), ".tmp").toFile();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not create compiled config cache temp file", e);
+            return;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tempFile.toPath())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.write(sourceHash);
+            writeSnapshot(out, snapshot);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not write compiled config cache", e);
+            deleteQuietly(tempFile);
+            return;
+        }
+
+        try {
+            Files.move(tempFile.toPath(), cacheFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException moveError) {
+                logger.log(Level.WARNING, "Could not replace compiled config cache", moveError);
+                deleteQuietly(tempFile);
+            }
+        }
+    }
+
+    private void deleteQuietly(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            logger.fine("Could not delete " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static void writeSnapshot(DataOutputStream out, ConfigSnapshot snapshot) throws IOException {
+        // Settings
+        snapshot.getSettings().write(out);
+
+        // Slot table
+        Map<Integer, Integer> slotMapping = snapshot.getSlotMapping();
+        out.writeInt(slotMapping.size());
+        for (Map.Entry<Integer, Integer> entry : slotMapping.entrySet()) {
+            out.writeInt(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+
+        // Recipe -> [position][click kind] action templates
+        Map<String, ActionTable> actionTables = snapshot.getActionTables();
+        out.writeInt(actionTables.size());
+        for (Map.Entry<String, ActionTable> recipe : actionTables.entrySet()) {
+            writeString(out, recipe.getKey());
+            recipe.getValue().write(out);
+        }
+
+        // Parse warnings, replayed when the snapshot is applied from the cache
+        List<String> warnings = snapshot.getLoadWarnings();
+        out.writeInt(warnings.size());
+        for (String warning : warnings) {
+            writeString(out, warning);
+        }
+    }
+
+    private static ConfigSnapshot readSnapshot(ByteBuffer in) {
+        PluginSettings settings = PluginSettings.read(in);
+
+        int slotCount = readCount(in);
+        Map<Integer, Integer> slotMapping = new HashMap<>(slotCount * 2);
+        for (int i = 0; i < slotCount; i++) {
+            slotMapping.put(in.getInt(), in.getInt());
+        }
+
+        int recipeCount = readCount(in);
+        Map<String, ActionTable> actionTables = new HashMap<>(recipeCount * 2);
+        for (int i = 0; i < recipeCount; i++) {
+            String recipeKey = readString(in);
+            actionTables.put(recipeKey, ActionTable.read(in));
+        }
+
+        int warningCount = readCount(in);
+        List<String> warnings = new ArrayList<>(warningCount);
+        for (int i = 0; i < warningCount; i++) {
+            warnings.add(readString(in));
+        }
+
+        return new ConfigSnapshot(Collections.unmodifiableMap(slotMapping), Collections.unmodifiableMap(actionTables),
+                settings, Collections.unmodifiableList(warnings));
+    }
+
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(ByteBuffer in) {
+        int length = readCount(in);
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Guard against corrupt lengths before allocating
+    public static int readCount(ByteBuffer in) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalStateException("Corrupt length " + count);
+        }
+        return count;
+    }
+}
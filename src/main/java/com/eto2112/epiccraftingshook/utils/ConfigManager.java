@@ -1,61 +1,165 @@
 package com.eto2112.epiccraftingshook.utils;
 
 import com.eto2112.epiccraftingshook.EpicCraftingsHookPlugin;
+import com.eto2112.epiccraftingshook.condition.ConditionalAction;
+import com.eto2112.epiccraftingshook.debug.DebugCategory;
+import com.eto2112.epiccraftingshook.graph.RecipeGraph;
+import com.eto2112.epiccraftingshook.jfr.ConfigLoadEvent;
+import com.eto2112.epiccraftingshook.resolver.ResolverChain;
+import ecp.ajneb97.EpicCraftingsPlus;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.configuration.file.YamlConfiguration;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class ConfigManager {
 
-    private final EpicCraftingsHookPlugin plugin;
+    private static final String CONFIG_FILE = "config.yml";
+    private static final String COMPILED_CACHE_FILE = "cache/compiled-config.bin";
 
-    // Thread-safe configuration storage
-    private volatile FileConfiguration config;
-    private final AtomicReference<Map<Integer, Integer>> slotMapping = new AtomicReference<>();
-    private final AtomicReference<Map<String, Map<Integer, List<String>>>> itemCommands = new AtomicReference<>();
+    private final EpicCraftingsHookPlugin plugin;
 
-    // Performance caches with thread-safe access
-    private final Map<String, List<String>> commandCache = new ConcurrentHashMap<>();
-    private final Map<Integer, Integer> positionCache = new ConcurrentHashMap<>();
-    private final Map<Integer, Boolean> requireSlotCache = new ConcurrentHashMap<>();
+    // Compiled configuration, replaced as a whole so readers never see a half-loaded state
+    private final AtomicReference<ConfigSnapshot> snapshot = new AtomicReference<>(ConfigSnapshot.EMPTY);
 
-    // Configuration value caches to avoid repeated config access
-    private volatile boolean debugEnabled;
-    private volatile boolean cooldownEnabled;
-    private volatile int cooldownDuration;
-    private volatile String configVersion;
-    private volatile Set<String> configuredRecipes;
+    // Binary cache of compiled tables, skips YAML parsing when config.yml is unchanged
+    private final CompiledConfigCache compiledCache;
 
-    // Cache invalidation flag
-    private volatile boolean cacheValid = false;
+    // Bumped by every reload; a load that finishes after a newer reload started is never applied
+    private final AtomicLong reloadGeneration = new AtomicLong();
 
     public ConfigManager(EpicCraftingsHookPlugin plugin) {
         this.plugin = plugin;
-        loadConfig();
+        this.compiledCache = new CompiledConfigCache(
+                new File(plugin.getDataFolder(), CONFIG_FILE),
+                new File(plugin.getDataFolder(), COMPILED_CACHE_FILE),
+                plugin.getDescription().getVersion(),
+                plugin.getLogger());
     }
 
+    // Synchronous load on the calling thread
     public void loadConfig() {
-        // Load configuration synchronously
         plugin.saveDefaultConfig();
-        plugin.reloadConfig();
-        config = plugin.getConfig();
+        applySnapshot(loadSnapshot(null));
+        plugin.getLogger().info("Configuration loaded successfully!");
+    }
+
+    // Load from the compiled cache when config.yml is unchanged, otherwise parse, compile and refresh it.
+    // Safe to call off the main thread; the timer may be null.
+    public ConfigSnapshot loadSnapshot(PhaseTimer timer) {
+        ConfigLoadEvent loadEvent = new ConfigLoadEvent();
+        loadEvent.begin();
+
+        long phaseStart = System.nanoTime();
+        byte[] sourceHash = null;
+        try {
+            EpicCraftingsPlus epicCraftings = plugin.getEpicCraftings();
+            sourceHash = epicCraftings != null
+                    ? compiledCache.hashSource(epicCraftings.getDataFolder(), epicCraftings.getDescription().getVersion())
+                    : compiledCache.hashSource(null, null);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not hash " + CONFIG_FILE + ", skipping compiled cache: " + e.getMessage());
+        }
 
-        // Load all configuration data
-        loadSlotMappingOptimized();
-        loadItemCommandsOptimized();
-        cacheConfigurationValues();
+        if (sourceHash != null) {
+            ConfigSnapshot cached = compiledCache.load(sourceHash);
+            if (cached != null) {
+                if (timer != null) timer.record("config-cache", phaseStart);
+                plugin.getLogger().info("Loaded commands for " + cached.getItemCommands().size()
+                        + " recipes from compiled cache");
+                commitLoadEvent(loadEvent, "cache", cached);
+                return cached;
+            }
+        }
 
-        // Rebuild performance caches
-        rebuildCaches();
+        phaseStart = System.nanoTime();
+        FileConfiguration yaml = readConfigFile();
+        if (timer != null) timer.record("config-parse", phaseStart);
 
-        // Mark caches as valid
-        cacheValid = true;
+        phaseStart = System.nanoTime();
+        ConfigSnapshot compiled = compile(yaml);
+        if (timer != null) timer.record("config-compile", phaseStart);
 
-        plugin.getLogger().info("Configuration loaded successfully!");
+        if (sourceHash != null) {
+            phaseStart = System.nanoTime();
+            compiledCache.save(compiled, sourceHash);
+            if (timer != null) timer.record("config-cache-write", phaseStart);
+        }
+        commitLoadEvent(loadEvent, "yaml", compiled);
+        return compiled;
+    }
+
+    private static void commitLoadEvent(ConfigLoadEvent loadEvent, String source, ConfigSnapshot loaded) {
+        loadEvent.end();
+        if (loadEvent.shouldCommit()) {
+            loadEvent.source = source;
+            loadEvent.recipeCount = loaded.getConfiguredRecipes().size();
+            loadEvent.commit();
+        }
+    }
+
+    // Pure file I/O and YAML parsing, safe to call off the main thread
+    public FileConfiguration readConfigFile() {
+        return YamlConfiguration.loadConfiguration(new File(plugin.getDataFolder(), CONFIG_FILE));
+    }
+
+    // Compile parsed YAML into an immutable snapshot, safe to call off the main thread
+    public ConfigSnapshot compile(FileConfiguration config) {
+        List<String> warnings = new ArrayList<>();
+        Map<Integer, Integer> mapping = loadSlotMappingOptimized(config, warnings);
+        Map<String, ActionTable> actionTables = loadItemCommandsOptimized(config, warnings);
+
+        return new ConfigSnapshot(mapping, actionTables, PluginSettings.fromConfig(config),
+                Collections.unmodifiableList(warnings));
+    }
+
+    // Publish a compiled snapshot; readers switch over atomically
+    public void applySnapshot(ConfigSnapshot compiled) {
+        // Crafting definitions are EpicCraftingsPlus state, so the graph is built here on the main thread and
+        // published in the same immutable snapshot as the tables it was built from
+        RecipeGraph graph = RecipeGraph.build(compiled.getItemCommands(),
+                plugin.getEpicCraftings().getCraftingsManager().getCraftings());
+        ConfigSnapshot newSnapshot = compiled.withRecipeGraph(graph);
+
+        snapshot.set(newSnapshot);
+
+        // Debug toggles and rate limits take effect with the new snapshot
+        plugin.getDebugChannel().reconfigure(newSnapshot.getSettings().getDebug());
+        plugin.getDebugChannel().log(DebugCategory.CONFIG, () -> "Applied config version "
+                + newSnapshot.getConfigVersion() + ": " + newSnapshot.getConfiguredRecipes().size() + " recipes, "
+                + newSnapshot.getSlotMapping().size() + " mapped slots");
+
+        // Kept in the snapshot (and the compiled cache), so a cache hit reports them like a fresh parse
+        for (String warning : newSnapshot.getLoadWarnings()) {
+            plugin.getLogger().warning(warning);
+        }
+        for (ConditionalAction invalid : newSnapshot.getInvalidConditions()) {
+            plugin.getLogger().warning("Invalid condition (" + invalid.getError() + "), action will never run: "
+                    + invalid.getTemplate());
+        }
+
+        // Start, stop or restart the audit writer if its settings changed
+        if (plugin.getAuditLog() != null) {
+            plugin.getAuditLog().reconfigure(newSnapshot.getSettings().getAudit());
+        }
+
+        plugin.getDebugChannel().log(DebugCategory.CONFIG, () -> "Recipe graph: " + graph.getNodeCount() + " nodes");
+
+        // Re-lay click counters over the new recipe table
+        if (plugin.getClickHeatmap() != null) {
+            plugin.getClickHeatmap().rebind(newSnapshot);
+        }
+
+        // Indexed ids depend on the resolver tables; rescan everyone against the new ones
+        if (plugin.getInventoryIndex() != null) {
+            plugin.getInventoryIndex().rescanAll();
+        }
 
         // Notify listener to clear its caches if it exists
         if (plugin.getMenuListener() != null) {
@@ -63,8 +167,17 @@ public class ConfigManager {
         }
     }
 
+    // True once the first snapshot has been applied
+    public boolean isLoaded() {
+        return snapshot.get() != ConfigSnapshot.EMPTY;
+    }
+
+    public ConfigSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
     // Optimized slot mapping loading with better data structures
-    private void loadSlotMappingOptimized() {
+    private Map<Integer, Integer> loadSlotMappingOptimized(FileConfiguration config, List<String> warnings) {
         Map<Integer, Integer> newMapping = new HashMap<>();
         ConfigurationSection mappingSection = config.getConfigurationSection("slot-mapping.positions");
 
@@ -77,7 +190,7 @@ public class ConfigManager {
                     int slot = mappingSection.getInt(key);
                     newMapping.put(position, slot);
                 } catch (NumberFormatException e) {
-                    plugin.getLogger().warning("Invalid slot mapping: " + key);
+                    warnings.add("Invalid slot mapping: " + key);
                 }
             }
         }
@@ -90,13 +203,13 @@ public class ConfigManager {
             newMapping.put(9, 28);  newMapping.put(10, 29); newMapping.put(11, 30); newMapping.put(12, 31);
         }
 
-        // Atomic update
-        slotMapping.set(Collections.unmodifiableMap(newMapping));
+        return Collections.unmodifiableMap(newMapping);
     }
 
-    // Optimized command loading with reduced object creation
-    private void loadItemCommandsOptimized() {
-        Map<String, Map<Integer, List<String>>> newCommands = new HashMap<>();
+    // Optimized command loading with reduced object creation. A position holds either an action list, which
+    // applies to left and right clicks, or a section keyed by click kind (left, right, shift-left, ...)
+    private Map<String, ActionTable> loadItemCommandsOptimized(FileConfiguration config, List<String> warnings) {
+        Map<String, ActionTable> newCommands = new HashMap<>();
         ConfigurationSection commandsSection = config.getConfigurationSection("items-command");
 
         if (commandsSection != null) {
@@ -106,32 +219,65 @@ public class ConfigManager {
                 ConfigurationSection recipeSection = commandsSection.getConfigurationSection(recipeKey);
                 if (recipeSection == null) continue;
 
-                Map<Integer, List<String>> recipeCommands = new HashMap<>();
+                Map<Integer, Map<ClickKind, List<String>>> recipeCommands = new HashMap<>();
                 Set<String> slotKeys = recipeSection.getKeys(false);
 
                 for (String slotKey : slotKeys) {
                     try {
                         int slot = Integer.parseInt(slotKey);
-                        List<String> commands = parseCommandsOptimized(recipeSection.get(slotKey));
+                        if (slot < 0) {
+                            warnings.add("Invalid slot number in " + recipeKey + ": " + slotKey);
+                            continue;
+                        }
 
-                        if (!commands.isEmpty()) {
-                            // Store immutable list for better performance
-                            recipeCommands.put(slot, Collections.unmodifiableList(commands));
+                        Map<ClickKind, List<String>> byKind = parseClickActions(recipeKey, slotKey,
+                                recipeSection.get(slotKey), warnings);
+                        if (!byKind.isEmpty()) {
+                            recipeCommands.put(slot, byKind);
                         }
                     } catch (NumberFormatException e) {
-                        plugin.getLogger().warning("Invalid slot number in " + recipeKey + ": " + slotKey);
+                        warnings.add("Invalid slot number in " + recipeKey + ": " + slotKey);
                     }
                 }
 
                 if (!recipeCommands.isEmpty()) {
-                    newCommands.put(recipeKey, Collections.unmodifiableMap(recipeCommands));
+                    newCommands.put(recipeKey, ActionTable.of(recipeCommands));
                 }
             }
         }
 
-        // Atomic update with immutable map
-        itemCommands.set(Collections.unmodifiableMap(newCommands));
         plugin.getLogger().info("Loaded commands for " + newCommands.size() + " recipes");
+        return Collections.unmodifiableMap(newCommands);
+    }
+
+    private Map<ClickKind, List<String>> parseClickActions(String recipeKey, String slotKey, Object value,
+                                                           List<String> warnings) {
+        Map<ClickKind, List<String>> byKind = new EnumMap<>(ClickKind.class);
+
+        if (value instanceof ConfigurationSection) {
+            ConfigurationSection section = (ConfigurationSection) value;
+            for (String kindKey : section.getKeys(false)) {
+                ClickKind kind = ClickKind.fromConfigKey(kindKey);
+                if (kind == null) {
+                    warnings.add("Unknown click type in " + recipeKey + "." + slotKey + ": " + kindKey);
+                    continue;
+                }
+                List<String> commands = parseCommandsOptimized(section.get(kindKey));
+                if (!commands.isEmpty()) {
+                    byKind.put(kind, Collections.unmodifiableList(commands));
+                }
+            }
+            return byKind;
+        }
+
+        // Plain list: the same immutable list serves both mouse buttons
+        List<String> commands = parseCommandsOptimized(value);
+        if (!commands.isEmpty()) {
+            List<String> shared = Collections.unmodifiableList(commands);
+            byKind.put(ClickKind.LEFT, shared);
+            byKind.put(ClickKind.RIGHT, shared);
+        }
+        return byKind;
     }
 
     // Optimized command parsing with reduced string operations
@@ -146,15 +292,16 @@ public class ConfigManager {
 
             for (Object cmd : rawCommands) {
                 if (cmd != null) {
-                    String cmdStr = cmd.toString();
-                    if (!cmdStr.trim().isEmpty()) {
+                    // Stored trimmed so dispatch sees the exact template instances (compiled conditions key on them)
+                    String cmdStr = cmd.toString().trim();
+                    if (!cmdStr.isEmpty()) {
                         commands.add(cmdStr);
                     }
                 }
             }
         } else if (commandsObj instanceof String) {
-            String cmdStr = (String) commandsObj;
-            if (!cmdStr.trim().isEmpty()) {
+            String cmdStr = ((String) commandsObj).trim();
+            if (!cmdStr.isEmpty()) {
                 commands.add(cmdStr);
             }
         }
@@ -162,45 +309,13 @@ public class ConfigManager {
         return commands;
     }
 
-    // Cache frequently accessed configuration values
-    private void cacheConfigurationValues() {
-        debugEnabled = config.getBoolean("settings.debug", false);
-        cooldownEnabled = config.getBoolean("commands.cooldown.enabled", true);
-        cooldownDuration = config.getInt("commands.cooldown.duration", 1);
-        configVersion = config.getString("version", "unknown");
-
-        // Cache configured recipes set
-        Map<String, Map<Integer, List<String>>> commands = itemCommands.get();
-        configuredRecipes = commands != null ?
-                Collections.unmodifiableSet(new HashSet<>(commands.keySet())) :
-                Collections.emptySet();
-    }
-
-    // Rebuild performance caches for faster lookups
-    private void rebuildCaches() {
-        // Clear existing caches
-        commandCache.clear();
-        positionCache.clear();
-        requireSlotCache.clear();
-
-        Map<Integer, Integer> mapping = slotMapping.get();
-        if (mapping != null) {
-            // Pre-compute position lookups
-            mapping.forEach((position, slot) -> {
-                positionCache.put(slot, position);
-                requireSlotCache.put(slot, true);
-            });
-
-            // Fill in false values for non-require slots (up to standard inventory size)
-            for (int i = 0; i < 54; i++) {
-                requireSlotCache.putIfAbsent(i, false);
-            }
-        }
-    }
-
     // Core getter methods with optimized lookups
     public List<String> getCommandsForSlot(String recipeKey, int inventorySlot) {
-        if (!cacheValid || recipeKey == null) return Collections.emptyList();
+        if (recipeKey == null) return Collections.emptyList();
+
+        // Read the snapshot once so the whole lookup sees a single config version
+        ConfigSnapshot current = snapshot.get();
+        Map<String, List<String>> commandCache = current.getCommandCache();
 
         // Create cache key
         String cacheKey = recipeKey + ":" + inventorySlot;
@@ -210,16 +325,13 @@ public class ConfigManager {
         if (cached != null) return cached;
 
         // Compute result
-        Integer position = positionCache.get(inventorySlot);
+        int position = current.getPositionForSlot(inventorySlot);
         List<String> result = Collections.emptyList();
 
-        if (position != null) {
-            Map<String, Map<Integer, List<String>>> commands = itemCommands.get();
-            if (commands != null) {
-                Map<Integer, List<String>> recipeCommands = commands.get(recipeKey);
-                if (recipeCommands != null) {
-                    result = recipeCommands.getOrDefault(position, Collections.emptyList());
-                }
+        if (position != -1) {
+            Map<Integer, List<String>> recipeCommands = current.getItemCommands().get(recipeKey);
+            if (recipeCommands != null) {
+                result = recipeCommands.getOrDefault(position, Collections.emptyList());
             }
         }
 
@@ -229,113 +341,163 @@ public class ConfigManager {
     }
 
     public boolean isRequireItemSlot(int slot) {
-        return requireSlotCache.getOrDefault(slot, false);
+        return snapshot.get().isRequireItemSlot(slot);
+    }
+
+    public ResolverChain getResolverChain() {
+        return snapshot.get().getResolverChain();
+    }
+
+    // Always the graph built for the current snapshot
+    public RecipeGraph getRecipeGraph() {
+        return snapshot.get().getRecipeGraph();
+    }
+
+    public int getPositionForSlot(int slot) {
+        return snapshot.get().getPositionForSlot(slot);
     }
 
     // Cached configuration getters
     public boolean isDebugEnabled() {
-        return debugEnabled;
+        return snapshot.get().isDebugEnabled();
     }
 
     public boolean isCooldownEnabled() {
-        return cooldownEnabled;
+        return snapshot.get().isCooldownEnabled();
     }
 
     public int getCooldownDuration() {
-        return cooldownDuration;
+        return snapshot.get().getCooldownDuration();
     }
 
     public String getConfigVersion() {
-        return configVersion;
+        return snapshot.get().getConfigVersion();
+    }
+
+    public long getDrainTimeoutMillis() {
+        return snapshot.get().getSettings().getDrainTimeoutMillis();
+    }
+
+    public boolean isPrefetchEnabled() {
+        return snapshot.get().getSettings().isPrefetchEnabled();
+    }
+
+    public boolean isPrefetchAsync() {
+        return snapshot.get().getSettings().isPrefetchAsync();
+    }
+
+    public boolean isInventoryIndexEnabled() {
+        return snapshot.get().getSettings().isInventoryIndexEnabled();
+    }
+
+    public long getInventoryReconcileMillis() {
+        return snapshot.get().getSettings().getInventoryReconcileMillis();
+    }
+
+    public long getCoalesceWindowMillis() {
+        return snapshot.get().getSettings().getCoalesceWindowMillis();
     }
 
     public Set<String> getConfiguredRecipes() {
-        return configuredRecipes;
+        return snapshot.get().getConfiguredRecipes();
+    }
+
+    public RecipeIndex getRecipeIndex() {
+        return snapshot.get().getRecipeIndex();
+    }
+
+    public RecipeSummary getRecipeSummary(String recipeKey) {
+        return recipeKey != null ? snapshot.get().getRecipeSummaries().get(recipeKey) : null;
+    }
+
+    // Summaries sorted by recipe id, used for paginated listing
+    public List<RecipeSummary> getSortedSummaries() {
+        return snapshot.get().getSortedSummaries();
+    }
+
+    // Click path: dense table lookup for the click kind
+    public List<String> getCommandsForItem(String recipeKey, int position, ClickKind kind) {
+        if (recipeKey == null) return Collections.emptyList();
+
+        return snapshot.get().getActionTable(recipeKey).get(position, kind);
     }
 
-    // Admin command helpers with cached results
+    // Admin command helpers with cached results; primary click kind of the position
     public List<String> getCommandsForItem(String recipeKey, int position) {
-        if (!cacheValid || recipeKey == null) return Collections.emptyList();
+        if (recipeKey == null) return Collections.emptyList();
 
-        Map<String, Map<Integer, List<String>>> commands = itemCommands.get();
-        if (commands != null) {
-            Map<Integer, List<String>> recipeCommands = commands.get(recipeKey);
-            if (recipeCommands != null) {
-                return recipeCommands.getOrDefault(position, Collections.emptyList());
-            }
+        Map<Integer, List<String>> recipeCommands = snapshot.get().getItemCommands().get(recipeKey);
+        if (recipeCommands != null) {
+            return recipeCommands.getOrDefault(position, Collections.emptyList());
         }
         return Collections.emptyList();
     }
 
     public int getSlotFromPosition(int position) {
-        Map<Integer, Integer> mapping = slotMapping.get();
-        return mapping != null ? mapping.getOrDefault(position, -1) : -1;
+        return snapshot.get().getSlotMapping().getOrDefault(position, -1);
     }
 
-    // Async configuration reload for better performance
-    public void reloadConfiguration() {
-        // Mark caches as invalid immediately
-        cacheValid = false;
-
-        // Perform reload asynchronously to avoid blocking
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    loadConfig();
-
-                    // Log completion on main thread
-                    new BukkitRunnable() {
-                        @Override
-                        public void run() {
-                            plugin.getLogger().info("Configuration reloaded asynchronously!");
-                        }
-                    }.runTask(plugin);
+    // Async configuration reload: parse and compile off-thread, publish on the main thread
+    public CompletableFuture<Void> reloadConfiguration() {
+        // Recreate the default file if it was deleted (plugin API, so on the caller's thread)
+        plugin.saveDefaultConfig();
 
-                } catch (Exception e) {
-                    plugin.getLogger().severe("Error during async config reload: " + e.getMessage());
-                    e.printStackTrace();
-                }
-            }
-        }.runTaskAsynchronously(plugin);
+        // Overlapping reloads can finish out of order; only the newest one is applied
+        long generation = reloadGeneration.incrementAndGet();
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        CompletableFuture.supplyAsync(() -> loadSnapshot(null))
+                .thenAccept(newSnapshot -> plugin.getTaskScheduler().runGlobal(() -> {
+                    if (generation != reloadGeneration.get()) {
+                        plugin.getDebugChannel().log(DebugCategory.CONFIG,
+                                () -> "Skipped reload " + generation + ", superseded by a newer reload");
+                    } else {
+                        applySnapshot(newSnapshot);
+                        plugin.getLogger().info("Configuration reloaded asynchronously!");
+                    }
+                    result.complete(null);
+                }))
+                .exceptionally(throwable -> {
+                    plugin.getLogger().severe("Error during async config reload: " + throwable.getMessage());
+                    result.completeExceptionally(throwable);
+                    return null;
+                });
+        return result;
     }
 
     // Optimized debug info with cached data
     public void debugInfo() {
-        if (!debugEnabled) return;
+        ConfigSnapshot current = snapshot.get();
+        if (!current.isDebugEnabled()) return;
 
         plugin.getLogger().info("=== Configuration Debug Info ===");
-        plugin.getLogger().info("Version: " + configVersion);
-        plugin.getLogger().info("Configured recipes: " + configuredRecipes);
-        plugin.getLogger().info("Debug enabled: " + debugEnabled);
-        plugin.getLogger().info("Cooldown enabled: " + cooldownEnabled);
-        plugin.getLogger().info("Cooldown duration: " + cooldownDuration);
-        plugin.getLogger().info("Cache valid: " + cacheValid);
-        plugin.getLogger().info("Cached commands: " + commandCache.size());
-        plugin.getLogger().info("Position cache: " + positionCache.size());
+        plugin.getLogger().info("Version: " + current.getConfigVersion());
+        plugin.getLogger().info("Configured recipes: " + current.getConfiguredRecipes());
+        plugin.getLogger().info("Debug enabled: " + current.isDebugEnabled());
+        plugin.getLogger().info("Cooldown enabled: " + current.isCooldownEnabled());
+        plugin.getLogger().info("Cooldown duration: " + current.getCooldownDuration());
+        plugin.getLogger().info("Config loaded: " + isLoaded());
+        plugin.getLogger().info("Cached commands: " + current.getCommandCache().size());
+        plugin.getLogger().info("Slot mappings: " + current.getSlotMapping().size());
 
         // Debug each recipe with cached data
-        Map<String, Map<Integer, List<String>>> commands = itemCommands.get();
-        if (commands != null) {
-            commands.forEach((recipeKey, recipeCommands) -> {
-                plugin.getLogger().info("Recipe '" + recipeKey + "' has " + recipeCommands.size() + " configured slots");
-                recipeCommands.forEach((position, commandList) -> {
-                    plugin.getLogger().info("  Position " + position + ": " + commandList.size() + " commands");
-                });
+        current.getItemCommands().forEach((recipeKey, recipeCommands) -> {
+            plugin.getLogger().info("Recipe '" + recipeKey + "' has " + recipeCommands.size() + " configured slots");
+            recipeCommands.forEach((position, commandList) -> {
+                plugin.getLogger().info("  Position " + position + ": " + commandList.size() + " commands");
             });
-        }
+        });
     }
 
     // Cache management methods
     public void clearCommandCache() {
-        commandCache.clear();
-        if (debugEnabled) {
-            plugin.getLogger().info("Command cache cleared");
-        }
+        ConfigSnapshot current = snapshot.get();
+        current.getCommandCache().clear();
+        plugin.getDebugChannel().log(DebugCategory.CACHE, () -> "Command cache cleared");
     }
 
     public int getCommandCacheSize() {
-        return commandCache.size();
+        return snapshot.get().getCommandCache().size();
     }
 
     // Dummy methods for compatibility (optimized to return cached values)
@@ -350,4 +512,4 @@ public class ConfigManager {
     public boolean shouldCancelClick() {
         return true;
     }
-}
\ No newline at end of file
+}
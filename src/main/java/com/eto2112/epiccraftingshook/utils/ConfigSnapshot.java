@@ -0,0 +1,269 @@
+package com.eto2112.epiccraftingshook.utils;
+
+import com.eto2112.epiccraftingshook.condition.ConditionalAction;
+import com.eto2112.epiccraftingshook.graph.RecipeGraph;
+import com.eto2112.epiccraftingshook.message.MessageTemplate;
+import com.eto2112.epiccraftingshook.resolver.ResolverChain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Immutable compiled view of config.yml, swapped atomically on load/reload
+public final class ConfigSnapshot {
+
+    // Standard double chest size, the slot table is never smaller than this
+    private static final int MIN_SLOT_TABLE_SIZE = 54;
+
+    static final ConfigSnapshot EMPTY = new ConfigSnapshot(Collections.emptyMap(), Collections.emptyMap(),
+            PluginSettings.DEFAULTS, Collections.emptyList());
+
+    private final Map<Integer, Integer> slotMapping;
+    private final Map<String, ActionTable> actionTables;
+    // Primary (first configured click kind) actions per position, derived from the tables
+    private final Map<String, Map<Integer, List<String>>> itemCommands;
+
+    // Cached configuration values
+    private final PluginSettings settings;
+
+    // Problems found while parsing config.yml, logged whenever the snapshot is applied
+    private final List<String> loadWarnings;
+
+    // Derived lookup structures
+    private final int[] positionBySlot;
+    private final Set<String> configuredRecipes;
+    private final RecipeIndex recipeIndex;
+    private final Map<String, RecipeSummary> recipeSummaries;
+    private final List<RecipeSummary> sortedSummaries;
+    private final ResolverChain resolverChain;
+    // [position][click kind]: whether any recipe has actions there, for rejecting clicks before their recipe is known
+    private final boolean[][] anyActions;
+
+    // [if ...] templates compiled once, keyed by the template instances held in the action tables
+    private final Map<String, ConditionalAction> conditionalActions;
+    private final List<ConditionalAction> invalidConditions;
+
+    // [message] actions compiled to components, keyed the same way (including the action behind an [if ...])
+    private final Map<String, MessageTemplate> messages;
+
+    // Needs EpicCraftingsPlus state, so compiled snapshots hold the empty graph and the main thread publishes
+    // a copy made by withRecipeGraph
+    private final RecipeGraph recipeGraph;
+
+    // Per-snapshot lookup cache, so stale entries can never outlive a reload
+    private final Map<String, List<String>> commandCache = new ConcurrentHashMap<>();
+
+    ConfigSnapshot(Map<Integer, Integer> slotMapping, Map<String, ActionTable> actionTables,
+                   PluginSettings settings, List<String> loadWarnings) {
+        this.slotMapping = slotMapping;
+        this.actionTables = actionTables;
+        this.settings = settings;
+        this.loadWarnings = loadWarnings;
+        this.recipeGraph = RecipeGraph.EMPTY;
+
+        Map<String, Map<Integer, List<String>>> primary = new HashMap<>(actionTables.size() * 2);
+        actionTables.forEach((recipeKey, table) -> primary.put(recipeKey, table.getPrimaryActions()));
+        this.itemCommands = Collections.unmodifiableMap(primary);
+
+        this.positionBySlot = buildPositionTable(slotMapping);
+        this.anyActions = buildActionUnion(actionTables);
+        this.configuredRecipes = Collections.unmodifiableSet(new HashSet<>(itemCommands.keySet()));
+        this.recipeIndex = RecipeIndex.build(configuredRecipes);
+
+        // Per-recipe summaries for the admin list/test commands
+        Map<String, RecipeSummary> summaries = new HashMap<>(itemCommands.size() * 2);
+        itemCommands.forEach((recipeKey, recipeCommands) ->
+                summaries.put(recipeKey, RecipeSummary.of(recipeKey, recipeCommands)));
+
+        List<RecipeSummary> sorted = new ArrayList<>(summaries.values());
+        sorted.sort(Comparator.comparing(RecipeSummary::getRecipeId));
+
+        this.recipeSummaries = Collections.unmodifiableMap(summaries);
+        this.sortedSummaries = Collections.unmodifiableList(sorted);
+        this.resolverChain = ResolverChain.build(settings.getResolvers());
+
+        Map<String, ConditionalAction> conditional = new IdentityHashMap<>();
+        List<ConditionalAction> invalid = new ArrayList<>();
+        Map<String, MessageTemplate> compiledMessages = new IdentityHashMap<>();
+        for (ActionTable table : actionTables.values()) {
+            table.forEachAction(template -> {
+                String action = template;
+                if (ConditionalAction.isConditional(template)) {
+                    ConditionalAction compiled = conditional.get(template);
+                    if (compiled == null) {
+                        compiled = ConditionalAction.compile(template);
+                        conditional.put(template, compiled);
+                        if (!compiled.isValid()) invalid.add(compiled);
+                    }
+                    action = compiled.getAction();
+                }
+                if (action.startsWith(MessageTemplate.PREFIX) && !compiledMessages.containsKey(action)) {
+                    compiledMessages.put(action, MessageTemplate.compile(action, settings.getMessageFormat()));
+                }
+            });
+        }
+        this.conditionalActions = Collections.unmodifiableMap(conditional);
+        this.invalidConditions = Collections.unmodifiableList(invalid);
+        this.messages = Collections.unmodifiableMap(compiledMessages);
+    }
+
+    // Shares every compiled structure with the source; only the graph and the lookup cache are its own
+    private ConfigSnapshot(ConfigSnapshot source, RecipeGraph recipeGraph) {
+        this.slotMapping = source.slotMapping;
+        this.actionTables = source.actionTables;
+        this.itemCommands = source.itemCommands;
+        this.settings = source.settings;
+        this.loadWarnings = source.loadWarnings;
+        this.positionBySlot = source.positionBySlot;
+        this.anyActions = source.anyActions;
+        this.configuredRecipes = source.configuredRecipes;
+        this.recipeIndex = source.recipeIndex;
+        this.recipeSummaries = source.recipeSummaries;
+        this.sortedSummaries = source.sortedSummaries;
+        this.resolverChain = source.resolverChain;
+        this.conditionalActions = source.conditionalActions;
+        this.invalidConditions = source.invalidConditions;
+        this.messages = source.messages;
+        this.recipeGraph = recipeGraph;
+    }
+
+    ConfigSnapshot withRecipeGraph(RecipeGraph graph) {
+        return new ConfigSnapshot(this, graph);
+    }
+
+    private static boolean[][] buildActionUnion(Map<String, ActionTable> actionTables) {
+        int size = 0;
+        for (ActionTable table : actionTables.values()) {
+            size = Math.max(size, table.size());
+        }
+        boolean[][] union = new boolean[size][ClickKind.count()];
+        for (ActionTable table : actionTables.values()) {
+            table.markActions(union);
+        }
+        return union;
+    }
+
+    // Dense slot -> position table, -1 for slots that are not require items
+    private static int[] buildPositionTable(Map<Integer, Integer> slotMapping) {
+        int size = MIN_SLOT_TABLE_SIZE;
+        for (int slot : slotMapping.values()) {
+            size = Math.max(size, slot + 1);
+        }
+
+        int[] table = new int[size];
+        Arrays.fill(table, -1);
+        slotMapping.forEach((position, slot) -> {
+            if (slot >= 0) table[slot] = position;
+        });
+        return table;
+    }
+
+    public int getPositionForSlot(int slot) {
+        return slot >= 0 && slot < positionBySlot.length ? positionBySlot[slot] : -1;
+    }
+
+    public boolean isRequireItemSlot(int slot) {
+        return getPositionForSlot(slot) != -1;
+    }
+
+    public Map<Integer, Integer> getSlotMapping() {
+        return slotMapping;
+    }
+
+    public Map<String, Map<Integer, List<String>>> getItemCommands() {
+        return itemCommands;
+    }
+
+    public Map<String, ActionTable> getActionTables() {
+        return actionTables;
+    }
+
+    // False when no recipe has actions for that click kind at that position
+    public boolean hasActions(int position, ClickKind kind) {
+        return position >= 0 && position < anyActions.length && anyActions[position][kind.ordinal()];
+    }
+
+    // EMPTY for recipes without configured actions
+    public ActionTable getActionTable(String recipeKey) {
+        ActionTable table = actionTables.get(recipeKey);
+        return table != null ? table : ActionTable.EMPTY;
+    }
+
+    public PluginSettings getSettings() {
+        return settings;
+    }
+
+    public boolean isDebugEnabled() {
+        return settings.isDebugEnabled();
+    }
+
+    public boolean isCooldownEnabled() {
+        return settings.isCooldownEnabled();
+    }
+
+    public int getCooldownDuration() {
+        return settings.getCooldownDuration();
+    }
+
+    public String getConfigVersion() {
+        return settings.getConfigVersion();
+    }
+
+    public Set<String> getConfiguredRecipes() {
+        return configuredRecipes;
+    }
+
+    public RecipeIndex getRecipeIndex() {
+        return recipeIndex;
+    }
+
+    public Map<String, RecipeSummary> getRecipeSummaries() {
+        return recipeSummaries;
+    }
+
+    public List<RecipeSummary> getSortedSummaries() {
+        return sortedSummaries;
+    }
+
+    public ResolverChain getResolverChain() {
+        return resolverChain;
+    }
+
+    // Compiled form of a template from this snapshot's tables, null for any other string instance
+    public ConditionalAction getConditionalAction(String template) {
+        return conditionalActions.get(template);
+    }
+
+    // Compiled form of a [message] action from this snapshot's tables, null for any other string instance
+    public MessageTemplate getMessage(String action) {
+        return messages.get(action);
+    }
+
+    public int getMessageCount() {
+        return messages.size();
+    }
+
+    public List<String> getLoadWarnings() {
+        return loadWarnings;
+    }
+
+    public List<ConditionalAction> getInvalidConditions() {
+        return invalidConditions;
+    }
+
+    public RecipeGraph getRecipeGraph() {
+        return recipeGraph;
+    }
+
+    Map<String, List<String>> getCommandCache() {
+        return commandCache;
+    }
+}
@@ -0,0 +1,30 @@
+package com.eto2112.epiccraftingshook.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Records named phase durations for the startup report; phases may run on different threads
+public final class PhaseTimer {
+
+    private final long createdAt = System.nanoTime();
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    // Record a phase that started at the given System.nanoTime() value
+    public synchronized void record(String phase, long startNanos) {
+        phases.put(phase, System.nanoTime() - startNanos);
+    }
+
+    // One-line report, e.g. "dependencies 0.21ms, config-parse 3.40ms, total 5.02ms"
+    public synchronized String report() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            report.append(phase.getKey()).append(' ').append(formatMillis(phase.getValue())).append(", ");
+        }
+        report.append("total ").append(formatMillis(System.nanoTime() - createdAt));
+        return report.toString();
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+}
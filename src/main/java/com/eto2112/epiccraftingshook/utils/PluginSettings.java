@@ -0,0 +1,195 @@
+package com.eto2112.epiccraftingshook.utils;
+
+import com.eto2112.epiccraftingshook.audit.AuditSettings;
+import com.eto2112.epiccraftingshook.debug.DebugSettings;
+import com.eto2112.epiccraftingshook.dispatch.ConsoleActionSettings;
+import com.eto2112.epiccraftingshook.layout.LayoutSettings;
+import com.eto2112.epiccraftingshook.message.MessageFormat;
+import com.eto2112.epiccraftingshook.resolver.ResolverSettings;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Scalar settings from config.yml; adding a field here also means bumping the cache format version
+public final class PluginSettings {
+
+    static final PluginSettings DEFAULTS = new PluginSettings(false, true, 1, "unknown", 500L, true, true, true, 60_000L,
+            300L, MessageFormat.LEGACY, AuditSettings.DISABLED, DebugSettings.DISABLED, ResolverSettings.DEFAULTS, LayoutSettings.DEFAULTS,
+            ConsoleActionSettings.DEFAULTS);
+
+    private final boolean debugEnabled;
+    private final boolean cooldownEnabled;
+    private final int cooldownDuration;
+    private final String configVersion;
+    private final long drainTimeoutMillis;
+    private final boolean prefetchEnabled;
+    private final boolean prefetchAsync;
+    private final boolean inventoryIndexEnabled;
+    private final long inventoryReconcileMillis;
+    private final long coalesceWindowMillis;
+    private final MessageFormat messageFormat;
+    private final AuditSettings audit;
+    private final DebugSettings debug;
+    private final ResolverSettings resolvers;
+    private final LayoutSettings layout;
+    private final ConsoleActionSettings consoleActions;
+
+    private PluginSettings(boolean debugEnabled, boolean cooldownEnabled, int cooldownDuration,
+                           String configVersion, long drainTimeoutMillis, boolean prefetchEnabled,
+                           boolean prefetchAsync, boolean inventoryIndexEnabled, long inventoryReconcileMillis,
+                           long coalesceWindowMillis, MessageFormat messageFormat,
+                           AuditSettings audit,
+                           DebugSettings debug, ResolverSettings resolvers, LayoutSettings layout,
+                           ConsoleActionSettings consoleActions) {
+        this.debugEnabled = debugEnabled;
+        this.cooldownEnabled = cooldownEnabled;
+        this.cooldownDuration = cooldownDuration;
+        this.configVersion = configVersion;
+        this.drainTimeoutMillis = drainTimeoutMillis;
+        this.prefetchEnabled = prefetchEnabled;
+        this.prefetchAsync = prefetchAsync;
+        this.inventoryIndexEnabled = inventoryIndexEnabled;
+        this.inventoryReconcileMillis = inventoryReconcileMillis;
+        this.coalesceWindowMillis = coalesceWindowMillis;
+        this.messageFormat = messageFormat;
+        this.audit = audit;
+        this.debug = debug;
+        this.resolvers = resolvers;
+        this.layout = layout;
+        this.consoleActions = consoleActions;
+    }
+
+    static PluginSettings fromConfig(FileConfiguration config) {
+        return new PluginSettings(
+                config.getBoolean("settings.debug", DEFAULTS.debugEnabled),
+                config.getBoolean("commands.cooldown.enabled", DEFAULTS.cooldownEnabled),
+                config.getInt("commands.cooldown.duration", DEFAULTS.cooldownDuration),
+                config.getString("version", DEFAULTS.configVersion),
+                Math.max(0L, config.getLong("shutdown.drain-timeout-ms", DEFAULTS.drainTimeoutMillis)),
+                config.getBoolean("prefetch.enabled", DEFAULTS.prefetchEnabled),
+                config.getBoolean("prefetch.async", DEFAULTS.prefetchAsync),
+                config.getBoolean("inventory-index.enabled", DEFAULTS.inventoryIndexEnabled),
+                Math.max(5L, config.getLong("inventory-index.reconcile-seconds",
+                        DEFAULTS.inventoryReconcileMillis / 1000L)) * 1000L,
+                Math.max(0L, config.getLong("commands.coalesce-window-ms", DEFAULTS.coalesceWindowMillis)),
+                MessageFormat.fromConfig(config.getString("commands.message-format")),
+                AuditSettings.fromConfig(config),
+                DebugSettings.fromConfig(config),
+                ResolverSettings.fromConfig(config),
+                LayoutSettings.fromConfig(config),
+                ConsoleActionSettings.fromConfig(config));
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeBoolean(debugEnabled);
+        out.writeBoolean(cooldownEnabled);
+        out.writeInt(cooldownDuration);
+        CompiledConfigCache.writeString(out, configVersion);
+        out.writeLong(drainTimeoutMillis);
+        out.writeBoolean(prefetchEnabled);
+        out.writeBoolean(prefetchAsync);
+        out.writeBoolean(inventoryIndexEnabled);
+        out.writeLong(inventoryReconcileMillis);
+        out.writeLong(coalesceWindowMillis);
+        out.writeByte(messageFormat.ordinal());
+        audit.write(out);
+        debug.write(out);
+        resolvers.write(out);
+        layout.write(out);
+        consoleActions.write(out);
+    }
+
+    static PluginSettings read(ByteBuffer in) {
+        return new PluginSettings(
+                in.get() != 0,
+                in.get() != 0,
+                in.getInt(),
+                CompiledConfigCache.readString(in),
+                in.getLong(),
+                in.get() != 0,
+                in.get() != 0,
+                in.get() != 0,
+                in.getLong(),
+                in.getLong(),
+                readMessageFormat(in),
+                AuditSettings.read(in),
+                DebugSettings.read(in),
+                ResolverSettings.read(in),
+                LayoutSettings.read(in),
+                ConsoleActionSettings.read(in));
+    }
+
+    private static MessageFormat readMessageFormat(ByteBuffer in) {
+        int format = in.get();
+        if (format < 0 || format >= MessageFormat.values().length) {
+            throw new IllegalStateException("Corrupt message format " + format);
+        }
+        return MessageFormat.values()[format];
+    }
+
+    public boolean isDebugEnabled() {
+        return debugEnabled;
+    }
+
+    public boolean isCooldownEnabled() {
+        return cooldownEnabled;
+    }
+
+    public int getCooldownDuration() {
+        return cooldownDuration;
+    }
+
+    public String getConfigVersion() {
+        return configVersion;
+    }
+
+    public long getDrainTimeoutMillis() {
+        return drainTimeoutMillis;
+    }
+
+    public boolean isPrefetchEnabled() {
+        return prefetchEnabled;
+    }
+
+    public boolean isPrefetchAsync() {
+        return prefetchAsync;
+    }
+
+    public boolean isInventoryIndexEnabled() {
+        return inventoryIndexEnabled;
+    }
+
+    public long getInventoryReconcileMillis() {
+        return inventoryReconcileMillis;
+    }
+
+    public long getCoalesceWindowMillis() {
+        return coalesceWindowMillis;
+    }
+
+    public MessageFormat getMessageFormat() {
+        return messageFormat;
+    }
+
+    public AuditSettings getAudit() {
+        return audit;
+    }
+
+    public DebugSettings getDebug() {
+        return debug;
+    }
+
+    public ResolverSettings getResolvers() {
+        return resolvers;
+    }
+
+    public LayoutSettings getLayout() {
+        return layout;
+    }
+
+    public ConsoleActionSettings getConsoleActions() {
+        return consoleActions;
+    }
+}
@@ -0,0 +1,115 @@
+package com.eto2112.epiccraftingshook.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+// Immutable, lowercase-normalized sorted index of recipe ids for prefix lookups
+public final class RecipeIndex {
+
+    private static final RecipeIndex EMPTY = new RecipeIndex(new String[0], new String[0]);
+
+    // Lowercase keys in sorted order, with the original ids at the same index
+    private final String[] keys;
+    private final String[] ids;
+
+    private RecipeIndex(String[] keys, String[] ids) {
+        this.keys = keys;
+        this.ids = ids;
+    }
+
+    public static RecipeIndex empty() {
+        return EMPTY;
+    }
+
+    // Build the index once per config load
+    public static RecipeIndex build(Collection<String> recipeIds) {
+        if (recipeIds == null || recipeIds.isEmpty()) return EMPTY;
+
+        String[][] entries = new String[recipeIds.size()][];
+        int count = 0;
+        for (String id : recipeIds) {
+            if (id == null) continue;
+            entries[count++] = new String[]{id.toLowerCase(Locale.ROOT), id};
+        }
+
+        String[][] sorted = Arrays.copyOf(entries, count);
+        Arrays.sort(sorted, Comparator.<String[], String>comparing(entry -> entry[0])
+                .thenComparing(entry -> entry[1]));
+
+        String[] keys = new String[count];
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = sorted[i][0];
+            ids[i] = sorted[i][1];
+        }
+        return new RecipeIndex(keys, ids);
+    }
+
+    // O(log n + k) completion; the partial is compared case-insensitively without copying it
+    public List<String> complete(String partial) {
+        if (keys.length == 0) return Collections.emptyList();
+        if (partial == null || partial.isEmpty()) return new ArrayList<>(Arrays.asList(ids));
+
+        int from = lowerBound(partial);
+        int to = upperBound(partial, from);
+        if (from >= to) return Collections.emptyList();
+
+        List<String> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(ids[i]);
+        }
+        return result;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    // First index whose key is >= the prefix
+    private int lowerBound(String partial) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefix(keys[mid], partial) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First index at or after 'from' whose key no longer starts with the prefix
+    private int upperBound(String partial, int from) {
+        int low = from;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefix(keys[mid], partial) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Compares the key's leading characters with the prefix: 0 means the key starts with it
+    private static int comparePrefix(String key, String partial) {
+        int length = Math.min(key.length(), partial.length());
+        for (int i = 0; i < length; i++) {
+            char expected = Character.toLowerCase(partial.charAt(i));
+            char actual = key.charAt(i);
+            if (actual != expected) {
+                return actual - expected;
+            }
+        }
+        return key.length() < partial.length() ? -1 : 0;
+    }
+}
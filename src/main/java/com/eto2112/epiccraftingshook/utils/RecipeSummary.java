@@ -0,0 +1,124 @@
+package com.eto2112.epiccraftingshook.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Precomputed per-recipe overview used by the admin commands, built once per config load
+public final class RecipeSummary {
+
+    // Matches "ecraft opencraft <player> <crafting>" style commands to find link targets
+    private static final Pattern OPEN_CRAFT_PATTERN = Pattern.compile("(?i)\\bopencraft\\s+\\S+\\s+(\\S+)");
+
+    private final String recipeId;
+    private final String lowerCaseId;
+    private final int[] positions;
+    private final int[] commandCounts;
+    private final String[] firstCommands;
+    private final long positionMask;
+    private final int totalCommands;
+    private final List<String> targetRecipes;
+
+    private RecipeSummary(String recipeId, int[] positions, int[] commandCounts, String[] firstCommands,
+                          long positionMask, int totalCommands, List<String> targetRecipes) {
+        this.recipeId = recipeId;
+        this.lowerCaseId = recipeId.toLowerCase(Locale.ROOT);
+        this.positions = positions;
+        this.commandCounts = commandCounts;
+        this.firstCommands = firstCommands;
+        this.positionMask = positionMask;
+        this.totalCommands = totalCommands;
+        this.targetRecipes = targetRecipes;
+    }
+
+    public static RecipeSummary of(String recipeId, Map<Integer, List<String>> recipeCommands) {
+        List<Integer> sortedPositions = new ArrayList<>(recipeCommands.keySet());
+        Collections.sort(sortedPositions);
+
+        int size = sortedPositions.size();
+        int[] positions = new int[size];
+        int[] commandCounts = new int[size];
+        String[] firstCommands = new String[size];
+        long positionMask = 0L;
+        int totalCommands = 0;
+        Set<String> targets = new LinkedHashSet<>();
+
+        for (int i = 0; i < size; i++) {
+            int position = sortedPositions.get(i);
+            List<String> commands = recipeCommands.get(position);
+
+            positions[i] = position;
+            commandCounts[i] = commands.size();
+            firstCommands[i] = commands.isEmpty() ? "" : commands.get(0);
+            totalCommands += commands.size();
+
+            // Positions 0..63 fit the mask; larger ones are still listed in positions[]
+            if (position >= 0 && position < Long.SIZE) {
+                positionMask |= 1L << position;
+            }
+
+            for (String command : commands) {
+                Matcher matcher = OPEN_CRAFT_PATTERN.matcher(command);
+                if (matcher.find()) {
+                    targets.add(matcher.group(1));
+                }
+            }
+        }
+
+        return new RecipeSummary(recipeId, positions, commandCounts, firstCommands, positionMask,
+                totalCommands, Collections.unmodifiableList(new ArrayList<>(targets)));
+    }
+
+    public String getRecipeId() {
+        return recipeId;
+    }
+
+    // Case-insensitive substring match against the precomputed lowercase id
+    public boolean matches(String lowerCaseFilter) {
+        return lowerCaseFilter == null || lowerCaseFilter.isEmpty() || lowerCaseId.contains(lowerCaseFilter);
+    }
+
+    public int getPositionCount() {
+        return positions.length;
+    }
+
+    public int getPosition(int index) {
+        return positions[index];
+    }
+
+    public int getCommandCount(int index) {
+        return commandCounts[index];
+    }
+
+    public String getFirstCommand(int index) {
+        return firstCommands[index];
+    }
+
+    public long getPositionMask() {
+        return positionMask;
+    }
+
+    public boolean hasPosition(int position) {
+        if (position >= 0 && position < Long.SIZE) {
+            return (positionMask & (1L << position)) != 0;
+        }
+        for (int configured : positions) {
+            if (configured == position) return true;
+        }
+        return false;
+    }
+
+    public int getTotalCommands() {
+        return totalCommands;
+    }
+
+    public List<String> getTargetRecipes() {
+        return targetRecipes;
+    }
+}
@@ -0,0 +1,120 @@
+package com.eto2112.epiccraftingshook.utils;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.concurrent.TimeUnit;
+
+// Routes work to the right thread: region schedulers on Folia, the Bukkit scheduler everywhere else
+public final class TaskScheduler {
+
+    private static final String FOLIA_MARKER_CLASS = "io.papermc.paper.threadedregions.RegionizedServer";
+    private static final long MILLIS_PER_TICK = 50L;
+    private static final Runnable NOTHING = () -> { };
+
+    private final Plugin plugin;
+    private final boolean folia;
+
+    public TaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        this.folia = detectFolia();
+    }
+
+    private static boolean detectFolia() {
+        try {
+            Class.forName(FOLIA_MARKER_CLASS);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    public boolean isFolia() {
+        return folia;
+    }
+
+    // Handle for repeating tasks, independent of the backing scheduler
+    public interface Handle {
+        void cancel();
+    }
+
+    // Run on the thread that owns the entity (player-bound actions)
+    public void runForEntity(Entity entity, Runnable task) {
+        runForEntity(entity, task, NOTHING);
+    }
+
+    // On Folia, retired runs instead of task when the entity is removed (e.g. the player quits) before it runs
+    public void runForEntity(Entity entity, Runnable task, Runnable retired) {
+        if (folia) {
+            // A null task means the entity was already removed and neither callback will be called
+            if (entity.getScheduler().run(plugin, scheduled -> task.run(), retired) == null) {
+                retired.run();
+            }
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    // Run on the global region (console actions and server-wide state)
+    public void runGlobal(Runnable task) {
+        if (folia) {
+            Bukkit.getGlobalRegionScheduler().execute(plugin, task);
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    // Reply to a command sender on the thread that owns it
+    public void runForSender(CommandSender sender, Runnable task) {
+        if (sender instanceof Entity) {
+            runForEntity((Entity) sender, task);
+        } else {
+            runGlobal(task);
+        }
+    }
+
+    public void runAsync(Runnable task) {
+        if (folia) {
+            Bukkit.getAsyncScheduler().runNow(plugin, scheduled -> task.run());
+        } else {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+        }
+    }
+
+    // Repeating task on the global region / main thread
+    public Handle runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        if (folia) {
+            ScheduledTask scheduled = Bukkit.getGlobalRegionScheduler()
+                    .runAtFixedRate(plugin, ignored -> task.run(), Math.max(1L, delayTicks), periodTicks);
+            return scheduled::cancel;
+        }
+        BukkitTask bukkitTask = Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks);
+        return bukkitTask::cancel;
+    }
+
+    // Repeating async task; tick values are converted to wall time on Folia
+    public Handle runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        if (folia) {
+            ScheduledTask scheduled = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, ignored -> task.run(),
+                    Math.max(1L, delayTicks * MILLIS_PER_TICK), periodTicks * MILLIS_PER_TICK, TimeUnit.MILLISECONDS);
+            return scheduled::cancel;
+        }
+        BukkitTask bukkitTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, task, delayTicks, periodTicks);
+        return bukkitTask::cancel;
+    }
+
+    // True when the current thread may touch this entity directly
+    public boolean isOwnedByCurrentThread(Entity entity) {
+        return folia ? Bukkit.isOwnedByCurrentRegion(entity) : Bukkit.isPrimaryThread();
+    }
+
+    // True on a tick thread that work for this entity would hold up: the main thread, or on Folia the global
+    // tick thread or the region thread that owns the entity (Bukkit.isPrimaryThread is false on region threads)
+    public boolean isTickThread(Entity entity) {
+        return folia ? Bukkit.isGlobalTickThread() || Bukkit.isOwnedByCurrentRegion(entity) : Bukkit.isPrimaryThread();
+    }
+}
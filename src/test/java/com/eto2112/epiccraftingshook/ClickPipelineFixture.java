@@ -0,0 +1,184 @@
+package com.eto2112.epiccraftingshook;
+
+import com.eto2112.epiccraftingshook.audit.AuditLog;
+import com.eto2112.epiccraftingshook.debug.DebugChannel;
+import com.eto2112.epiccraftingshook.listeners.EnhancedCraftingMenuListener;
+import com.eto2112.epiccraftingshook.session.SessionRegistry;
+import com.eto2112.epiccraftingshook.stats.ClickHeatmap;
+import com.eto2112.epiccraftingshook.utils.CommandExecutor;
+import com.eto2112.epiccraftingshook.utils.ConfigManager;
+import com.eto2112.epiccraftingshook.utils.ConfigSnapshot;
+import com.eto2112.epiccraftingshook.utils.TaskScheduler;
+import ecp.ajneb97.EpicCraftingsPlus;
+import ecp.ajneb97.managers.CraftingsManager;
+import ecp.ajneb97.managers.InventoryManager;
+import ecp.ajneb97.model.InventoryCraft;
+import ecp.ajneb97.model.internal.PlayerInventory;
+import org.bukkit.Material;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// The plugin's click pipeline around a mocked server: real config manager, sessions, listener and command
+// executor. Scheduled tasks run inline on the calling thread, which is never a tick thread, so a click on the
+// prefetched path has dispatched by the time onInventoryClick returns. Mocks are stub-only: nothing is
+// recorded per call, so load tests can click as often as they like; scheduled tasks are counted instead.
+public final class ClickPipelineFixture {
+
+    private final EpicCraftingsHookPlugin plugin = stubOnly(EpicCraftingsHookPlugin.class);
+    private final InventoryManager inventoryManager = stubOnly(InventoryManager.class);
+    private final Map<Player, PlayerInventory> openMenus = new ConcurrentHashMap<>();
+    private final SessionRegistry sessions = new SessionRegistry(1_000);
+    private final AtomicInteger scheduledTasks = new AtomicInteger();
+    private final ConfigManager configManager;
+    private final CommandExecutor commandExecutor;
+    private final EnhancedCraftingMenuListener listener;
+
+    public ClickPipelineFixture() {
+        Logger logger = Logger.getLogger("EpicCraftingsHookTest");
+        logger.setLevel(Level.WARNING);
+        when(plugin.getLogger()).thenReturn(logger);
+        try {
+            when(plugin.getDataFolder()).thenReturn(Files.createTempDirectory("echook-test").toFile());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        when(plugin.getDescription()).thenReturn(new PluginDescriptionFile("EpicCraftingsHook", "test",
+                EpicCraftingsHookPlugin.class.getName()));
+        when(plugin.isPluginEnabled()).thenReturn(true);
+        when(plugin.getDebugChannel()).thenReturn(new DebugChannel(logger));
+        when(plugin.getSessions()).thenReturn(sessions);
+        when(plugin.getTaskScheduler()).thenReturn(inlineScheduler());
+        when(plugin.getAuditLog()).thenReturn(stubOnly(AuditLog.class));
+        when(plugin.getClickHeatmap()).thenReturn(stubOnly(ClickHeatmap.class));
+
+        // One inventory list instance, like EpicCraftingsPlus between its reloads
+        ArrayList<InventoryCraft> inventories = new ArrayList<>();
+        when(inventoryManager.getInventories()).thenReturn(inventories);
+        when(inventoryManager.getPlayerInventory(any())).thenAnswer(invocation -> openMenus.get(invocation.getArgument(0)));
+        CraftingsManager craftingsManager = stubOnly(CraftingsManager.class);
+        when(craftingsManager.getCraftings()).thenReturn(new ArrayList<>());
+        EpicCraftingsPlus epicCraftings = stubOnly(EpicCraftingsPlus.class);
+        when(epicCraftings.getInventoryManager()).thenReturn(inventoryManager);
+        when(epicCraftings.getCraftingsManager()).thenReturn(craftingsManager);
+        when(plugin.getEpicCraftings()).thenReturn(epicCraftings);
+
+        configManager = new ConfigManager(plugin);
+        when(plugin.getConfigManager()).thenReturn(configManager);
+        commandExecutor = new CommandExecutor(plugin);
+        when(plugin.getCommandExecutor()).thenReturn(commandExecutor);
+        listener = new EnhancedCraftingMenuListener(plugin);
+        when(plugin.getMenuListener()).thenReturn(listener);
+    }
+
+    static <T> T stubOnly(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    private TaskScheduler inlineScheduler() {
+        TaskScheduler scheduler = stubOnly(TaskScheduler.class);
+        doAnswer(runArgument(0)).when(scheduler).runGlobal(any(Runnable.class));
+        doAnswer(runArgument(1)).when(scheduler).runForEntity(any(Entity.class), any(Runnable.class));
+        doAnswer(runArgument(1)).when(scheduler).runForEntity(any(Entity.class), any(Runnable.class),
+                any(Runnable.class));
+        return scheduler;
+    }
+
+    private Answer<Void> runArgument(int index) {
+        return invocation -> {
+            scheduledTasks.incrementAndGet();
+            invocation.<Runnable>getArgument(index).run();
+            return null;
+        };
+    }
+
+    // Parse and compile without publishing, the part of a reload that runs off the main thread
+    public ConfigSnapshot compile(TestConfig config) {
+        YamlConfiguration yaml = new YamlConfiguration();
+        try {
+            yaml.loadFromString(config.toYaml());
+        } catch (InvalidConfigurationException e) {
+            throw new IllegalArgumentException("Invalid test config", e);
+        }
+        return configManager.compile(yaml);
+    }
+
+    // Compile and publish, as a load or reload does
+    public ConfigSnapshot apply(TestConfig config) {
+        configManager.applySnapshot(compile(config));
+        return configManager.getSnapshot();
+    }
+
+    // A player that has joined, so its session is open
+    public SimulatedPlayer join(String name) {
+        SimulatedPlayer player = new SimulatedPlayer(this, name);
+        sessions.open(player.getPlayer());
+        return player;
+    }
+
+    // The result item EpicCraftingsPlus shows in a recipe's crafting menu
+    ItemStack resultItem(int recipe) {
+        ItemMeta meta = stubOnly(ItemMeta.class);
+        when(meta.hasCustomModelData()).thenReturn(true);
+        when(meta.getCustomModelData()).thenReturn(TestConfig.MODEL_DATA_BASE + recipe);
+        ItemStack item = stubOnly(ItemStack.class);
+        when(item.getType()).thenReturn(Material.PAPER);
+        when(item.hasItemMeta()).thenReturn(true);
+        when(item.getItemMeta()).thenReturn(meta);
+        return item;
+    }
+
+    // What EpicCraftingsPlus reports as the player's open menu; null once it is closed
+    void setOpenMenu(Player player, PlayerInventory menu) {
+        if (menu != null) {
+            openMenus.put(player, menu);
+        } else {
+            openMenus.remove(player);
+        }
+    }
+
+    public EpicCraftingsHookPlugin getPlugin() {
+        return plugin;
+    }
+
+    public SessionRegistry getSessions() {
+        return sessions;
+    }
+
+    public ConfigManager getConfigManager() {
+        return configManager;
+    }
+
+    public CommandExecutor getCommandExecutor() {
+        return commandExecutor;
+    }
+
+    public EnhancedCraftingMenuListener getListener() {
+        return listener;
+    }
+
+    // Tasks handed to the scheduler so far: menu tracking on open, dispatch hops on click
+    public int getScheduledTasks() {
+        return scheduledTasks.get();
+    }
+}
@@ -0,0 +1,143 @@
+package com.eto2112.epiccraftingshook;
+
+import ecp.ajneb97.model.Crafting;
+import ecp.ajneb97.model.internal.PlayerInventory;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.eto2112.epiccraftingshook.ClickPipelineFixture.stubOnly;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+// A mocked online player with at most one EpicCraftingsPlus crafting menu open. What actions do to it is
+// recorded: player commands as typed, messages as plain text.
+public final class SimulatedPlayer {
+
+    private static final int MENU_SIZE = 54;
+
+    private final ClickPipelineFixture fixture;
+    private final Player player;
+    private final Queue<String> commands = new ConcurrentLinkedQueue<>();
+    private final Queue<String> messages = new ConcurrentLinkedQueue<>();
+    private volatile InventoryView openView;
+
+    SimulatedPlayer(ClickPipelineFixture fixture, String name) {
+        this.fixture = fixture;
+        this.player = stubOnly(Player.class);
+
+        World world = stubOnly(World.class);
+        when(world.getName()).thenReturn("world");
+
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(player.getName()).thenReturn(name);
+        when(player.getDisplayName()).thenReturn(name);
+        when(player.isOnline()).thenReturn(true);
+        when(player.getWorld()).thenReturn(world);
+        when(player.getLocation()).thenAnswer(invocation -> new Location(world, 0, 64, 0));
+        when(player.getOpenInventory()).thenAnswer(invocation -> openView);
+        when(player.performCommand(anyString())).thenAnswer(invocation -> commands.add(invocation.getArgument(0)));
+        doAnswer(invocation -> messages.add(PlainTextComponentSerializer.plainText()
+                .serialize(invocation.getArgument(0))))
+                .when(player).sendMessage(any(Component.class));
+    }
+
+    // Opens the crafting menu of one recipe the way EpicCraftingsPlus does: a new top inventory showing the
+    // recipe's result item, registered as the player's open menu before the open event is handled
+    public void openMenu(int recipe) {
+        Crafting crafting = stubOnly(Crafting.class);
+        when(crafting.getName()).thenReturn(TestConfig.recipeId(recipe).toLowerCase(Locale.ROOT));
+        PlayerInventory menu = stubOnly(PlayerInventory.class);
+        when(menu.getCrafting()).thenReturn(crafting);
+
+        open(fixture.resultItem(recipe), menu);
+    }
+
+    // A chest of another plugin showing the same item in the same slot, unknown to EpicCraftingsPlus
+    public void openOtherMenu(int recipe) {
+        open(fixture.resultItem(recipe), null);
+    }
+
+    private void open(ItemStack result, PlayerInventory menu) {
+        Inventory top = stubOnly(Inventory.class);
+        when(top.getSize()).thenReturn(MENU_SIZE);
+        when(top.getItem(TestConfig.RESULT_SLOT)).thenReturn(result);
+
+        InventoryView view = stubOnly(InventoryView.class);
+        when(view.getPlayer()).thenReturn(player);
+        when(view.getTopInventory()).thenReturn(top);
+
+        openView = view;
+        fixture.setOpenMenu(player, menu);
+        fixture.getListener().onInventoryOpen(new InventoryOpenEvent(view));
+    }
+
+    public void closeMenu() {
+        InventoryView view = openView;
+        fixture.setOpenMenu(player, null);
+        openView = null;
+        if (view != null) {
+            fixture.getListener().onInventoryClose(new InventoryCloseEvent(view));
+        }
+    }
+
+    // A left click on a raw slot of the open menu view
+    public InventoryClickEvent click(int rawSlot) {
+        return click(rawSlot, ClickType.LEFT);
+    }
+
+    public InventoryClickEvent click(int rawSlot, ClickType clickType) {
+        InventoryClickEvent event = new InventoryClickEvent(openView, InventoryType.SlotType.CONTAINER, rawSlot,
+                clickType, InventoryAction.PICKUP_ALL);
+        fixture.getListener().onInventoryClick(event);
+        return event;
+    }
+
+    // Quit and join again: the session is closed and a new one opened
+    public void relog() {
+        closeMenu();
+        fixture.getSessions().close(player.getUniqueId());
+        fixture.getSessions().open(player);
+    }
+
+    public List<String> getCommands() {
+        return new ArrayList<>(commands);
+    }
+
+    public List<String> getMessages() {
+        return new ArrayList<>(messages);
+    }
+
+    public void clearRecorded() {
+        commands.clear();
+        messages.clear();
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public String getName() {
+        return player.getName();
+    }
+}
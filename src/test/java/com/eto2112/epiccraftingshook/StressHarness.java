@@ -0,0 +1,50 @@
+package com.eto2112.epiccraftingshook;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Runs workers on their own threads, released together, and rethrows the first failure of any of them
+public final class StressHarness {
+
+    private static final long JOIN_MILLIS = 60_000L;
+
+    // One thread's work; index is the thread's number, 0..threads-1
+    public interface Worker {
+        void run(int index) throws Exception;
+    }
+
+    private StressHarness() {
+    }
+
+    public static void run(int threads, Worker worker) throws InterruptedException {
+        CyclicBarrier start = new CyclicBarrier(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> started = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    worker.run(index);
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }, "stress-" + i);
+            thread.start();
+            started.add(thread);
+        }
+
+        for (Thread thread : started) {
+            thread.join(JOIN_MILLIS);
+            if (thread.isAlive()) {
+                throw new AssertionError(thread.getName() + " still running after " + JOIN_MILLIS + " ms");
+            }
+        }
+
+        Throwable thrown = failure.get();
+        if (thrown instanceof Error) throw (Error) thrown;
+        if (thrown != null) throw new AssertionError(thrown);
+    }
+}
@@ -0,0 +1,132 @@
+package com.eto2112.epiccraftingshook;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// config.yml for tests: recipes RECIPE_0..RECIPE_n-1, each with actions on positions 1..positions and resolved
+// from a PAPER result item whose custom model data is MODEL_DATA_BASE + the recipe number
+public final class TestConfig {
+
+    public static final int MODEL_DATA_BASE = 1_000;
+    public static final int RESULT_SLOT = 25;
+
+    // Require-item slots of positions 1-12, index = position
+    private static final int[] SLOTS = {-1, 10, 11, 12, 13, 19, 20, 21, 22, 28, 29, 30, 31};
+
+    // Action template for one recipe position
+    public interface Actions {
+        String at(int recipe, int position);
+    }
+
+    private final int recipes;
+    private int positions = 4;
+    private Actions actions = TestConfig::command;
+    private final Map<String, String> overrides = new HashMap<>();
+    private String version = "test";
+    private int cooldownSeconds;
+    private long coalesceWindowMillis;
+    private boolean prefetch = true;
+
+    private TestConfig(int recipes) {
+        this.recipes = recipes;
+    }
+
+    public static TestConfig recipes(int recipes) {
+        return new TestConfig(recipes);
+    }
+
+    public static String recipeId(int recipe) {
+        return "RECIPE_" + recipe;
+    }
+
+    public static int slotOf(int position) {
+        return SLOTS[position];
+    }
+
+    // The default action: a player command naming the recipe, position and clicker
+    public static String command(int recipe, int position) {
+        return "[player] craft " + recipeId(recipe) + " " + position + " %player_name%";
+    }
+
+    // What command(recipe, position) performs for the given player
+    public static String performed(int recipe, int position, String playerName) {
+        return "craft " + recipeId(recipe) + " " + position + " " + playerName;
+    }
+
+    public TestConfig positions(int positions) {
+        this.positions = positions;
+        return this;
+    }
+
+    public TestConfig actions(Actions actions) {
+        this.actions = actions;
+        return this;
+    }
+
+    // Replaces one position's action; YAML flow syntax is allowed, e.g. a section per click kind
+    public TestConfig action(int recipe, int position, String yamlValue) {
+        overrides.put(recipe + ":" + position, yamlValue);
+        return this;
+    }
+
+    public TestConfig version(String version) {
+        this.version = version;
+        return this;
+    }
+
+    // 0 = click cooldown off
+    public TestConfig cooldown(int seconds) {
+        this.cooldownSeconds = seconds;
+        return this;
+    }
+
+    public TestConfig coalesceWindow(long millis) {
+        this.coalesceWindowMillis = millis;
+        return this;
+    }
+
+    public TestConfig prefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+        return this;
+    }
+
+    public String toYaml() {
+        StringBuilder yaml = new StringBuilder(recipes * positions * 64 + 1024);
+        yaml.append("version: '").append(version).append("'\n");
+
+        yaml.append("items-command:\n");
+        for (int recipe = 0; recipe < recipes; recipe++) {
+            yaml.append("  ").append(recipeId(recipe)).append(":\n");
+            for (int position = 1; position <= positions; position++) {
+                String override = overrides.get(recipe + ":" + position);
+                yaml.append("    ").append(position).append(": ")
+                        .append(override != null ? override : quote(actions.at(recipe, position))).append('\n');
+            }
+        }
+
+        yaml.append("slot-mapping:\n  positions:\n");
+        for (int position = 1; position < SLOTS.length; position++) {
+            yaml.append("    ").append(position).append(": ").append(SLOTS[position]).append('\n');
+        }
+
+        yaml.append("layout:\n  source: config\n  result-slot: ").append(RESULT_SLOT)
+                .append("\n  indicator:\n    slot: -1\n");
+        yaml.append("prefetch:\n  enabled: ").append(prefetch).append("\n  async: false\n");
+        yaml.append("inventory-index:\n  enabled: false\n");
+        yaml.append("settings:\n  debug: false\n");
+        yaml.append("commands:\n  cooldown:\n    enabled: ").append(cooldownSeconds > 0)
+                .append("\n    duration: ").append(Math.max(1, cooldownSeconds))
+                .append("\n  coalesce-window-ms: ").append(coalesceWindowMillis).append('\n');
+
+        yaml.append("resolvers:\n  mmoitems: false\n  model-data:\n");
+        for (int recipe = 0; recipe < recipes; recipe++) {
+            yaml.append("    \"PAPER:").append(MODEL_DATA_BASE + recipe).append("\": ").append(recipeId(recipe))
+                    .append('\n');
+        }
+        return yaml.toString();
+    }
+
+    private static String quote(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+}
@@ -0,0 +1,225 @@
+package com.eto2112.epiccraftingshook.listeners;
+
+import com.eto2112.epiccraftingshook.ClickPipelineFixture;
+import com.eto2112.epiccraftingshook.SimulatedPlayer;
+import com.eto2112.epiccraftingshook.TestConfig;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.eto2112.epiccraftingshook.TestConfig.performed;
+import static com.eto2112.epiccraftingshook.TestConfig.slotOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// One click at a time through onInventoryClick: filter, resolution and dispatch to the clicking player
+class ClickDispatchTest {
+
+    private static final int RECIPES = 2_000;
+
+    private ClickPipelineFixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new ClickPipelineFixture();
+    }
+
+    @Test
+    void dispatchesTheClickedPositionOfTheOpenRecipe() {
+        fixture.apply(TestConfig.recipes(RECIPES));
+        SimulatedPlayer steve = fixture.join("Steve");
+        steve.openMenu(1_234);
+        int scheduledAtOpen = fixture.getScheduledTasks();
+
+        InventoryClickEvent event = steve.click(slotOf(3));
+
+        assertTrue(event.isCancelled());
+        assertEquals(List.of(performed(1_234, 3, "Steve")), steve.getCommands());
+        assertEquals(1, fixture.getListener().getPrefetchHits());
+        // One hop to the player's thread for the whole dispatch, nothing per command or per lookup
+        assertEquals(1, fixture.getScheduledTasks() - scheduledAtOpen);
+    }
+
+    @Test
+    void plainActionsRunOnLeftAndRightClicksOnly() {
+        fixture.apply(TestConfig.recipes(RECIPES));
+        SimulatedPlayer steve = fixture.join("Steve");
+        steve.openMenu(7);
+
+        steve.click(slotOf(1), ClickType.LEFT);
+        steve.click(slotOf(2), ClickType.RIGHT);
+        InventoryClickEvent shiftClick = steve.click(slotOf(3), ClickType.SHIFT_LEFT);
+        InventoryClickEvent numberKey = steve.click(slotOf(3), ClickType.NUMBER_KEY);
+
+        assertFalse(shiftClick.isCancelled());
+        assertFalse(numberKey.isCancelled());
+        assertEquals(List.of(performed(7, 1, "Steve"), performed(7, 2, "Steve")), steve.getCommands());
+    }
+
+    @Test
+    void sectionActionsRunOnTheirOwnClickKind() {
+        fixture.apply(TestConfig.recipes(RECIPES)
+                .action(5, 2, "{left: '[player] left %player_name%', shift-left: '[player] shift %player_name%'}"));
+        SimulatedPlayer steve = fixture.join("Steve");
+        steve.openMenu(5);
+
+        steve.click(slotOf(2), ClickType.SHIFT_LEFT);
+        steve.click(slotOf(2), ClickType.RIGHT);
+        steve.click(slotOf(2), ClickType.LEFT);
+
+        assertEquals(List.of("shift Steve", "left Steve"), steve.getCommands());
+    }
+
+    @Test
+    void leavesClicksOutsideRequireSlotsToEpicCraftings() {
+        fixture.apply(TestConfig.recipes(RECIPES));
+        SimulatedPlayer steve = fixture.join("Steve");
+        steve.openMenu(3);
+
+        InventoryClickEvent bottomInventory = steve.click(60);
+        InventoryClickEvent resultSlot = steve.click(TestConfig.RESULT_SLOT);
+        InventoryClickEvent outside = steve.click(-999);
+
+        assertFalse(bottomInventory.isCancelled());
+        assertFalse(resultSlot.isCancelled());
+        assertFalse(outside.isCancelled());
+        assertEquals(Collections.emptyList(), steve.getCommands());
+    }
+
+    @Test
+    void leavesMenusOtherThanEpicCraftingsAlone() {
+        fixture.apply(TestConfig.recipes(RECIPES));
+        SimulatedPlayer steve = fixture.join("Steve");
+        steve.openMenu(3);
+        steve.closeMenu();
+        steve.openOtherMenu(3);
+
+        InventoryClickEvent event = steve.click(slotOf(1));
+
+        assertFalse(event.isCancelled());
+        assertEquals(Collections.emptyList(), steve.getCommands());
+    }
+
+    @Test
+    void clickCooldownRejectsFurtherClicksOfThatPlayerOnly() {
+        fixture.apply(TestConfig.recipes(RECIPES).cooldown(60));
+        SimulatedPlayer steve = fixture.join("Steve");
+        SimulatedPlayer alex = fixture.join("Alex");
+        steve.openMenu(10);
+        alex.openMenu(10);
+
+        assertTrue(steve.click(slotOf(1)).isCancelled());
+        InventoryClickEvent onCooldown = steve.click(slotOf(2));
+        assertTrue(alex.click(slotOf(2)).isCancelled());
+
+        assertFalse(onCooldown.isCancelled());
+        assertEquals(List.of(performed(10, 1, "Steve")), steve.getCommands());
+        assertEquals(List.of(performed(10, 2, "Alex")), alex.getCommands());
+    }
+
+    @Test
+    void clickKindWithoutActionsLeavesTheCooldownAlone() {
+        fixture.apply(TestConfig.recipes(RECIPES).cooldown(60));
+        SimulatedPlayer steve = fixture.join("Steve");
+        steve.openMenu(10);
+
+        InventoryClickEvent shiftClick = steve.click(slotOf(1), ClickType.SHIFT_LEFT);
+        InventoryClickEvent noActions = steve.click(slotOf(5));
+        InventoryClickEvent leftClick = steve.click(slotOf(1));
+
+        assertFalse(shiftClick.isCancelled());
+        assertFalse(noActions.isCancelled());
+        assertTrue(leftClick.isCancelled());
+        assertEquals(List.of(performed(10, 1, "Steve")), steve.getCommands());
+    }
+
+    @Test
+    void clickThatDispatchesNothingHandsItsCooldownBack() {
+        // Without a prefetch the filter only knows that some recipe has actions at position 5; this one has none
+        fixture.apply(TestConfig.recipes(RECIPES).positions(5).action(10, 5, "[]").cooldown(60).prefetch(false));
+        SimulatedPlayer steve = fixture.join("Steve");
+        steve.openMenu(10);
+
+        assertTrue(steve.click(slotOf(5)).isCancelled());
+        assertTrue(fixture.getListener().awaitInFlightClicks(System.nanoTime() + 10_000_000_000L));
+        assertTrue(steve.click(slotOf(1)).isCancelled());
+        assertTrue(fixture.getListener().awaitInFlightClicks(System.nanoTime() + 10_000_000_000L));
+
+        assertEquals(List.of(performed(10, 1, "Steve")), steve.getCommands());
+    }
+
+    @Test
+    void repeatedClickWithinTheCoalesceWindowJoinsTheFirst() {
+        fixture.apply(TestConfig.recipes(RECIPES).coalesceWindow(60_000L));
+        SimulatedPlayer steve = fixture.join("Steve");
+        steve.openMenu(42);
+
+        steve.click(slotOf(1));
+        InventoryClickEvent repeat = steve.click(slotOf(1));
+        steve.click(slotOf(1), ClickType.RIGHT);
+        steve.click(slotOf(2));
+
+        assertFalse(repeat.isCancelled());
+        assertEquals(List.of(performed(42, 1, "Steve"), performed(42, 1, "Steve"), performed(42, 2, "Steve")),
+                steve.getCommands());
+        assertEquals(1, fixture.getListener().getCoalescedClicks());
+    }
+
+    @Test
+    void resolvesTheMenuOffThreadWhenNothingWasPrefetched() {
+        fixture.apply(TestConfig.recipes(RECIPES).prefetch(false));
+        List<SimulatedPlayer> players = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            SimulatedPlayer player = fixture.join("Player" + i);
+            player.openMenu(i * 7);
+            players.add(player);
+        }
+
+        for (SimulatedPlayer player : players) {
+            assertTrue(player.click(slotOf(4)).isCancelled());
+        }
+        assertTrue(fixture.getListener().awaitInFlightClicks(System.nanoTime() + 10_000_000_000L));
+
+        for (int i = 0; i < players.size(); i++) {
+            assertEquals(List.of(performed(i * 7, 4, "Player" + i)), players.get(i).getCommands());
+        }
+        assertEquals(0, fixture.getListener().getPrefetchHits());
+    }
+
+    @Test
+    void messagesRenderPlaceholdersForTheClicker() {
+        fixture.apply(TestConfig.recipes(RECIPES).action(9, 1, "'[message] &aHello %player_name%'"));
+        SimulatedPlayer steve = fixture.join("Steve");
+        steve.openMenu(9);
+
+        steve.click(slotOf(1));
+
+        assertEquals(List.of("Hello Steve"), steve.getMessages());
+        assertEquals(Collections.emptyList(), steve.getCommands());
+    }
+
+    @Test
+    void actionCooldownHoldsPerPlayerAndAcrossARelog() {
+        fixture.apply(TestConfig.recipes(RECIPES).action(0, 1, "'[if cooldown:600] [player] reward %player_name%'"));
+        SimulatedPlayer steve = fixture.join("Steve");
+        SimulatedPlayer alex = fixture.join("Alex");
+        steve.openMenu(0);
+        alex.openMenu(0);
+
+        steve.click(slotOf(1));
+        steve.click(slotOf(1));
+        alex.click(slotOf(1));
+        steve.relog();
+        steve.openMenu(0);
+        steve.click(slotOf(1));
+
+        assertEquals(List.of("reward Steve"), steve.getCommands());
+        assertEquals(List.of("reward Alex"), alex.getCommands());
+    }
+}
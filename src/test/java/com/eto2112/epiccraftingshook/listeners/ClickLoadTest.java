@@ -0,0 +1,159 @@
+package com.eto2112.epiccraftingshook.listeners;
+
+import com.eto2112.epiccraftingshook.ClickPipelineFixture;
+import com.eto2112.epiccraftingshook.SimulatedPlayer;
+import com.eto2112.epiccraftingshook.TestConfig;
+import com.eto2112.epiccraftingshook.utils.ConfigSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.eto2112.epiccraftingshook.TestConfig.performed;
+import static com.eto2112.epiccraftingshook.TestConfig.slotOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Many players clicking through thousands of recipes: nothing lost or duplicated, reloads included, and the
+// per-click cost independent of how many recipes are configured
+class ClickLoadTest {
+
+    private static final int RECIPES = 5_000;
+    private static final int PLAYERS = 300;
+    private static final int POSITIONS = 4;
+    private static final long AWAIT_NANOS = 30_000_000_000L;
+
+    private ClickPipelineFixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new ClickPipelineFixture();
+    }
+
+    @Test
+    void everyClickDispatchesExactlyOnce() {
+        fixture.apply(TestConfig.recipes(RECIPES));
+        List<SimulatedPlayer> players = join(PLAYERS);
+        int rounds = 20;
+
+        List<List<String>> expected = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            expected.add(new ArrayList<>());
+        }
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < PLAYERS; i++) {
+                int recipe = (round * PLAYERS + i) * 31 % RECIPES;
+                int position = 1 + (round + i) % POSITIONS;
+                SimulatedPlayer player = players.get(i);
+                player.openMenu(recipe);
+                assertTrue(player.click(slotOf(position)).isCancelled());
+                player.closeMenu();
+                expected.get(i).add(performed(recipe, position, player.getName()));
+            }
+        }
+
+        for (int i = 0; i < PLAYERS; i++) {
+            assertEquals(expected.get(i), players.get(i).getCommands());
+        }
+        assertEquals((long) PLAYERS * rounds, fixture.getListener().getPrefetchHits());
+        // Per menu: one task to track it on open, one to dispatch its click
+        assertEquals(2 * PLAYERS * rounds, fixture.getScheduledTasks());
+    }
+
+    @Test
+    void reloadsDuringClicksDropNothing() throws InterruptedException {
+        TestConfig gen1 = TestConfig.recipes(RECIPES).version("gen-1");
+        TestConfig gen2 = TestConfig.recipes(RECIPES).version("gen-2");
+        fixture.apply(gen1);
+        List<SimulatedPlayer> players = join(PLAYERS);
+
+        AtomicBoolean clicking = new AtomicBoolean(true);
+        AtomicInteger reloads = new AtomicInteger();
+        Thread reloader = new Thread(() -> {
+            // Compiling dominates a reload; precompile so the swaps land while clicks are in progress
+            List<ConfigSnapshot> compiled = List.of(fixture.compile(gen2), fixture.compile(gen1));
+            while (clicking.get()) {
+                fixture.getConfigManager().applySnapshot(compiled.get(reloads.getAndIncrement() % 2));
+                Thread.yield();
+            }
+        }, "reloader");
+        reloader.start();
+
+        List<List<String>> expected = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            expected.add(new ArrayList<>());
+        }
+        int rounds = 10;
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < PLAYERS; i++) {
+                int recipe = (round * 7 + i * 13) % RECIPES;
+                int position = 1 + (round + i) % POSITIONS;
+                SimulatedPlayer player = players.get(i);
+                player.openMenu(recipe);
+                assertTrue(player.click(slotOf(position)).isCancelled());
+                player.closeMenu();
+                expected.get(i).add(performed(recipe, position, player.getName()));
+            }
+        }
+        clicking.set(false);
+        reloader.join();
+
+        assertTrue(fixture.getListener().awaitInFlightClicks(System.nanoTime() + AWAIT_NANOS));
+        assertTrue(reloads.get() > 0);
+        for (int i = 0; i < PLAYERS; i++) {
+            // Clicks resolved off-thread after a reload may finish out of order; none may be missing
+            List<String> actual = players.get(i).getCommands();
+            List<String> wanted = expected.get(i);
+            Collections.sort(actual);
+            Collections.sort(wanted);
+            assertEquals(wanted, actual);
+        }
+    }
+
+    @Test
+    void allocationPerClickDoesNotGrowWithRecipeCount() {
+        long small = bytesPerClick(10);
+        long large = bytesPerClick(RECIPES);
+
+        assertTrue(large < small + 2_048, "per-click allocation grew from " + small + " to " + large + " bytes");
+        assertTrue(large < 64 * 1_024, "per-click allocation " + large + " bytes");
+    }
+
+    // Allocated bytes per prefetched click on one open menu, after a warm-up
+    private long bytesPerClick(int recipes) {
+        ClickPipelineFixture local = new ClickPipelineFixture();
+        local.apply(TestConfig.recipes(recipes));
+        SimulatedPlayer player = local.join("Steve");
+        player.openMenu(recipes - 1);
+
+        int clicks = 5_000;
+        for (int i = 0; i < clicks; i++) {
+            player.click(slotOf(1 + i % POSITIONS));
+        }
+        player.clearRecorded();
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < clicks; i++) {
+            player.click(slotOf(1 + i % POSITIONS));
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(clicks, player.getCommands().size());
+        return allocated / clicks;
+    }
+
+    private List<SimulatedPlayer> join(int count) {
+        List<SimulatedPlayer> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(fixture.join("Player" + i));
+        }
+        return players;
+    }
+}
@@ -0,0 +1,89 @@
+package com.eto2112.epiccraftingshook.session;
+
+import com.eto2112.epiccraftingshook.StressHarness;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// The click cooldown's check-and-start is one CAS: of any number of simultaneous clicks exactly one wins
+class ClickCooldownStressTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 2_000;
+    private static final long DURATION_MILLIS = 5_000L;
+
+    private final PlayerSession session = new SessionRegistry(16).open(player("Steve"));
+
+    private static Player player(String name) {
+        Player player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(player.getName()).thenReturn(name);
+        return player;
+    }
+
+    @Test
+    void simultaneousClicksStartOneCooldown() throws InterruptedException {
+        AtomicIntegerArray winners = new AtomicIntegerArray(ROUNDS);
+        CyclicBarrier round = new CyclicBarrier(THREADS);
+
+        StressHarness.run(THREADS, index -> {
+            for (int r = 0; r < ROUNDS; r++) {
+                round.await();
+                // A logical clock: each round starts after the previous round's cooldown ran out
+                long now = (r + 1) * DURATION_MILLIS * 2;
+                long until = session.acquireClickCooldown(now, DURATION_MILLIS);
+                if (until >= 0) {
+                    assertEquals(now + DURATION_MILLIS, until);
+                    winners.incrementAndGet(r);
+                }
+            }
+        });
+
+        for (int r = 0; r < ROUNDS; r++) {
+            assertEquals(1, winners.get(r), "winners in round " + r);
+        }
+    }
+
+    @Test
+    void releasedCooldownGoesToExactlyOneNextClick() throws InterruptedException {
+        AtomicInteger holders = new AtomicInteger();
+        AtomicInteger acquired = new AtomicInteger();
+        long now = 1_000L;
+
+        StressHarness.run(THREADS, index -> {
+            for (int i = 0; i < ROUNDS * 10; i++) {
+                long until = session.acquireClickCooldown(now, DURATION_MILLIS);
+                if (until < 0) continue;
+
+                // Only the holder may be between acquire and release
+                assertEquals(1, holders.incrementAndGet());
+                acquired.incrementAndGet();
+                holders.decrementAndGet();
+                session.releaseClickCooldown(until);
+            }
+        });
+
+        assertTrue(acquired.get() > 0);
+        assertEquals(0L, session.getClickCooldownUntil());
+    }
+
+    @Test
+    void staleReleaseLeavesTheNewerCooldownRunning() {
+        long first = session.acquireClickCooldown(1_000L, DURATION_MILLIS);
+        long second = session.acquireClickCooldown(first + 1, DURATION_MILLIS);
+
+        session.releaseClickCooldown(first);
+
+        assertEquals(second, session.getClickCooldownUntil());
+        assertEquals(-1L, session.acquireClickCooldown(first + 2, DURATION_MILLIS));
+    }
+}
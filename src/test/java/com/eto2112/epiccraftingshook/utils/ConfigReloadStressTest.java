@@ -0,0 +1,135 @@
+package com.eto2112.epiccraftingshook.utils;
+
+import com.eto2112.epiccraftingshook.ClickPipelineFixture;
+import com.eto2112.epiccraftingshook.StressHarness;
+import com.eto2112.epiccraftingshook.TestConfig;
+import com.eto2112.epiccraftingshook.graph.RecipeGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.eto2112.epiccraftingshook.TestConfig.recipeId;
+import static com.eto2112.epiccraftingshook.TestConfig.slotOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Readers racing reloads and cache clears: every read sees one whole snapshot, never a mix of two
+class ConfigReloadStressTest {
+
+    private static final int RECIPES = 2_000;
+    private static final int READERS = 7;
+    private static final int RELOADS = 400;
+
+    private ClickPipelineFixture fixture;
+    private ConfigManager configManager;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new ClickPipelineFixture();
+        configManager = fixture.getConfigManager();
+    }
+
+    // Generation A configures every recipe, generation B the first half with different actions
+    private static TestConfig generation(String name, int recipes) {
+        return TestConfig.recipes(recipes).version(name)
+                .actions((recipe, position) -> "[player] " + name + " " + recipeId(recipe) + " " + position);
+    }
+
+    private static List<String> actionsOf(String name, int recipe, int position) {
+        return List.of("[player] " + name + " " + recipeId(recipe) + " " + position);
+    }
+
+    @Test
+    void readersNeverSeeAHalfAppliedReload() throws InterruptedException {
+        ConfigSnapshot genA = fixture.compile(generation("gen-A", RECIPES));
+        ConfigSnapshot genB = fixture.compile(generation("gen-B", RECIPES / 2));
+        configManager.applySnapshot(genA);
+
+        int onlyInA = RECIPES - 1;
+        AtomicBoolean reloading = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+
+        StressHarness.run(READERS + 1, index -> {
+            if (index == 0) {
+                try {
+                    for (int i = 0; i < RELOADS; i++) {
+                        configManager.applySnapshot(i % 2 == 0 ? genB : genA);
+                    }
+                } finally {
+                    reloading.set(false);
+                }
+                return;
+            }
+
+            while (reloading.get()) {
+                ConfigSnapshot snapshot = configManager.getSnapshot();
+                RecipeGraph graph = snapshot.getRecipeGraph();
+                boolean isA = snapshot.getConfigVersion().equals("gen-A");
+                assertEquals(isA ? RECIPES : RECIPES / 2, snapshot.getConfiguredRecipes().size());
+                assertEquals(snapshot.getConfiguredRecipes().size(), graph.getNodeCount());
+                assertEquals(isA, graph.contains(recipeId(onlyInA)));
+
+                List<String> shared = configManager.getCommandsForSlot(recipeId(0), slotOf(1));
+                assertTrue(shared.equals(actionsOf("gen-A", 0, 1)) || shared.equals(actionsOf("gen-B", 0, 1)),
+                        "unexpected actions " + shared);
+
+                List<String> dropped = configManager.getCommandsForSlot(recipeId(onlyInA), slotOf(2));
+                assertTrue(dropped.equals(actionsOf("gen-A", onlyInA, 2)) || dropped.isEmpty(),
+                        "unexpected actions " + dropped);
+                reads.incrementAndGet();
+            }
+        });
+
+        assertTrue(reads.get() > 0);
+    }
+
+    @Test
+    void applyingLeavesTheCompiledSnapshotUnchanged() {
+        ConfigSnapshot compiled = fixture.compile(generation("gen-A", RECIPES));
+
+        configManager.applySnapshot(compiled);
+
+        // The compiled snapshot can be applied again (or elsewhere) without the published one changing
+        assertSame(RecipeGraph.EMPTY, compiled.getRecipeGraph());
+        assertEquals(RECIPES, configManager.getSnapshot().getRecipeGraph().getNodeCount());
+        assertSame(compiled.getItemCommands(), configManager.getSnapshot().getItemCommands());
+    }
+
+    @Test
+    void cacheClearsNeverServeAnotherRecipesActions() throws InterruptedException {
+        configManager.applySnapshot(fixture.compile(generation("gen-A", RECIPES)));
+        int lookups = 20_000;
+        AtomicInteger readersLeft = new AtomicInteger(READERS);
+
+        StressHarness.run(READERS + 1, index -> {
+            if (index == 0) {
+                while (readersLeft.get() > 0) {
+                    configManager.clearCommandCache();
+                    Thread.yield();
+                }
+                return;
+            }
+
+            try {
+                for (int i = 0; i < lookups; i++) {
+                    int recipe = (i * 31 + index) % 64;
+                    int position = 1 + (i + index) % 4;
+                    assertEquals(actionsOf("gen-A", recipe, position),
+                            configManager.getCommandsForSlot(recipeId(recipe), slotOf(position)));
+                    assertEquals(Collections.emptyList(),
+                            configManager.getCommandsForSlot(recipeId(recipe), TestConfig.RESULT_SLOT));
+                }
+            } finally {
+                readersLeft.decrementAndGet();
+            }
+        });
+
+        assertTrue(configManager.getCommandCacheSize() <= 64 * 5);
+    }
+}